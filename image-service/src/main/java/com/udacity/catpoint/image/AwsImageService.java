@@ -10,17 +10,26 @@ import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider; // Ex
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.rekognition.RekognitionAsyncClient;
 import software.amazon.awssdk.services.rekognition.model.*;
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+/**
+ * Classifies images with AWS Rekognition through the non-blocking client, so waiting for the
+ * round trip never holds a thread.
+ */
 public class AwsImageService implements ImageService {
     private final Logger log = LoggerFactory.getLogger(AwsImageService.class);
-    private RekognitionClient rekognitionClient;
+    private final ImagePreprocessor preprocessor;
+    private RekognitionAsyncClient rekognitionClient;
     public AwsImageService(){
+        this(new ImagePreprocessor());
+    }
+    public AwsImageService(ImagePreprocessor preprocessor){
+        this.preprocessor = preprocessor;
         try{
             AwsCredentialsProvider credentialsProvider = DefaultCredentialsProvider.create();
             String awsRegion = System.getenv("AWS_REGION");
@@ -29,7 +38,7 @@ public class AwsImageService implements ImageService {
                 log.warn("AWS Region not specified via AWS_REGION env var, defaulting to {}", awsRegion);
             }
 
-            this.rekognitionClient = RekognitionClient.builder()
+            this.rekognitionClient = RekognitionAsyncClient.builder()
                     .credentialsProvider(credentialsProvider)
                     .region(Region.of(awsRegion))
                     .build();
@@ -41,39 +50,47 @@ public class AwsImageService implements ImageService {
     }
     @Override
     public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+        return imageContainsCatAsync(image, confidenceThreshold).join();
+    }
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
         if (rekognitionClient == null) {
             log.error("AWS Rekognition client not initialized. Cannot process image.");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         if (image == null) {
             log.warn("Input image is null, cannot detect cats.");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "jpg", os);
-            SdkBytes imageBytes = SdkBytes.fromByteArray(os.toByteArray());
-            Image awsImage = Image.builder().bytes(imageBytes).build();
-
-            DetectLabelsRequest detectLabelsRequest = DetectLabelsRequest.builder()
-                    .image(awsImage)
-                    .maxLabels(20)
-                    .minConfidence(confidenceThreshold)
-                    .build();
-            DetectLabelsResponse response = rekognitionClient.detectLabels(detectLabelsRequest);
-            logLabels(response);
-            return response.labels().stream()
-                    .anyMatch(label -> "cat".equalsIgnoreCase(label.name()));
-
-        } catch (IOException e) {
-            log.error("Error converting BufferedImage to byte array", e);
-            return false;
-        } catch (RekognitionException e) {
-            log.error("AWS Rekognition API error: {}", e.getMessage(), e);
-            return false;
-        } catch (Exception e) {
-            log.error("An unexpected error occurred during image processing", e);
-            return false;
+        return CompletableFuture.supplyAsync(() -> buildRequest(image, confidenceThreshold))
+                .thenCompose(rekognitionClient::detectLabels)
+                .thenApply(response -> {
+                    logLabels(response);
+                    return response.labels().stream()
+                            .anyMatch(label -> "cat".equalsIgnoreCase(label.name()));
+                })
+                .exceptionally(this::logFailure);
+    }
+    private DetectLabelsRequest buildRequest(BufferedImage image, float confidenceThreshold) {
+        // The encoded array is owned by this request only, so the SDK can wrap it without copying.
+        SdkBytes imageBytes = SdkBytes.fromByteArrayUnsafe(preprocessor.encodeToArray(image));
+        Image awsImage = Image.builder().bytes(imageBytes).build();
+        return DetectLabelsRequest.builder()
+                .image(awsImage)
+                .maxLabels(20)
+                .minConfidence(confidenceThreshold)
+                .build();
+    }
+    private boolean logFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException) {
+            log.error("Error converting BufferedImage to byte array", cause.getCause());
+        } else if (cause instanceof RekognitionException) {
+            log.error("AWS Rekognition API error: {}", cause.getMessage(), cause);
+        } else {
+            log.error("An unexpected error occurred during image processing", cause);
         }
+        return false;
     }
     private void logLabels(DetectLabelsResponse response) {
         if (response != null && response.hasLabels()) {
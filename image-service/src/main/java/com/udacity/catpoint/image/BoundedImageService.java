@@ -0,0 +1,75 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many classifications may be in flight against another image service and gives each
+ * asynchronous call a deadline. An asynchronous call made while the limit is reached fails
+ * immediately with {@link RejectedExecutionException}; a newer frame will follow soon, so queueing
+ * stale ones only adds latency. A call that misses its deadline fails with a
+ * {@link java.util.concurrent.TimeoutException}, but keeps its permit until the underlying
+ * request actually finishes.
+ *
+ * A synchronous caller has nothing else to do meanwhile, so it waits up to the same deadline for
+ * a permit and only then fails with {@link RejectedExecutionException}.
+ */
+public class BoundedImageService implements ImageService {
+    private final ImageService delegate;
+    private final Semaphore inFlight;
+    private final long timeoutMillis;
+
+    public BoundedImageService(ImageService delegate, int maxInFlight, Duration timeout){
+        this.delegate = Objects.requireNonNull(delegate, "ImageService cannot be null");
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("In-flight limit must be positive");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold){
+        try {
+            if (!inFlight.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("No classification slot freed up within " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a classification slot", e);
+        }
+        try {
+            return delegate.imageContainsCat(image, confidenceThreshold);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many classifications in flight"));
+        }
+        CompletableFuture<Boolean> call;
+        try {
+            call = delegate.imageContainsCatAsync(image, confidenceThreshold);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((result, error) -> inFlight.release());
+        // Time out a dependent copy so the deadline does not cancel the delegate's own future.
+        return call.thenApply(result -> result).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public int getAvailableSlots(){
+        return inFlight.availablePermits();
+    }
+}
@@ -0,0 +1,191 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches verdicts of another image service by {@link PerceptualHash perceptual hash}. A frame
+ * whose hash is within the configured Hamming distance of a cached one reuses that verdict
+ * instead of being sent for classification. Entries are evicted least recently used once the
+ * cache is full, and expire after a time to live so a changed scene is eventually re-checked.
+ * Verdicts are cached per confidence threshold.
+ *
+ * Near matches are found through an index rather than by scanning the cache. Each hash is split
+ * into one more band than the allowed distance, so by the pigeonhole principle a hash within that
+ * distance agrees exactly on at least one band, and only entries sharing a band are compared.
+ */
+public class CachingImageService implements ImageService {
+    private final ImageService delegate;
+    private final int maxEntries;
+    private final int maxDistance;
+    private final long ttlNanos;
+    private final int bands;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, List<Entry>> index = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingImageService(ImageService delegate, int maxEntries, int maxDistance, Duration ttl){
+        this.delegate = Objects.requireNonNull(delegate, "ImageService cannot be null");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (maxDistance < 0 || maxDistance > 64) {
+            throw new IllegalArgumentException("Hamming distance must be between 0 and 64");
+        }
+        this.maxEntries = maxEntries;
+        this.maxDistance = maxDistance;
+        this.ttlNanos = ttl.toNanos();
+        this.bands = maxDistance + 1;
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold){
+        long hash = PerceptualHash.dHash(image);
+        Boolean cached = lookup(hash, confidenceThreshold);
+        if (cached != null) {
+            return cached;
+        }
+        boolean verdict = delegate.imageContainsCat(image, confidenceThreshold);
+        store(hash, confidenceThreshold, verdict);
+        return verdict;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        long hash = PerceptualHash.dHash(image);
+        Boolean cached = lookup(hash, confidenceThreshold);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.imageContainsCatAsync(image, confidenceThreshold)
+                .thenApply(verdict -> {
+                    store(hash, confidenceThreshold, verdict);
+                    return verdict;
+                });
+    }
+
+    private synchronized Boolean lookup(long hash, float confidenceThreshold){
+        long now = System.nanoTime();
+        Entry exact = entries.get(new Key(hash, confidenceThreshold));
+        if (exact != null) {
+            if (!exact.isExpired(now)) {
+                hits.increment();
+                return exact.verdict;
+            }
+            remove(exact);
+        }
+        Entry nearest = null;
+        int nearestDistance = maxDistance + 1;
+        for (int band = 0; band < bands; band++) {
+            List<Entry> bucket = index.get(bandKey(band, hash, confidenceThreshold));
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = bucket.size() - 1; i >= 0; i--) {
+                Entry entry = bucket.get(i);
+                if (entry.isExpired(now)) {
+                    remove(entry);
+                    continue;
+                }
+                int distance = PerceptualHash.distance(hash, entry.key.hash());
+                if (distance < nearestDistance && entry.key.confidenceThreshold() == confidenceThreshold) {
+                    nearest = entry;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        if (nearest == null) {
+            misses.increment();
+            return null;
+        }
+        entries.get(nearest.key); // refresh its LRU position
+        hits.increment();
+        return nearest.verdict;
+    }
+
+    private synchronized void store(long hash, float confidenceThreshold, boolean verdict){
+        Key key = new Key(hash, confidenceThreshold);
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            remove(previous);
+        }
+        Entry entry = new Entry(key, verdict, System.nanoTime() + ttlNanos);
+        entries.put(key, entry);
+        for (int band = 0; band < bands; band++) {
+            index.computeIfAbsent(bandKey(band, hash, confidenceThreshold), k -> new ArrayList<>(1)).add(entry);
+        }
+        if (entries.size() > maxEntries) {
+            remove(entries.values().iterator().next());
+        }
+    }
+
+    private void remove(Entry entry){
+        if (!entries.remove(entry.key, entry)) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            long bandKey = bandKey(band, entry.key.hash(), entry.key.confidenceThreshold());
+            List<Entry> bucket = index.get(bandKey);
+            if (bucket != null && bucket.remove(entry) && bucket.isEmpty()) {
+                index.remove(bandKey);
+            }
+        }
+    }
+
+    /**
+     * Index key for one band of a hash. Band {@code i} of {@code n} covers bits
+     * {@code [64i/n, 64(i+1)/n)}; unrelated bands or thresholds that collide only cost a distance
+     * check, since every candidate is verified.
+     */
+    private long bandKey(int band, long hash, float confidenceThreshold){
+        int from = band * Long.SIZE / bands;
+        int to = (band + 1) * Long.SIZE / bands;
+        long bits = to == from ? 0 : (hash >>> from) & (-1L >>> (Long.SIZE - (to - from)));
+        return ((bits * 31 + band) * 31 + Float.floatToIntBits(confidenceThreshold)) * 0x9E3779B97F4A7C15L;
+    }
+
+    public long getHitCount(){
+        return hits.sum();
+    }
+
+    public long getMissCount(){
+        return misses.sum();
+    }
+
+    public double getHitRate(){
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    private record Key(long hash, float confidenceThreshold) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final boolean verdict;
+        private final long expiresAt;
+
+        private Entry(Key key, boolean verdict, long expiresAt){
+            this.key = key;
+            this.verdict = verdict;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now){
+            return now - expiresAt >= 0;
+        }
+    }
+}
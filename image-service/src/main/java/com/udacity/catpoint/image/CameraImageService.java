@@ -0,0 +1,31 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An image service that keeps state for each camera, such as the last frame it saw, and so must
+ * be told which camera a frame came from. The methods without a camera id treat every frame as
+ * coming from one default camera.
+ */
+public interface CameraImageService extends ImageService {
+    String DEFAULT_CAMERA = "default";
+
+    boolean imageContainsCat(String cameraId, BufferedImage image, float confidenceThreshold);
+
+    CompletableFuture<Boolean> imageContainsCatAsync(String cameraId, BufferedImage image, float confidenceThreshold);
+
+    /**
+     * Forgets the state kept for a camera that went away.
+     */
+    void removeCamera(String cameraId);
+
+    @Override
+    default boolean imageContainsCat(BufferedImage image, float confidenceThreshold){
+        return imageContainsCat(DEFAULT_CAMERA, image, confidenceThreshold);
+    }
+
+    @Override
+    default CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        return imageContainsCatAsync(DEFAULT_CAMERA, image, confidenceThreshold);
+    }
+}
@@ -0,0 +1,370 @@
+package com.udacity.catpoint.image;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Minimal convolutional network inference engine. Tensors are plain {@code float[]} arrays in
+ * channel, row, column order; convolutions split their output channels across a
+ * {@link ForkJoinPool}. Networks are read from and written to a compact binary format:
+ * <pre>
+ * int magic, int input size, int layer count, then per layer a type byte followed by
+ *   CONV:  int in, int out, int kernel, boolean relu, float[out*in*k*k] weights, float[out] bias
+ *   POOL:  int size
+ *   GAP:   nothing
+ *   DENSE: int in, int out, float[out*in] weights, float[out] bias
+ * </pre>
+ * The input is a square RGB image scaled to [0, 1].
+ */
+public final class ConvNet {
+    private static final int MAGIC = 0x43415431; // "CAT1"
+    private static final byte CONV = 1;
+    private static final byte POOL = 2;
+    private static final byte GAP = 3;
+    private static final byte DENSE = 4;
+
+    private final int inputSize;
+    private final List<Layer> layers;
+
+    public ConvNet(int inputSize, List<Layer> layers){
+        if (inputSize <= 0) {
+            throw new IllegalArgumentException("Input size must be positive");
+        }
+        this.inputSize = inputSize;
+        this.layers = List.copyOf(layers);
+        Shape shape = new Shape(3, inputSize, inputSize);
+        for (Layer layer : this.layers) {
+            shape = layer.outputShape(shape);
+        }
+    }
+
+    public int getInputSize(){
+        return inputSize;
+    }
+
+    public List<Layer> getLayers(){
+        return layers;
+    }
+
+    /**
+     * Runs the whole network.
+     */
+    public float[] forward(float[] input, ForkJoinPool pool){
+        return forward(input, layers.size(), pool);
+    }
+
+    /**
+     * Runs the first {@code layerCount} layers, e.g. to extract features for training a new head.
+     */
+    public float[] forward(float[] input, int layerCount, ForkJoinPool pool){
+        Shape shape = new Shape(3, inputSize, inputSize);
+        if (input.length != shape.size()) {
+            throw new IllegalArgumentException("Expected " + shape.size() + " inputs but got " + input.length);
+        }
+        float[] activations = input;
+        for (int i = 0; i < layerCount; i++) {
+            Layer layer = layers.get(i);
+            activations = layer.apply(activations, shape, pool);
+            shape = layer.outputShape(shape);
+        }
+        return activations;
+    }
+
+    public static ConvNet load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in);
+        }
+    }
+
+    public static ConvNet load(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a network file");
+        }
+        int inputSize = in.readInt();
+        int layerCount = in.readInt();
+        List<Layer> layers = new ArrayList<>(layerCount);
+        for (int i = 0; i < layerCount; i++) {
+            byte type = in.readByte();
+            switch (type) {
+                case CONV -> {
+                    int inChannels = in.readInt();
+                    int outChannels = in.readInt();
+                    int kernel = in.readInt();
+                    boolean relu = in.readBoolean();
+                    layers.add(new Conv(inChannels, outChannels, kernel, relu,
+                            readFloats(in, outChannels * inChannels * kernel * kernel), readFloats(in, outChannels)));
+                }
+                case POOL -> layers.add(new MaxPool(in.readInt()));
+                case GAP -> layers.add(new GlobalAveragePool());
+                case DENSE -> {
+                    int inputs = in.readInt();
+                    int outputs = in.readInt();
+                    layers.add(new Dense(inputs, outputs, readFloats(in, outputs * inputs), readFloats(in, outputs)));
+                }
+                default -> throw new IOException("Unknown layer type " + type);
+            }
+        }
+        try {
+            return new ConvNet(inputSize, layers);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Inconsistent network file: " + e.getMessage(), e);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(inputSize);
+        out.writeInt(layers.size());
+        for (Layer layer : layers) {
+            if (layer instanceof Conv conv) {
+                out.writeByte(CONV);
+                out.writeInt(conv.inChannels);
+                out.writeInt(conv.outChannels);
+                out.writeInt(conv.kernel);
+                out.writeBoolean(conv.relu);
+                writeFloats(out, conv.weights);
+                writeFloats(out, conv.bias);
+            } else if (layer instanceof MaxPool pool) {
+                out.writeByte(POOL);
+                out.writeInt(pool.size);
+            } else if (layer instanceof GlobalAveragePool) {
+                out.writeByte(GAP);
+            } else if (layer instanceof Dense dense) {
+                out.writeByte(DENSE);
+                out.writeInt(dense.inputs);
+                out.writeInt(dense.outputs);
+                writeFloats(out, dense.weights);
+                writeFloats(out, dense.bias);
+            }
+        }
+        out.flush();
+    }
+
+    private static float[] readFloats(DataInputStream in, int count) throws IOException {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+
+    private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    public record Shape(int channels, int height, int width) {
+        public int size(){
+            return channels * height * width;
+        }
+    }
+
+    public sealed interface Layer permits Conv, MaxPool, GlobalAveragePool, Dense {
+        Shape outputShape(Shape input);
+        float[] apply(float[] input, Shape shape, ForkJoinPool pool);
+    }
+
+    /**
+     * Stride 1 convolution with zero padding that keeps the spatial size, optionally followed by ReLU.
+     */
+    public static final class Conv implements Layer {
+        private final int inChannels;
+        private final int outChannels;
+        private final int kernel;
+        private final boolean relu;
+        private final float[] weights;
+        private final float[] bias;
+
+        public Conv(int inChannels, int outChannels, int kernel, boolean relu, float[] weights, float[] bias){
+            if (kernel <= 0 || kernel % 2 == 0) {
+                throw new IllegalArgumentException("Kernel size must be odd");
+            }
+            if (weights.length != outChannels * inChannels * kernel * kernel || bias.length != outChannels) {
+                throw new IllegalArgumentException("Convolution weights do not match its shape");
+            }
+            this.inChannels = inChannels;
+            this.outChannels = outChannels;
+            this.kernel = kernel;
+            this.relu = relu;
+            this.weights = weights;
+            this.bias = bias;
+        }
+
+        @Override
+        public Shape outputShape(Shape input){
+            if (input.channels() != inChannels) {
+                throw new IllegalArgumentException("Convolution expects " + inChannels + " channels but got " + input.channels());
+            }
+            return new Shape(outChannels, input.height(), input.width());
+        }
+
+        @Override
+        public float[] apply(float[] input, Shape shape, ForkJoinPool pool){
+            float[] output = new float[outChannels * shape.height() * shape.width()];
+            if (pool == null || pool.getParallelism() == 1 || outChannels == 1) {
+                for (int oc = 0; oc < outChannels; oc++) {
+                    convolve(input, shape, output, oc);
+                }
+            } else {
+                pool.submit(() -> IntStream.range(0, outChannels).parallel()
+                        .forEach(oc -> convolve(input, shape, output, oc))).join();
+            }
+            return output;
+        }
+
+        // Accumulates one kernel tap at a time over whole rows so the inner loop is a contiguous
+        // multiply-add; the row and column ranges are clipped instead of testing padding per pixel.
+        private void convolve(float[] input, Shape shape, float[] output, int oc){
+            int height = shape.height();
+            int width = shape.width();
+            int plane = height * width;
+            int half = kernel / 2;
+            int outBase = oc * plane;
+            Arrays.fill(output, outBase, outBase + plane, bias[oc]);
+            for (int ic = 0; ic < inChannels; ic++) {
+                int inBase = ic * plane;
+                int weightBase = (oc * inChannels + ic) * kernel * kernel;
+                for (int ky = 0; ky < kernel; ky++) {
+                    int dy = ky - half;
+                    int yStart = Math.max(0, -dy);
+                    int yEnd = Math.min(height, height - dy);
+                    for (int kx = 0; kx < kernel; kx++) {
+                        int dx = kx - half;
+                        int xStart = Math.max(0, -dx);
+                        int xEnd = Math.min(width, width - dx);
+                        float w = weights[weightBase + ky * kernel + kx];
+                        for (int y = yStart; y < yEnd; y++) {
+                            int outRow = outBase + y * width;
+                            int inRow = inBase + (y + dy) * width + dx;
+                            for (int x = xStart; x < xEnd; x++) {
+                                output[outRow + x] += w * input[inRow + x];
+                            }
+                        }
+                    }
+                }
+            }
+            if (relu) {
+                for (int i = outBase; i < outBase + plane; i++) {
+                    if (output[i] < 0) {
+                        output[i] = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    public static final class MaxPool implements Layer {
+        private final int size;
+
+        public MaxPool(int size){
+            if (size <= 0) {
+                throw new IllegalArgumentException("Pool size must be positive");
+            }
+            this.size = size;
+        }
+
+        @Override
+        public Shape outputShape(Shape input){
+            return new Shape(input.channels(), input.height() / size, input.width() / size);
+        }
+
+        @Override
+        public float[] apply(float[] input, Shape shape, ForkJoinPool pool){
+            Shape out = outputShape(shape);
+            float[] output = new float[out.size()];
+            int i = 0;
+            for (int c = 0; c < out.channels(); c++) {
+                int inBase = c * shape.height() * shape.width();
+                for (int y = 0; y < out.height(); y++) {
+                    for (int x = 0; x < out.width(); x++) {
+                        float max = Float.NEGATIVE_INFINITY;
+                        for (int py = 0; py < size; py++) {
+                            int row = inBase + (y * size + py) * shape.width() + x * size;
+                            for (int px = 0; px < size; px++) {
+                                max = Math.max(max, input[row + px]);
+                            }
+                        }
+                        output[i++] = max;
+                    }
+                }
+            }
+            return output;
+        }
+    }
+
+    public static final class GlobalAveragePool implements Layer {
+        @Override
+        public Shape outputShape(Shape input){
+            return new Shape(input.channels(), 1, 1);
+        }
+
+        @Override
+        public float[] apply(float[] input, Shape shape, ForkJoinPool pool){
+            int plane = shape.height() * shape.width();
+            float[] output = new float[shape.channels()];
+            for (int c = 0; c < shape.channels(); c++) {
+                double sum = 0;
+                for (int i = c * plane; i < (c + 1) * plane; i++) {
+                    sum += input[i];
+                }
+                output[c] = (float) (sum / plane);
+            }
+            return output;
+        }
+    }
+
+    /**
+     * Fully connected layer without activation.
+     */
+    public static final class Dense implements Layer {
+        private final int inputs;
+        private final int outputs;
+        private final float[] weights;
+        private final float[] bias;
+
+        public Dense(int inputs, int outputs, float[] weights, float[] bias){
+            if (weights.length != outputs * inputs || bias.length != outputs) {
+                throw new IllegalArgumentException("Dense weights do not match its shape");
+            }
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.weights = weights;
+            this.bias = bias;
+        }
+
+        @Override
+        public Shape outputShape(Shape input){
+            if (input.size() != inputs) {
+                throw new IllegalArgumentException("Dense layer expects " + inputs + " inputs but got " + input.size());
+            }
+            return new Shape(outputs, 1, 1);
+        }
+
+        @Override
+        public float[] apply(float[] input, Shape shape, ForkJoinPool pool){
+            float[] output = new float[outputs];
+            for (int o = 0; o < outputs; o++) {
+                float sum = bias[o];
+                for (int i = 0; i < inputs; i++) {
+                    sum += weights[o * inputs + i] * input[i];
+                }
+                output[o] = sum;
+            }
+            return output;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.udacity.catpoint.image;
 import java.awt.image.BufferedImage;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 public class FakeImageService implements ImageService {
     private final Random r = new Random();
 
@@ -8,4 +9,9 @@ public class FakeImageService implements ImageService {
     public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
         return r.nextBoolean();
     }
-}
\ No newline at end of file
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
+        return CompletableFuture.completedFuture(imageContainsCat(image, confidenceThreshold));
+    }
+}
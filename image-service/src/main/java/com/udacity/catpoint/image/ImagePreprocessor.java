@@ -0,0 +1,133 @@
+package com.udacity.catpoint.image;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Prepares frames for a remote classifier. Frames larger than the maximum dimension are scaled
+ * down, preserving aspect ratio, into a canvas that is reused while the frame size stays the same.
+ * The canvas uses the byte layout the JPEG encoder reads directly, which avoids a full-frame
+ * conversion inside the encoder. Frames are then JPEG encoded into pooled buffers that grow once
+ * and are reused across frames.
+ */
+public final class ImagePreprocessor {
+    public static final int DEFAULT_MAX_DIMENSION = 1024;
+    public static final float DEFAULT_JPEG_QUALITY = 0.85f;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final ConcurrentLinkedQueue<EncodeBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<BufferedImage> canvas = new ThreadLocal<>();
+
+    public ImagePreprocessor(){
+        this(DEFAULT_MAX_DIMENSION, DEFAULT_JPEG_QUALITY);
+    }
+    public ImagePreprocessor(int maxDimension, float jpegQuality){
+        if (maxDimension <= 0) {
+            throw new IllegalArgumentException("Maximum dimension must be positive");
+        }
+        if (jpegQuality <= 0 || jpegQuality > 1) {
+            throw new IllegalArgumentException("JPEG quality must be in (0, 1]");
+        }
+        this.maxDimension = maxDimension;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Returns a {@link BufferedImage#TYPE_3BYTE_BGR} image no larger than the maximum dimension. The returned image may be a canvas
+     * reused by the next call on the same thread. Every pixel of the canvas is repainted, with transparent pixels of the frame
+     * drawn over black as on a fresh canvas, so nothing of the previous frame shows through.
+     */
+    public BufferedImage downscale(BufferedImage image){
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        if (scale == 1.0 && image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage target = canvas.get();
+        if (target == null || target.getWidth() != targetWidth || target.getHeight() != targetHeight) {
+            target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_3BYTE_BGR);
+            canvas.set(target);
+        }
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, Color.BLACK, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Downscales and encodes the image into a pooled buffer and passes a read-only view of the
+     * JPEG bytes to the consumer. The view is only valid until the consumer returns.
+     */
+    public <T> T encode(BufferedImage image, Function<ByteBuffer, T> consumer){
+        EncodeBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new EncodeBuffer();
+        }
+        try {
+            writeJpeg(downscale(image), buffer);
+            return consumer.apply(buffer.view());
+        } finally {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Downscales and encodes the image, copying the JPEG bytes out of the pooled buffer exactly
+     * once into an array the caller owns.
+     */
+    public byte[] encodeToArray(BufferedImage image){
+        return encode(image, view -> {
+            byte[] bytes = new byte[view.remaining()];
+            view.get(bytes);
+            return bytes;
+        });
+    }
+
+    private void writeJpeg(BufferedImage image, ByteArrayOutputStream out){
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+        private EncodeBuffer(){
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        private ByteBuffer view(){
+            return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+        }
+    }
+}
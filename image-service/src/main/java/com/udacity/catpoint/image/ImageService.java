@@ -1,5 +1,14 @@
 package com.udacity.catpoint.image;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
 public interface ImageService{
     boolean imageContainsCat(BufferedImage image, float confidenceThreshold);
-}
\ No newline at end of file
+
+    /**
+     * Classifies the image without blocking the caller. Implementations backed by a remote
+     * service override this to use a non-blocking client.
+     */
+    default CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        return CompletableFuture.supplyAsync(() -> imageContainsCat(image, confidenceThreshold));
+    }
+}
@@ -0,0 +1,37 @@
+package com.udacity.catpoint.image;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Chooses the classifier at startup. The classifier is read from the {@value #CLASSIFIER_PROPERTY}
+ * system property ({@code fake}, {@code local} or {@code aws}, defaulting to {@code fake}). For
+ * {@code local}, {@value #MODEL_PROPERTY} may name a model file to use instead of the bundled one.
+ * Whichever is chosen sits behind an in-flight limit of {@value #MAX_IN_FLIGHT} calls with a ten
+ * second deadline, shared by all cameras, and in front of that motion gating that keeps separate
+ * state for each camera.
+ */
+public final class ImageServiceFactory {
+    public static final String CLASSIFIER_PROPERTY = "catpoint.classifier";
+    public static final String MODEL_PROPERTY = "catpoint.classifier.model";
+    public static final int MAX_IN_FLIGHT = 2;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ImageServiceFactory(){
+    }
+
+    public static ImageService fromSystemProperties() throws IOException {
+        return create(System.getProperty(CLASSIFIER_PROPERTY, "fake"), System.getProperty(MODEL_PROPERTY));
+    }
+
+    public static ImageService create(String classifier, String model) throws IOException {
+        ImageService service = switch (classifier.toLowerCase(Locale.ROOT)) {
+            case "fake" -> new FakeImageService();
+            case "local" -> model == null ? new LocalCatClassifier() : LocalCatClassifier.fromFile(Path.of(model));
+            case "aws" -> new AwsImageService();
+            default -> throw new IllegalArgumentException("Unknown classifier: " + classifier);
+        };
+        return new MotionGatedImageService(new BoundedImageService(service, MAX_IN_FLIGHT, TIMEOUT));
+    }
+}
@@ -0,0 +1,101 @@
+package com.udacity.catpoint.image;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Classifies images on the local machine with a {@link ConvNet} instead of calling a remote
+ * service. The network's single output is read as the logit of the cat probability. Frames are
+ * scaled to the network input size and the convolutions run on a dedicated fork/join pool, which
+ * also runs the asynchronous calls.
+ *
+ * The bundled model is a small demonstration network; a better trained network in the same file
+ * format can be loaded with {@link #fromFile(Path)}.
+ */
+public class LocalCatClassifier implements ImageService {
+    public static final String BUNDLED_MODEL = "/models/catpoint-demo-cat.cnn";
+
+    private final ConvNet model;
+    private final ForkJoinPool pool;
+
+    public LocalCatClassifier(){
+        this(loadBundledModel(), Runtime.getRuntime().availableProcessors());
+    }
+    public LocalCatClassifier(ConvNet model, int parallelism){
+        this.model = Objects.requireNonNull(model, "Model cannot be null");
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("catpoint-local-classifier-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public static LocalCatClassifier fromFile(Path path) throws IOException {
+        return new LocalCatClassifier(ConvNet.load(path), Runtime.getRuntime().availableProcessors());
+    }
+
+    public static ConvNet loadBundledModel(){
+        try (InputStream in = LocalCatClassifier.class.getResourceAsStream(BUNDLED_MODEL)) {
+            if (in == null) {
+                throw new IllegalStateException("Bundled model " + BUNDLED_MODEL + " is missing");
+            }
+            return ConvNet.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold){
+        return catProbability(image) * 100 >= confidenceThreshold;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        return CompletableFuture.supplyAsync(() -> imageContainsCat(image, confidenceThreshold), pool);
+    }
+
+    /**
+     * Probability between 0 and 1 that the image shows a cat.
+     */
+    public float catProbability(BufferedImage image){
+        float logit = model.forward(toTensor(image, model.getInputSize()), pool)[0];
+        return (float) (1 / (1 + Math.exp(-logit)));
+    }
+
+    /**
+     * Scales the image to a square of the given size and returns its red, green and blue planes
+     * with values in [0, 1].
+     */
+    public static float[] toTensor(BufferedImage image, int size){
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        int plane = size * size;
+        int[] pixels = scaled.getRGB(0, 0, size, size, null, 0, size);
+        float[] tensor = new float[3 * plane];
+        for (int i = 0; i < plane; i++) {
+            int rgb = pixels[i];
+            tensor[i] = ((rgb >> 16) & 0xff) / 255f;
+            tensor[plane + i] = ((rgb >> 8) & 0xff) / 255f;
+            tensor[2 * plane + i] = (rgb & 0xff) / 255f;
+        }
+        return tensor;
+    }
+}
@@ -0,0 +1,191 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Only sends a frame for classification when it differs enough from the last frame classified for
+ * the same camera. Each frame is sampled onto a small grayscale grid and compared cell by cell with
+ * the grid of that camera's last classified frame; if the share of cells whose luminance moved by
+ * more than the pixel delta stays at or below the changed ratio, the camera's previous verdict is
+ * returned instead. Every camera has its own pair of grids, allocated on its first frame and
+ * reused, so a frame that is gated allocates nothing and cameras never gate each other's frames.
+ */
+public class MotionGatedImageService implements CameraImageService {
+    public static final int DEFAULT_GRID_WIDTH = 32;
+    public static final int DEFAULT_GRID_HEIGHT = 24;
+    public static final int DEFAULT_PIXEL_DELTA = 16;
+    public static final float DEFAULT_CHANGED_RATIO = 0.02f;
+
+    private final ImageService delegate;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int pixelDelta;
+    private final int changedCellLimit;
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+    private final LongAdder classified = new LongAdder();
+    private final LongAdder gated = new LongAdder();
+
+    public MotionGatedImageService(ImageService delegate){
+        this(delegate, DEFAULT_GRID_WIDTH, DEFAULT_GRID_HEIGHT, DEFAULT_PIXEL_DELTA, DEFAULT_CHANGED_RATIO);
+    }
+    public MotionGatedImageService(ImageService delegate, int gridWidth, int gridHeight, int pixelDelta, float changedRatio){
+        this.delegate = Objects.requireNonNull(delegate, "ImageService cannot be null");
+        if (gridWidth <= 0 || gridHeight <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive");
+        }
+        if (pixelDelta < 0 || pixelDelta > 255) {
+            throw new IllegalArgumentException("Pixel delta must be between 0 and 255");
+        }
+        if (changedRatio < 0 || changedRatio >= 1) {
+            throw new IllegalArgumentException("Changed ratio must be in [0, 1)");
+        }
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.pixelDelta = pixelDelta;
+        this.changedCellLimit = (int) (changedRatio * gridWidth * gridHeight);
+    }
+
+    private Gate gateFor(String cameraId){
+        return gates.computeIfAbsent(Objects.requireNonNull(cameraId, "Camera id cannot be null"), id -> new Gate());
+    }
+
+    /**
+     * Classifies through the delegate's synchronous method, so the delegate decides how a blocking
+     * caller waits. A gated frame waits for the verdict it reuses.
+     */
+    @Override
+    public boolean imageContainsCat(String cameraId, BufferedImage image, float confidenceThreshold){
+        Gate gate = gateFor(cameraId);
+        CompletableFuture<Boolean> verdict;
+        boolean reuse;
+        synchronized (gate) {
+            reuse = gate.admit(image, confidenceThreshold);
+            if (!reuse) {
+                gate.lastVerdict = new CompletableFuture<>();
+            }
+            verdict = gate.lastVerdict;
+        }
+        if (reuse) {
+            return joinVerdict(verdict);
+        }
+        try {
+            boolean result = delegate.imageContainsCat(image, confidenceThreshold);
+            verdict.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            verdict.completeExceptionally(e);
+            gate.forget(verdict);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(String cameraId, BufferedImage image, float confidenceThreshold){
+        Gate gate = gateFor(cameraId);
+        CompletableFuture<Boolean> verdict;
+        synchronized (gate) {
+            if (gate.admit(image, confidenceThreshold)) {
+                return gate.lastVerdict;
+            }
+            verdict = delegate.imageContainsCatAsync(image, confidenceThreshold);
+            gate.lastVerdict = verdict;
+        }
+        verdict.whenComplete((result, error) -> {
+            if (error != null) {
+                gate.forget(verdict);
+            }
+        });
+        return verdict;
+    }
+
+    @Override
+    public void removeCamera(String cameraId){
+        gates.remove(cameraId);
+    }
+
+    private static boolean joinVerdict(CompletableFuture<Boolean> verdict){
+        try {
+            return verdict.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * One camera's last classified frame and its verdict, guarded by the gate's own lock.
+     */
+    private final class Gate {
+        private byte[] reference = new byte[gridWidth * gridHeight];
+        private byte[] current = new byte[gridWidth * gridHeight];
+        private boolean hasReference;
+        private float referenceThreshold;
+        private CompletableFuture<Boolean> lastVerdict;
+
+        /**
+         * Samples the frame and returns true if it can reuse the last verdict. Otherwise the frame
+         * becomes the reference and the caller must classify it. Called with the gate's lock held.
+         */
+        private boolean admit(BufferedImage image, float confidenceThreshold){
+            sample(image);
+            if (hasReference && referenceThreshold == confidenceThreshold && !changed()) {
+                gated.increment();
+                return true;
+            }
+            byte[] swap = reference;
+            reference = current;
+            current = swap;
+            hasReference = true;
+            referenceThreshold = confidenceThreshold;
+            classified.increment();
+            return false;
+        }
+
+        // A failed classification must not be reused, so the camera's next frame is classified regardless.
+        private synchronized void forget(CompletableFuture<Boolean> failed){
+            if (lastVerdict == failed) {
+                hasReference = false;
+                lastVerdict = null;
+            }
+        }
+
+        private void sample(BufferedImage image){
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int i = 0;
+            for (int gy = 0; gy < gridHeight; gy++) {
+                int y = (gy * 2 + 1) * height / (2 * gridHeight);
+                for (int gx = 0; gx < gridWidth; gx++) {
+                    int x = (gx * 2 + 1) * width / (2 * gridWidth);
+                    int rgb = image.getRGB(x, y);
+                    current[i++] = (byte) ((((rgb >> 16) & 0xff) * 299 + ((rgb >> 8) & 0xff) * 587 + (rgb & 0xff) * 114) / 1000);
+                }
+            }
+        }
+
+        private boolean changed(){
+            int changedCells = 0;
+            for (int i = 0; i < current.length; i++) {
+                if (Math.abs((current[i] & 0xff) - (reference[i] & 0xff)) > pixelDelta && ++changedCells > changedCellLimit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public long getClassifiedCount(){
+        return classified.sum();
+    }
+
+    public long getGatedCount(){
+        return gated.sum();
+    }
+}
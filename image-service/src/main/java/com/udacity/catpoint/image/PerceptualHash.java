@@ -0,0 +1,50 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+
+/**
+ * 64-bit difference hash (dHash) of an image. The image is reduced to a 9x8 grid of average
+ * luminance and each bit records whether a cell is brighter than its right-hand neighbour, so the
+ * hash survives rescaling, recompression and small brightness changes. Similar images have hashes
+ * a small Hamming distance apart.
+ */
+public final class PerceptualHash {
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+    private static final int SAMPLES_PER_CELL_AXIS = 4;
+
+    private PerceptualHash(){
+    }
+
+    public static long dHash(BufferedImage image){
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long hash = 0;
+        for (int row = 0; row < ROWS; row++) {
+            int previous = cellLuminance(image, 0, row, width, height);
+            for (int column = 1; column < COLUMNS; column++) {
+                int current = cellLuminance(image, column, row, width, height);
+                hash = (hash << 1) | (previous > current ? 1 : 0);
+                previous = current;
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b){
+        return Long.bitCount(a ^ b);
+    }
+
+    // Averages a fixed grid of samples rather than every pixel, so cost does not grow with resolution.
+    private static int cellLuminance(BufferedImage image, int column, int row, int width, int height){
+        int sum = 0;
+        for (int sy = 0; sy < SAMPLES_PER_CELL_AXIS; sy++) {
+            int y = ((row * SAMPLES_PER_CELL_AXIS + sy) * 2 + 1) * height / (2 * ROWS * SAMPLES_PER_CELL_AXIS);
+            for (int sx = 0; sx < SAMPLES_PER_CELL_AXIS; sx++) {
+                int x = ((column * SAMPLES_PER_CELL_AXIS + sx) * 2 + 1) * width / (2 * COLUMNS * SAMPLES_PER_CELL_AXIS);
+                int rgb = image.getRGB(x, y);
+                sum += (((rgb >> 16) & 0xff) * 299 + ((rgb >> 8) & 0xff) * 587 + (rgb & 0xff) * 114) / 1000;
+            }
+        }
+        return sum / (SAMPLES_PER_CELL_AXIS * SAMPLES_PER_CELL_AXIS);
+    }
+}
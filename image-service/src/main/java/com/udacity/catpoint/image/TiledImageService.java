@@ -0,0 +1,145 @@
+package com.udacity.catpoint.image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Splits frames larger than a tile into overlapping tiles and classifies the tiles side by side
+ * on an executor, so a cat that fills only a small part of a large frame still dominates the tile
+ * it is in. The frame contains a cat as soon as any tile does; tiles that have not started by
+ * then are skipped. The tiles are views of the frame and are not copied. Each tile is classified
+ * with a blocking call on an executor thread, so the executor's size also bounds how many calls
+ * are made to the delegate at once. Because the calls block, the default is a dedicated pool
+ * rather than the common fork/join pool.
+ */
+public class TiledImageService implements ImageService {
+    public static final int DEFAULT_TILE_SIZE = 512;
+    public static final int DEFAULT_OVERLAP = 128;
+
+    private final ImageService delegate;
+    private final int tileSize;
+    private final int overlap;
+    private final Executor executor;
+    private final LongAdder classifiedTiles = new LongAdder();
+    private final LongAdder skippedTiles = new LongAdder();
+
+    public TiledImageService(ImageService delegate){
+        this(delegate, DEFAULT_TILE_SIZE, DEFAULT_OVERLAP, newTilePool(Runtime.getRuntime().availableProcessors()));
+    }
+    public TiledImageService(ImageService delegate, int tileSize, int overlap, Executor executor){
+        this.delegate = Objects.requireNonNull(delegate, "ImageService cannot be null");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        if (overlap < 0 || overlap >= tileSize) {
+            throw new IllegalArgumentException("Overlap must be at least 0 and smaller than the tile size");
+        }
+        this.tileSize = tileSize;
+        this.overlap = overlap;
+    }
+
+    private static ExecutorService newTilePool(int threads){
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "catpoint-tile-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold){
+        return imageContainsCatAsync(image, confidenceThreshold).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold){
+        List<BufferedImage> tiles = tiles(image);
+        CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(tiles.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (BufferedImage tile : tiles) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (verdict.isDone()) {
+                            skippedTiles.increment();
+                        } else {
+                            classifiedTiles.increment();
+                            if (delegate.imageContainsCat(tile, confidenceThreshold)) {
+                                verdict.complete(true);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        tileDone(verdict, remaining, failure);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failure.compareAndSet(null, e);
+                tileDone(verdict, remaining, failure);
+            }
+        }
+        return verdict;
+    }
+
+    // The last tile to finish settles a frame no tile found a cat in; one failed tile makes "no cat" unreliable.
+    private static void tileDone(CompletableFuture<Boolean> verdict, AtomicInteger remaining, AtomicReference<Throwable> failure){
+        if (remaining.decrementAndGet() == 0) {
+            Throwable error = failure.get();
+            if (error != null) {
+                verdict.completeExceptionally(error);
+            } else {
+                verdict.complete(false);
+            }
+        }
+    }
+
+    /**
+     * Tiles covering the image in row order. Tiles step by the tile size minus the overlap, and
+     * the last tile in each row and column is moved back to end at the image edge.
+     */
+    private List<BufferedImage> tiles(BufferedImage image){
+        int[] xs = origins(image.getWidth());
+        int[] ys = origins(image.getHeight());
+        List<BufferedImage> tiles = new ArrayList<>(xs.length * ys.length);
+        for (int y : ys) {
+            for (int x : xs) {
+                tiles.add(image.getSubimage(x, y, Math.min(tileSize, image.getWidth()), Math.min(tileSize, image.getHeight())));
+            }
+        }
+        return tiles;
+    }
+
+    private int[] origins(int length){
+        if (length <= tileSize) {
+            return new int[]{0};
+        }
+        int stride = tileSize - overlap;
+        int count = (length - tileSize + stride - 1) / stride + 1;
+        int[] origins = new int[count];
+        for (int i = 0; i < count; i++) {
+            origins[i] = Math.min(i * stride, length - tileSize);
+        }
+        return origins;
+    }
+
+    public long getClassifiedTileCount(){
+        return classifiedTiles.sum();
+    }
+
+    public long getSkippedTileCount(){
+        return skippedTiles.sum();
+    }
+}
@@ -1,10 +1,18 @@
 package com.udacity.catpoint.application;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
- * This is the main class that launches the application.
+ * This is the main class that launches the application. With {@code --headless} or
+ * {@code -Dcatpoint.headless=true} it runs {@link CatpointServer} instead of the Swing GUI.
  */
 public class CatpointApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (Boolean.getBoolean(CatpointServer.HEADLESS_PROPERTY) || Arrays.asList(args).contains("--headless")) {
+            CatpointServer.main(args);
+            return;
+        }
         CatpointGui gui = new CatpointGui();
         gui.setVisible(true);
     }
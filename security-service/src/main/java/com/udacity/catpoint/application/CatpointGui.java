@@ -1,22 +1,27 @@
 package com.udacity.catpoint.application;
-import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.camera.FramePipeline;
+import com.udacity.catpoint.camera.FrameSourceFactory;
 import com.udacity.catpoint.image.ImageService;
-import com.udacity.catpoint.data.PretendDatabaseSecurityRepositoryImpl;
+import com.udacity.catpoint.image.ImageServiceFactory;
 import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.SecurityRepositoryFactory;
 import com.udacity.catpoint.service.SecurityService;
 import net.miginfocom.swing.MigLayout;
 import javax.swing.*;
+import java.io.IOException;
 import java.io.Serial;
+import java.io.UncheckedIOException;
 public class CatpointGui extends JFrame implements java.io.Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
-    private final transient SecurityRepository securityRepository = new PretendDatabaseSecurityRepositoryImpl();
-    private final transient ImageService imageService = new FakeImageService();
-    private final transient SecurityService securityService = new SecurityService(securityRepository, (FakeImageService) imageService);
+    private final transient SecurityRepository securityRepository = SecurityRepositoryFactory.fromSystemProperties();
+    private final transient ImageService imageService = createImageService();
+    private final transient SecurityService securityService = new SecurityService(securityRepository, imageService);
     private final transient DisplayPanel displayPanel = new DisplayPanel(securityService);
     private final transient ControlPanel controlPanel = new ControlPanel(securityService);
     private final transient SensorPanel sensorPanel = new SensorPanel(securityService);
-    private final transient ImagePanel imagePanel = new ImagePanel(securityService);
+    private final transient FramePipeline framePipeline = createFramePipeline(securityService);
+    private final transient ImagePanel imagePanel = new ImagePanel(securityService, framePipeline);
     public CatpointGui() {
         super("Very Secure App");
         setLocation(100, 100);
@@ -30,5 +35,24 @@ public class CatpointGui extends JFrame implements java.io.Serializable {
         setContentPane(mainPanel);
         pack();
         setLocationRelativeTo(null);
+        if (framePipeline != null) {
+            framePipeline.start();
+        }
+    }
+
+    private static ImageService createImageService() {
+        try {
+            return ImageServiceFactory.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FramePipeline createFramePipeline(SecurityService securityService) {
+        try {
+            return FrameSourceFactory.pipelineFromSystemProperties(securityService).orElse(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.udacity.catpoint.application;
+
+import com.udacity.catpoint.camera.CameraClassifierPool;
+import com.udacity.catpoint.camera.FramePipeline;
+import com.udacity.catpoint.camera.FrameSourceFactory;
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ReplicatedSecurityRepository;
+import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.SecurityRepositoryFactory;
+import com.udacity.catpoint.image.ImageServiceFactory;
+import com.udacity.catpoint.net.ControlApiServer;
+import com.udacity.catpoint.net.ReplicationServer;
+import com.udacity.catpoint.net.SensorEventServer;
+import com.udacity.catpoint.net.StandbyReplica;
+import com.udacity.catpoint.service.SecurityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the security service without a user interface, for machines with no display. The
+ * repository, classifier and camera are chosen from system properties just as for the GUI, but
+ * no Swing or AWT window classes are loaded: status changes are logged instead of shown. Selected
+ * with {@code --headless} or the {@value #HEADLESS_PROPERTY} system property. Setting
+ * {@value #SENSOR_PORT_PROPERTY} also accepts sensor events over the network on that port, and
+ * setting {@value #HTTP_PORT_PROPERTY} serves the control API on that port of the loopback
+ * interface. Cameras listed in {@value FrameSourceFactory#CAMERAS_PROPERTY} are classified by a
+ * shared pool alongside the single configured camera, if any.
+ *
+ * Setting {@value #REPLICATION_PORT_PROPERTY} streams every repository change to standbys
+ * connecting on that port of the loopback interface. A server started with
+ * {@value #REPLICATION_PRIMARY_PROPERTY} set to such a port, or to a host and port, is a hot
+ * standby instead: it replicates the primary's state into its own repository, chosen from the
+ * system properties like any other, and once the primary has been silent for
+ * {@link #FAILOVER_AFTER} takes over with that repository and starts serving. A standby refuses to
+ * start unless it is given the journal or SQL backend at its own
+ * {@value SecurityRepositoryFactory#LOCATION_PROPERTY}, so it never writes into the storage of a
+ * primary on the same host.
+ */
+public final class CatpointServer implements Closeable {
+    public static final String HEADLESS_PROPERTY = "catpoint.headless";
+    public static final String SENSOR_PORT_PROPERTY = "catpoint.sensor.port";
+    public static final String HTTP_PORT_PROPERTY = "catpoint.http.port";
+    public static final String REPLICATION_PORT_PROPERTY = "catpoint.replication.port";
+    public static final String REPLICATION_PRIMARY_PROPERTY = "catpoint.replication.primary";
+    public static final Duration FAILOVER_AFTER = Duration.ofSeconds(2);
+    private static final String HTTP_NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final Duration CATCH_UP = Duration.ofSeconds(1);
+    private static final Logger log = LoggerFactory.getLogger(CatpointServer.class);
+
+    private final SecurityRepository securityRepository;
+    private final SecurityService securityService;
+    private final FramePipeline framePipeline;
+    private final CameraClassifierPool cameraPool;
+    private final SensorEventServer sensorEventServer;
+    private final ControlApiServer controlApiServer;
+    private final ReplicationServer replicationServer;
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    public CatpointServer(SecurityRepository securityRepository, SecurityService securityService, FramePipeline framePipeline) {
+        this(securityRepository, securityService, framePipeline, null, null, null, null);
+    }
+
+    /**
+     * @param framePipeline the camera feed, or null when there is no camera
+     * @param cameraPool the feeds of several cameras, or null when none are listed
+     * @param sensorEventServer the network sensor feed, or null when sensors are not networked
+     * @param controlApiServer the HTTP control API, or null when it is not served
+     * @param replicationServer the feed to standbys, or null when there are none
+     */
+    public CatpointServer(SecurityRepository securityRepository, SecurityService securityService, FramePipeline framePipeline,
+                          CameraClassifierPool cameraPool, SensorEventServer sensorEventServer, ControlApiServer controlApiServer,
+                          ReplicationServer replicationServer) {
+        this.securityRepository = Objects.requireNonNull(securityRepository, "SecurityRepository cannot be null");
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        this.framePipeline = framePipeline;
+        this.cameraPool = cameraPool;
+        this.sensorEventServer = sensorEventServer;
+        this.controlApiServer = controlApiServer;
+        this.replicationServer = replicationServer;
+    }
+
+    public static CatpointServer fromSystemProperties() throws IOException {
+        return withRepository(SecurityRepositoryFactory.fromSystemProperties());
+    }
+
+    /**
+     * Builds the server around the given repository, with everything else chosen from system
+     * properties.
+     */
+    public static CatpointServer withRepository(SecurityRepository repository) throws IOException {
+        String replicationPort = System.getProperty(REPLICATION_PORT_PROPERTY);
+        SecurityRepository securityRepository = repository;
+        ReplicationServer replicationServer = null;
+        if (replicationPort != null) {
+            ReplicatedSecurityRepository replicated = new ReplicatedSecurityRepository(repository);
+            securityRepository = replicated;
+            replicationServer = new ReplicationServer(replicated,
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(replicationPort)));
+        }
+        SecurityService securityService = new SecurityService(securityRepository, ImageServiceFactory.fromSystemProperties());
+        String sensorPort = System.getProperty(SENSOR_PORT_PROPERTY);
+        SensorEventServer sensorEventServer = sensorPort == null ? null
+                : new SensorEventServer(securityService, new InetSocketAddress(Integer.parseInt(sensorPort)));
+        String httpPort = System.getProperty(HTTP_PORT_PROPERTY);
+        ControlApiServer controlApiServer = httpPort == null ? null
+                : new ControlApiServer(securityService, new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(httpPort)));
+        return new CatpointServer(securityRepository, securityService,
+                FrameSourceFactory.pipelineFromSystemProperties(securityService).orElse(null),
+                FrameSourceFactory.poolFromSystemProperties(securityService).orElse(null), sensorEventServer, controlApiServer,
+                replicationServer);
+    }
+
+    /**
+     * Follows the primary at the given address, replicating into the repository chosen from system
+     * properties, until it has been silent for {@link #FAILOVER_AFTER}, then returns that
+     * repository to take over with.
+     * @throws IllegalStateException if the properties do not give the standby storage of its own
+     * @see SecurityRepositoryFactory#standbyFromSystemProperties()
+     */
+    public static SecurityRepository followUntilFailover(InetSocketAddress primary) throws InterruptedException {
+        return followUntilFailover(SecurityRepositoryFactory.standbyFromSystemProperties(), primary);
+    }
+
+    /**
+     * Follows the primary at the given address, replicating into the given repository, until it
+     * has been silent for {@link #FAILOVER_AFTER}, then returns the repository to take over with.
+     */
+    public static SecurityRepository followUntilFailover(SecurityRepository repository, InetSocketAddress primary) throws InterruptedException {
+        StandbyReplica standby = new StandbyReplica(repository, primary);
+        standby.start();
+        standby.awaitPrimaryLoss(FAILOVER_AFTER);
+        log.warn("Primary at {} silent for {} ms, taking over", primary, FAILOVER_AFTER.toMillis());
+        return standby.promote(CATCH_UP);
+    }
+
+    private static InetSocketAddress primaryAddress(String primary) {
+        int colon = primary.lastIndexOf(':');
+        return colon < 0 ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(primary))
+                : new InetSocketAddress(primary.substring(0, colon), Integer.parseInt(primary.substring(colon + 1)));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        if (System.getProperty(HTTP_NODELAY_PROPERTY) == null) {
+            // Read once by the JDK's HTTP server; see ControlApiServer.
+            System.setProperty(HTTP_NODELAY_PROPERTY, "true");
+        }
+        String primary = System.getProperty(REPLICATION_PRIMARY_PROPERTY);
+        CatpointServer server = primary == null ? fromSystemProperties()
+                : withRepository(followUntilFailover(primaryAddress(primary)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                log.warn("Failed to shut down cleanly", e);
+            }
+        }, "catpoint-shutdown"));
+        server.start();
+        server.awaitShutdown();
+    }
+
+    public void start() {
+        securityService.addStatusListener(new LoggingStatusListener());
+        if (framePipeline != null) {
+            framePipeline.start();
+        }
+        if (cameraPool != null) {
+            cameraPool.start();
+        }
+        if (sensorEventServer != null) {
+            sensorEventServer.start();
+        }
+        if (controlApiServer != null) {
+            controlApiServer.start();
+        }
+        if (replicationServer != null) {
+            replicationServer.start();
+        }
+        log.info("Catpoint running headless, {} with {} sensors, alarm {}", securityService.getArmingStatus(),
+                securityService.getSensors().size(), securityService.getAlarmStatus());
+    }
+
+    public SecurityService getSecurityService() {
+        return securityService;
+    }
+
+    /**
+     * Blocks until the server is closed.
+     */
+    public void awaitShutdown() throws InterruptedException {
+        closed.await();
+    }
+
+    /**
+     * Stops the control API, the sensor and camera feeds and then replication, and closes the repository, flushing anything it buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed.getCount() == 0) {
+            return;
+        }
+        try {
+            if (controlApiServer != null) {
+                controlApiServer.close();
+            }
+            if (sensorEventServer != null) {
+                sensorEventServer.close();
+            }
+            if (framePipeline != null) {
+                framePipeline.close();
+            }
+            if (cameraPool != null) {
+                cameraPool.close();
+            }
+            if (replicationServer != null) {
+                replicationServer.close();
+            }
+            if (securityRepository instanceof Closeable closeable) {
+                closeable.close();
+            }
+        } finally {
+            closed.countDown();
+        }
+    }
+
+    private static final class LoggingStatusListener implements StatusListener {
+        @Override
+        public void notify(AlarmStatus status) {
+            log.info("Alarm status: {}", status.getDescription());
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            log.info(catDetected ? "Cat detected" : "No cat in view");
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.udacity.catpoint.application;
 import com.udacity.catpoint.data.ArmingStatus;
 import com.udacity.catpoint.service.SecurityService;
-import com.udacity.catpoint.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 import javax.swing.*;
 import java.io.Serial;
@@ -28,12 +27,12 @@ public class ControlPanel extends JPanel implements java.io.Serializable{
                 .collect(Collectors.toMap(status -> status, status -> new JButton(status.getDescription())));
         buttonMap.forEach((k, v) -> {
             v.addActionListener(e -> {
-                this.securityService.setArmingStatus(k);
-                buttonMap.forEach((status, button) -> button.setBackground(status == k ? status.getColor() : null));
+                this.securityService.setArmingStatusAsync(k);
+                buttonMap.forEach((status, button) -> button.setBackground(status == k ? StyleService.colorOf(status) : null));
             });
         });
         Arrays.stream(ArmingStatus.values()).forEach(status -> add(buttonMap.get(status)));
         ArmingStatus currentStatus = this.securityService.getArmingStatus();
-        buttonMap.get(currentStatus).setBackground(currentStatus.getColor());
+        buttonMap.get(currentStatus).setBackground(StyleService.colorOf(currentStatus));
     }
 }
\ No newline at end of file
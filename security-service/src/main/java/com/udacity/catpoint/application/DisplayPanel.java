@@ -1,7 +1,6 @@
 package com.udacity.catpoint.application;
 import com.udacity.catpoint.data.AlarmStatus;
 import com.udacity.catpoint.service.SecurityService;
-import com.udacity.catpoint.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 import javax.swing.*;
 public class DisplayPanel extends JPanel implements StatusListener{
@@ -21,9 +20,11 @@ public class DisplayPanel extends JPanel implements StatusListener{
     }
     @Override
     public void notify(AlarmStatus status) {
-        currentStatusLabel.setText(status.getDescription());
-        currentStatusLabel.setBackground(status.getColor());
-        currentStatusLabel.setOpaque(true);
+        SwingUtilities.invokeLater(() -> {
+            currentStatusLabel.setText(status.getDescription());
+            currentStatusLabel.setBackground(StyleService.colorOf(status));
+            currentStatusLabel.setOpaque(true);
+        });
     }
     @Override
     public void catDetected(boolean catDetected) {}
@@ -1,7 +1,7 @@
 package com.udacity.catpoint.application;
+import com.udacity.catpoint.camera.FramePipeline;
 import com.udacity.catpoint.data.AlarmStatus;
 import com.udacity.catpoint.service.SecurityService;
-import com.udacity.catpoint.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -20,6 +20,14 @@ public class ImagePanel extends JPanel implements StatusListener, java.io.Serial
     private final int IMAGE_WIDTH = 300;
     private final int IMAGE_HEIGHT = 225;
     public ImagePanel(SecurityService securityService){
+        this(securityService, null);
+    }
+
+    /**
+     * With a frame pipeline the panel shows the live feed and the manual picture controls are
+     * left out.
+     */
+    public ImagePanel(SecurityService securityService, FramePipeline framePipeline){
         super();
         setLayout(new MigLayout());
         if (securityService == null) {
@@ -35,6 +43,15 @@ public class ImagePanel extends JPanel implements StatusListener, java.io.Serial
         cameraLabel.setBackground(Color.WHITE);
         cameraLabel.setPreferredSize(new Dimension(IMAGE_WIDTH, IMAGE_HEIGHT));
         cameraLabel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY));
+        add(cameraHeader, "span 3, wrap");
+        add(cameraLabel, "span 3, wrap");
+        if (framePipeline != null) {
+            framePipeline.setFrameObserver(frame -> SwingUtilities.invokeLater(() -> {
+                currentCameraImage = frame;
+                showImage(frame);
+            }));
+            return;
+        }
         JButton addPictureButton=new JButton("Refresh Camera");
         addPictureButton.addActionListener(e -> {
             JFileChooser chooser =new JFileChooser();
@@ -49,8 +66,7 @@ public class ImagePanel extends JPanel implements StatusListener, java.io.Serial
                 if (selectedFile != null){
                     currentCameraImage = ImageIO.read(selectedFile);
                     if (currentCameraImage != null){
-                        Image tmp = new ImageIcon(currentCameraImage).getImage();
-                        cameraLabel.setIcon(new ImageIcon(tmp.getScaledInstance(IMAGE_WIDTH, IMAGE_HEIGHT, Image.SCALE_SMOOTH)));
+                        showImage(currentCameraImage);
                     } else{
                         JOptionPane.showMessageDialog(this, "Could not read image file.", "Image Error", JOptionPane.ERROR_MESSAGE);
                         currentCameraImage = null;
@@ -64,13 +80,14 @@ public class ImagePanel extends JPanel implements StatusListener, java.io.Serial
         });
         JButton scanPictureButton=new JButton("Scan Picture");
         scanPictureButton.addActionListener(e -> {
-            this.securityService.processImage(currentCameraImage);
+            this.securityService.processImageAsync(currentCameraImage);
         });
-        add(cameraHeader, "span 3, wrap");
-        add(cameraLabel, "span 3, wrap");
         add(addPictureButton);
         add(scanPictureButton);
     }
+    private void showImage(BufferedImage image){
+        cameraLabel.setIcon(new ImageIcon(image.getScaledInstance(IMAGE_WIDTH, IMAGE_HEIGHT, Image.SCALE_SMOOTH)));
+    }
     @Override
     public void notify(AlarmStatus status){}
     @Override
@@ -1,12 +1,12 @@
 package com.udacity.catpoint.application;
+import com.udacity.catpoint.data.AlarmStatus;
 import com.udacity.catpoint.data.Sensor;
 import com.udacity.catpoint.data.SensorType;
 import com.udacity.catpoint.service.SecurityService;
-import com.udacity.catpoint.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 import javax.swing.*;
 import java.io.Serial;
-public class SensorPanel extends JPanel implements java.io.Serializable{
+public class SensorPanel extends JPanel implements StatusListener, java.io.Serializable{
     @Serial
     private static final long serialVersionUID = 1L;
     private final SecurityService securityService;
@@ -42,6 +42,7 @@ public class SensorPanel extends JPanel implements java.io.Serializable{
         sensorListPanel.setLayout(new MigLayout());
 
         updateSensorList(sensorListPanel);
+        securityService.addStatusListener(this);
 
         add(panelLabel, "wrap");
         add(newSensorPanel, "span");
@@ -60,7 +61,7 @@ public class SensorPanel extends JPanel implements java.io.Serializable{
     private void updateSensorList(JPanel p){
         SwingUtilities.invokeLater(() -> {
             p.removeAll();
-            this.securityService.getSensors().stream().sorted().forEach(s -> {
+            this.securityService.getSortedSensors().forEach(s -> {
                 JLabel sensorLabel = new JLabel(String.format("%s(%s): %s", s.getName(), s.getSensorType().toString(), (s.getActive() ? "Active" : "Inactive")));
                 JButton sensorToggleButton = new JButton((s.getActive() ? "Deactivate" : "Activate"));
                 JButton sensorRemoveButton = new JButton("Remove Sensor");
@@ -75,13 +76,11 @@ public class SensorPanel extends JPanel implements java.io.Serializable{
         });
     }
     private void setSensorActivity(Sensor sensor, Boolean isActive) {
-        this.securityService.changeSensorActivationStatus(sensor, isActive);
-        updateSensorList(sensorListPanel);
+        this.securityService.changeSensorActivationStatusAsync(sensor, isActive);
     }
     private void addSensor(Sensor sensor){
         if(this.securityService.getSensors().size() < 4) {
             this.securityService.addSensor(sensor);
-            updateSensorList(sensorListPanel);
         } else{
             SwingUtilities.invokeLater(() ->
                     JOptionPane.showMessageDialog(this, "To add more than 4 sensors, please subscribe to our Premium Membership!", "Sensor Limit Reached", JOptionPane.INFORMATION_MESSAGE)
@@ -90,6 +89,13 @@ public class SensorPanel extends JPanel implements java.io.Serializable{
     }
     private void removeSensor(Sensor sensor){
         this.securityService.removeSensor(sensor);
+    }
+    @Override
+    public void notify(AlarmStatus status) {}
+    @Override
+    public void catDetected(boolean catDetected) {}
+    @Override
+    public void sensorStatusChanged() {
         updateSensorList(sensorListPanel);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.udacity.catpoint.application;
+
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+
+import java.awt.*;
+
+/**
+ * Simple "service" for providing style information. Kept with the Swing panels so the status
+ * enums and the service never touch AWT.
+ */
+public class StyleService {
+
+    public static final Font HEADING_FONT = new Font("Sans Serif", Font.BOLD, 24);
+
+    public static Color colorOf(AlarmStatus status) {
+        return switch (status) {
+            case NO_ALARM -> new Color(120,200,30);
+            case PENDING_ALARM -> new Color(200,150,20);
+            case ALARM -> new Color(250,80,50);
+        };
+    }
+
+    public static Color colorOf(ArmingStatus status) {
+        return switch (status) {
+            case DISARMED -> new Color(120,200,30);
+            case ARMED_HOME -> new Color(190,180,50);
+            case ARMED_AWAY -> new Color(170,30,150);
+        };
+    }
+}
@@ -0,0 +1,201 @@
+package com.udacity.catpoint.camera;
+
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.service.SecurityService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which camera frames are worth classifying. There is activity while any sensor is
+ * active or the alarm is pending; a detected cat counts as activity at the moment it is reported.
+ * During activity every camera is sampled at the active rate. Afterwards the rate decays
+ * exponentially back to the idle rate, so an incident that continues shortly after a lull is
+ * still watched closely. Each camera also has a token bucket holding a minute's worth of its
+ * call budget, which caps sustained sampling however much activity there is.
+ */
+public final class AdaptiveSamplingScheduler implements StatusListener {
+    private final SamplingPolicy policy;
+    private final BooleanSupplier sensorsActive;
+    private final LongSupplier clock;
+    private final Map<String, CameraBudget> cameras = new HashMap<>();
+    private boolean activeSensors;
+    private boolean pendingAlarm;
+    private boolean hadActivity;
+    private long lastActivityNanos;
+
+    /**
+     * @param sensorsActive whether any sensor is currently active, checked when sensors change
+     * @param clock         time source in nanoseconds, {@link System#nanoTime()} outside simulations
+     */
+    public AdaptiveSamplingScheduler(SamplingPolicy policy, BooleanSupplier sensorsActive, LongSupplier clock) {
+        this.policy = Objects.requireNonNull(policy, "SamplingPolicy cannot be null");
+        this.sensorsActive = Objects.requireNonNull(sensorsActive, "Sensor state cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.activeSensors = sensorsActive.getAsBoolean();
+    }
+
+    /**
+     * Creates a scheduler that follows the service's alarm, sensor and cat notifications.
+     */
+    public static AdaptiveSamplingScheduler attach(SecurityService securityService, SamplingPolicy policy) {
+        AdaptiveSamplingScheduler scheduler = new AdaptiveSamplingScheduler(policy,
+                () -> securityService.getSensors().stream().anyMatch(Sensor::getActive), System::nanoTime);
+        scheduler.notify(securityService.getAlarmStatus());
+        securityService.addStatusListener(scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Whether the camera's frame arriving now should be classified. A frame that is sampled is
+     * charged to the camera's budget.
+     */
+    public synchronized boolean trySample(String cameraId) {
+        long now = clock.getAsLong();
+        CameraBudget camera = cameras.computeIfAbsent(cameraId, id -> new CameraBudget(now));
+        camera.refill(now);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / currentRate(now));
+        if (camera.sampled && now - camera.lastSampleNanos < intervalNanos) {
+            camera.skipped++;
+            return false;
+        }
+        if (camera.tokens < 1) {
+            camera.overBudget++;
+            return false;
+        }
+        camera.tokens--;
+        camera.sampled = true;
+        camera.lastSampleNanos = now;
+        camera.calls++;
+        return true;
+    }
+
+    /**
+     * Wraps a source so only the frames this scheduler samples for the camera come through.
+     */
+    public FrameSource sampled(String cameraId, FrameSource source) {
+        return new FrameSource() {
+            @Override
+            public Frame nextFrame() throws IOException, InterruptedException {
+                Frame frame;
+                do {
+                    frame = source.nextFrame();
+                } while (frame != null && !trySample(cameraId));
+                return frame;
+            }
+
+            @Override
+            public String getName() {
+                return source.getName();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    /**
+     * Current sampling rate in frames per second.
+     */
+    public synchronized double getCurrentRate() {
+        return currentRate(clock.getAsLong());
+    }
+
+    private double currentRate(long now) {
+        if (activeSensors || pendingAlarm) {
+            return policy.activeFps();
+        }
+        if (!hadActivity) {
+            return policy.idleFps();
+        }
+        double halfLives = (double) (now - lastActivityNanos) / policy.decayHalfLife().toNanos();
+        return policy.idleFps() + (policy.activeFps() - policy.idleFps()) * Math.pow(0.5, halfLives);
+    }
+
+    /**
+     * Number of frames sampled for the camera.
+     */
+    public synchronized long getCallCount(String cameraId) {
+        CameraBudget camera = cameras.get(cameraId);
+        return camera == null ? 0 : camera.calls;
+    }
+
+    /**
+     * Number of frames of the camera skipped because they came sooner than the current rate allows.
+     */
+    public synchronized long getSkippedCount(String cameraId) {
+        CameraBudget camera = cameras.get(cameraId);
+        return camera == null ? 0 : camera.skipped;
+    }
+
+    /**
+     * Number of frames of the camera refused because its call budget was used up.
+     */
+    public synchronized long getOverBudgetCount(String cameraId) {
+        CameraBudget camera = cameras.get(cameraId);
+        return camera == null ? 0 : camera.overBudget;
+    }
+
+    @Override
+    public synchronized void notify(AlarmStatus status) {
+        boolean pending = status == AlarmStatus.PENDING_ALARM;
+        if (pendingAlarm && !pending) {
+            activityEnded();
+        }
+        pendingAlarm = pending;
+    }
+
+    @Override
+    public synchronized void catDetected(boolean catDetected) {
+        if (catDetected) {
+            activityEnded();
+        }
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        boolean active = sensorsActive.getAsBoolean();
+        synchronized (this) {
+            if (activeSensors && !active) {
+                activityEnded();
+            }
+            activeSensors = active;
+        }
+    }
+
+    // Marks now as the last moment of activity, from which the rate decays.
+    private void activityEnded() {
+        hadActivity = true;
+        lastActivityNanos = clock.getAsLong();
+    }
+
+    private final class CameraBudget {
+        private double tokens;
+        private long refilledNanos;
+        private boolean sampled;
+        private long lastSampleNanos;
+        private long calls;
+        private long skipped;
+        private long overBudget;
+
+        private CameraBudget(long now) {
+            this.tokens = policy.maxCallsPerMinute();
+            this.refilledNanos = now;
+        }
+
+        private void refill(long now) {
+            double minutes = (double) (now - refilledNanos) / TimeUnit.MINUTES.toNanos(1);
+            tokens = Math.min(policy.maxCallsPerMinute(), tokens + minutes * policy.maxCallsPerMinute());
+            refilledNanos = now;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.udacity.catpoint.camera;
+
+import com.udacity.catpoint.service.SecurityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Classifies frames from many cameras on one shared set of worker threads. Every camera has its
+ * own small queue that drops the oldest frame when full, and the workers serve cameras round
+ * robin from a ring of cameras with frames waiting: a camera hands out one frame per turn and
+ * goes to the back of the ring if it has more. A camera producing frames faster than it can be
+ * served therefore gets one turn per round like every other camera, but idle workers still take
+ * its frames when no other camera is waiting. With a queue capacity of c, a frame waits at most
+ * about c rounds of one frame per camera with frames waiting. Nothing is read or classified until
+ * {@link #start()}.
+ */
+public final class CameraClassifierPool implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 2;
+    private static final Logger log = LoggerFactory.getLogger(CameraClassifierPool.class);
+
+    private final SecurityService securityService;
+    private final int capacity;
+    private final Map<String, Camera> cameras = new ConcurrentHashMap<>();
+    private final ArrayDeque<Camera> ready = new ArrayDeque<>(); // guarded by itself
+    private final List<Thread> workers = new ArrayList<>();
+    private boolean started; // guarded by ready
+    private boolean closed; // guarded by ready
+
+    public CameraClassifierPool(SecurityService securityService, int workers) {
+        this(securityService, workers, DEFAULT_CAPACITY);
+    }
+
+    public CameraClassifierPool(SecurityService securityService, int workers, int capacity) {
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.capacity = capacity;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "catpoint-camera-classifier-" + i);
+            worker.setDaemon(true);
+            this.workers.add(worker);
+        }
+    }
+
+    /**
+     * Starts the workers and the sources of the cameras added so far. Sources of cameras added
+     * later start as they are added.
+     */
+    public void start() {
+        List<Thread> readers = new ArrayList<>();
+        synchronized (ready) {
+            if (started) {
+                throw new IllegalStateException("Camera classifier pool already started");
+            }
+            started = true;
+            for (Camera camera : cameras.values()) {
+                synchronized (camera) {
+                    if (camera.reader != null) {
+                        readers.add(camera.reader);
+                    }
+                }
+            }
+        }
+        workers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+    }
+
+    /**
+     * Reads frames from the source on a thread of its own, at no more than the target rate, and
+     * queues them for the camera.
+     */
+    public void addCamera(String cameraId, FrameSource source, double targetFps) {
+        addCamera(cameraId, source, targetFps, null);
+    }
+
+    /**
+     * Reads frames from the source on a thread of its own, at no more than the target rate, and
+     * queues those the sampler samples for the camera, or all of them if the sampler is null.
+     */
+    public void addCamera(String cameraId, FrameSource source, double targetFps, AdaptiveSamplingScheduler sampler) {
+        Camera camera = camera(cameraId);
+        Consumer<Frame> sink = sampler == null ? frame -> submit(camera, frame) : frame -> {
+            if (sampler.trySample(cameraId)) {
+                submit(camera, frame);
+            }
+        };
+        FrameReader frameReader = new FrameReader(source, targetFps, sink, () -> { });
+        Thread reader = new Thread(frameReader, "catpoint-camera-read-" + cameraId);
+        reader.setDaemon(true);
+        boolean startNow;
+        synchronized (ready) {
+            synchronized (camera) {
+                if (camera.reader != null) {
+                    throw new IllegalStateException("Camera " + cameraId + " already has a source");
+                }
+                camera.frameReader = frameReader;
+                camera.reader = reader;
+            }
+            startNow = started;
+        }
+        if (startNow) {
+            reader.start();
+        }
+    }
+
+    /**
+     * Queues a frame for the camera, registering the camera on first use. Never blocks.
+     */
+    public void submit(String cameraId, Frame frame) {
+        submit(camera(cameraId), Objects.requireNonNull(frame, "Frame cannot be null"));
+    }
+
+    private Camera camera(String cameraId) {
+        Objects.requireNonNull(cameraId, "Camera id cannot be null");
+        return cameras.computeIfAbsent(cameraId, Camera::new);
+    }
+
+    private void submit(Camera camera, Frame frame) {
+        camera.received.increment();
+        synchronized (ready) {
+            if (closed || camera.removed) {
+                camera.dropped.increment();
+                return;
+            }
+            if (camera.frames.size() >= capacity) {
+                camera.frames.pollFirst();
+                camera.dropped.increment();
+            }
+            camera.frames.addLast(frame);
+            if (!camera.queued) {
+                camera.queued = true;
+                ready.addLast(camera);
+                ready.notify();
+            }
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Camera camera;
+            Frame frame;
+            synchronized (ready) {
+                while (ready.isEmpty() && !closed) {
+                    try {
+                        ready.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                camera = ready.pollFirst();
+                frame = camera.frames.pollFirst();
+                if (camera.frames.isEmpty()) {
+                    camera.queued = false;
+                } else {
+                    ready.addLast(camera);
+                }
+                camera.inFlight++;
+            }
+            try {
+                securityService.processImage(camera.id, frame.image());
+                long latency = System.nanoTime() - frame.capturedNanos();
+                camera.totalLatencyNanos.add(latency);
+                camera.maxLatencyNanos.accumulate(latency);
+                camera.processed.increment();
+            } catch (RuntimeException e) {
+                camera.failed.increment();
+                log.warn("Frame from camera {} failed: {}", camera.id, e.getMessage());
+            } finally {
+                // Even an Error, which ends this worker, must not leave removeCamera waiting.
+                synchronized (ready) {
+                    camera.inFlight--;
+                    if (camera.removed) {
+                        ready.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the camera's source, discards its queued frames and forgets its cat state. Waits for
+     * frames of the camera that are being classified, so their results cannot bring the state back.
+     */
+    public void removeCamera(String cameraId) throws IOException, InterruptedException {
+        Camera camera = cameras.remove(cameraId);
+        if (camera == null) {
+            return;
+        }
+        synchronized (ready) {
+            camera.removed = true;
+            camera.dropped.add(camera.frames.size());
+            camera.frames.clear();
+            ready.remove(camera);
+            while (camera.inFlight > 0) {
+                ready.wait();
+            }
+        }
+        stopReader(camera);
+        securityService.removeCamera(cameraId);
+    }
+
+    public Set<String> getCameraIds() {
+        return Set.copyOf(cameras.keySet());
+    }
+
+    public CameraStats getStats(String cameraId) {
+        Camera camera = cameras.get(cameraId);
+        if (camera == null) {
+            throw new IllegalArgumentException("Unknown camera " + cameraId);
+        }
+        long processed = camera.processed.sum();
+        return new CameraStats(camera.received.sum(), processed, camera.dropped.sum(), camera.failed.sum(),
+                processed == 0 ? Duration.ZERO : Duration.ofNanos(camera.totalLatencyNanos.sum() / processed),
+                Duration.ofNanos(camera.maxLatencyNanos.get()));
+    }
+
+    /**
+     * Stops all sources and workers. Frames being classified are allowed to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (ready) {
+            closed = true;
+            ready.clear();
+            ready.notifyAll();
+        }
+        for (Camera camera : cameras.values()) {
+            try {
+                stopReader(camera);
+            } catch (IOException e) {
+                log.warn("Closing camera {} failed: {}", camera.id, e.getMessage());
+            }
+        }
+    }
+
+    private static void stopReader(Camera camera) throws IOException {
+        FrameReader frameReader;
+        Thread reader;
+        synchronized (camera) {
+            frameReader = camera.frameReader;
+            reader = camera.reader;
+        }
+        if (reader != null) {
+            reader.interrupt();
+            frameReader.stop();
+        }
+    }
+
+    private static final class Camera {
+        private final String id;
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>(); // guarded by the ready ring
+        private final LongAdder received = new LongAdder();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        private boolean queued;
+        private int inFlight;
+        private boolean removed;
+        private FrameReader frameReader; // guarded by this
+        private Thread reader; // guarded by this
+
+        private Camera(String id) {
+            this.id = id;
+        }
+    }
+}
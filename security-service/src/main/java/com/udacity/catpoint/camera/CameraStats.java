@@ -0,0 +1,11 @@
+package com.udacity.catpoint.camera;
+
+import java.time.Duration;
+
+/**
+ * Counters for one camera of a {@link CameraClassifierPool}. Latency runs from capture until the
+ * result was applied.
+ */
+public record CameraStats(long received, long processed, long dropped, long failed,
+                          Duration averageLatency, Duration maxLatency) {
+}
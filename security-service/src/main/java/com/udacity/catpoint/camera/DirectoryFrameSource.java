@@ -0,0 +1,102 @@
+package com.udacity.catpoint.camera;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Emits an image file as a frame when it is created or rewritten in a watched directory, as
+ * cameras that upload snapshots to a share do. A file that cannot be decoded yet, usually because
+ * it is still being written, is skipped and tried again on its next modification. Files that
+ * were already there when watching started are ignored. Meant to be read from one thread.
+ */
+public final class DirectoryFrameSource implements FrameSource {
+    private static final Logger log = LoggerFactory.getLogger(DirectoryFrameSource.class);
+
+    private final Path directory;
+    private final WatchService watcher;
+    private final Map<Path, Long> pending = new LinkedHashMap<>();
+    private Path lastRead;
+    private FileTime lastReadModified;
+
+    public DirectoryFrameSource(Path directory) throws IOException {
+        this.directory = directory;
+        this.watcher = directory.getFileSystem().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    @Override
+    public Frame nextFrame() throws InterruptedException {
+        while (true) {
+            Iterator<Map.Entry<Path, Long>> files = pending.entrySet().iterator();
+            while (files.hasNext()) {
+                Map.Entry<Path, Long> file = files.next();
+                files.remove();
+                BufferedImage image = read(file.getKey());
+                if (image != null) {
+                    return new Frame(image, file.getValue());
+                }
+            }
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (ClosedWatchServiceException e) {
+                return null;
+            }
+            long seen = System.nanoTime();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path name) {
+                    pending.putIfAbsent(directory.resolve(name), seen);
+                }
+            }
+            if (!key.reset()) {
+                log.warn("Camera directory {} is no longer accessible", directory);
+                return null;
+            }
+        }
+    }
+
+    // Writers often raise several modification events per file; only a change since the last
+    // successful read produces another frame.
+    private BufferedImage read(Path file) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (file.equals(lastRead) && modified.equals(lastReadModified)) {
+                return null;
+            }
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image != null) {
+                lastRead = file;
+                lastReadModified = modified;
+            }
+            return image;
+        } catch (IOException e) {
+            log.debug("Skipping unreadable camera file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return directory.getFileName() == null ? directory.toString() : directory.getFileName().toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+    }
+}
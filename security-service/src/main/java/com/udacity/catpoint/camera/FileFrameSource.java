@@ -0,0 +1,151 @@
+package com.udacity.catpoint.camera;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded frames for local testing, either from an MJPEG file (JPEG images written back
+ * to back) or from a sequence of image files. Frames are emitted as fast as they are asked for;
+ * pacing is up to the caller. Optionally loops back to the first frame at the end.
+ */
+public final class FileFrameSource implements FrameSource {
+    private static final int MARKER = 0xFF;
+    private static final int START_OF_IMAGE = 0xD8;
+    private static final int END_OF_IMAGE = 0xD9;
+
+    private final String name;
+    private final Path mjpeg;
+    private final List<Path> images;
+    private final boolean loop;
+    private InputStream stream;
+    private int nextImage;
+    private volatile boolean closed;
+
+    private FileFrameSource(String name, Path mjpeg, List<Path> images, boolean loop) {
+        this.name = name;
+        this.mjpeg = mjpeg;
+        this.images = images;
+        this.loop = loop;
+    }
+
+    public static FileFrameSource mjpeg(Path file, boolean loop) {
+        return new FileFrameSource(file.getFileName().toString(), file, List.of(), loop);
+    }
+
+    public static FileFrameSource imageSequence(List<Path> files, boolean loop) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("Image sequence cannot be empty");
+        }
+        return new FileFrameSource(files.get(0).getFileName().toString(), null, List.copyOf(files), loop);
+    }
+
+    /**
+     * The image files in a directory, in file name order.
+     */
+    public static FileFrameSource imageSequence(Path directory, boolean loop) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return imageSequence(files.filter(Files::isRegularFile).sorted().toList(), loop);
+        }
+    }
+
+    @Override
+    public Frame nextFrame() throws IOException {
+        BufferedImage image = mjpeg == null ? nextImageFile() : nextMjpegImage();
+        return image == null ? null : Frame.now(image);
+    }
+
+    private BufferedImage nextImageFile() throws IOException {
+        while (!closed) {
+            if (nextImage == images.size()) {
+                if (!loop) {
+                    return null;
+                }
+                nextImage = 0;
+            }
+            BufferedImage image = ImageIO.read(images.get(nextImage++).toFile());
+            if (image != null) {
+                return image;
+            }
+        }
+        return null;
+    }
+
+    private BufferedImage nextMjpegImage() throws IOException {
+        boolean rewound = false;
+        while (!closed) {
+            if (stream == null) {
+                stream = new BufferedInputStream(Files.newInputStream(mjpeg));
+            }
+            byte[] jpeg = readJpeg(stream);
+            if (jpeg != null) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+                if (image != null) {
+                    return image;
+                }
+                continue;
+            }
+            stream.close();
+            stream = null;
+            // A file without a single JPEG in it would otherwise loop forever.
+            if (!loop || rewound) {
+                return null;
+            }
+            rewound = true;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the bytes from the next start-of-image marker to the following end-of-image
+     * marker, or {@code null} at the end of the stream. Entropy-coded data escapes 0xFF bytes,
+     * so the end marker only appears inside an image that embeds a thumbnail, which camera MJPEG
+     * streams do not.
+     */
+    private static byte[] readJpeg(InputStream in) throws IOException {
+        int previous = -1;
+        int current;
+        while ((current = in.read()) != -1) {
+            if (previous == MARKER && current == START_OF_IMAGE) {
+                break;
+            }
+            previous = current;
+        }
+        if (current == -1) {
+            return null;
+        }
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream(64 * 1024);
+        jpeg.write(MARKER);
+        jpeg.write(START_OF_IMAGE);
+        previous = -1;
+        while ((current = in.read()) != -1) {
+            jpeg.write(current);
+            if (previous == MARKER && current == END_OF_IMAGE) {
+                return jpeg.toByteArray();
+            }
+            previous = current;
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
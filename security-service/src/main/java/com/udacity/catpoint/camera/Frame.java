@@ -0,0 +1,14 @@
+package com.udacity.catpoint.camera;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A camera frame and the {@link System#nanoTime()} at which it was captured, used to measure how
+ * long the frame took to get through the pipeline.
+ */
+public record Frame(BufferedImage image, long capturedNanos) {
+
+    public static Frame now(BufferedImage image) {
+        return new Frame(image, System.nanoTime());
+    }
+}
@@ -0,0 +1,193 @@
+package com.udacity.catpoint.camera;
+
+import com.udacity.catpoint.service.SecurityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Feeds frames from a {@link FrameSource} into {@link SecurityService#processImage} continuously.
+ * One thread reads frames at no more than the target rate and another classifies them. They are
+ * connected by a small bounded queue that drops the oldest frame when full, so a slow classifier
+ * always works on the most recent frames instead of an ever older backlog. Latency is measured
+ * from capture until the result has been applied.
+ */
+public final class FramePipeline implements Closeable {
+    public static final int DEFAULT_CAPACITY = 4;
+    private static final Logger log = LoggerFactory.getLogger(FramePipeline.class);
+
+    private final FrameSource source;
+    private final SecurityService securityService;
+    private final int capacity;
+    private final FrameReader frameReader;
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    private final Thread reader;
+    private final Thread worker;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private volatile Consumer<BufferedImage> frameObserver = image -> { };
+    private boolean sourceEnded;
+    private volatile boolean closed;
+
+    public FramePipeline(FrameSource source, SecurityService securityService, double targetFps) {
+        this(source, securityService, DEFAULT_CAPACITY, targetFps);
+    }
+
+    /**
+     * @param targetFps most frames read per second, or 0 to read frames as fast as the source
+     *                  produces them
+     */
+    public FramePipeline(FrameSource source, SecurityService securityService, int capacity, double targetFps) {
+        this.source = Objects.requireNonNull(source, "FrameSource cannot be null");
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.frameReader = new FrameReader(source, targetFps, this::offer, this::endOfSource);
+        this.reader = new Thread(frameReader, "catpoint-camera-read-" + source.getName());
+        this.worker = new Thread(this::process, "catpoint-camera-process-" + source.getName());
+        this.reader.setDaemon(true);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Called on the processing thread with each frame just before it is classified, e.g. to show
+     * the feed.
+     */
+    public void setFrameObserver(Consumer<BufferedImage> frameObserver) {
+        this.frameObserver = Objects.requireNonNull(frameObserver, "Frame observer cannot be null");
+    }
+
+    public void start() {
+        reader.start();
+        worker.start();
+    }
+
+    private void endOfSource() {
+        synchronized (queue) {
+            sourceEnded = true;
+            queue.notifyAll();
+        }
+    }
+
+    private void offer(Frame frame) {
+        received.increment();
+        synchronized (queue) {
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                dropped.increment();
+            }
+            queue.addLast(frame);
+            queue.notifyAll();
+        }
+    }
+
+    private void process() {
+        while (true) {
+            Frame frame;
+            synchronized (queue) {
+                while (queue.isEmpty() && !sourceEnded && !closed) {
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                frame = closed ? null : queue.pollFirst();
+                if (frame == null) {
+                    return;
+                }
+            }
+            try {
+                frameObserver.accept(frame.image());
+                securityService.processImage(frame.image());
+                long latency = System.nanoTime() - frame.capturedNanos();
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulate(latency);
+                processed.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Frame from camera {} failed: {}", source.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits until the source has ended and every queued frame has been processed, or the timeout
+     * passes. Returns whether the pipeline finished.
+     */
+    public boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        worker.join(timeout.toMillis());
+        return !worker.isAlive();
+    }
+
+    /**
+     * Number of frames read from the source.
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * Number of frames classified and applied.
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * Number of frames discarded unprocessed because newer frames arrived first.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Number of frames whose classification failed.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Mean time from capture until the result was applied, over processed frames.
+     */
+    public Duration getAverageLatency() {
+        long count = processed.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos.sum() / count);
+    }
+
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatencyNanos.get());
+    }
+
+    /**
+     * Stops reading, discards queued frames and closes the source. A frame being classified is
+     * allowed to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (queue) {
+            dropped.add(queue.size());
+            queue.clear();
+            queue.notifyAll();
+        }
+        reader.interrupt();
+        frameReader.stop();
+    }
+}
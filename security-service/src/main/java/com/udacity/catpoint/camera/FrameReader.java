@@ -0,0 +1,77 @@
+package com.udacity.catpoint.camera;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pulls frames from a source on the calling thread and hands them on, reading no more than the
+ * target rate, until the source ends, fails or the reader is stopped.
+ */
+final class FrameReader implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(FrameReader.class);
+
+    private final FrameSource source;
+    private final long frameIntervalNanos;
+    private final Consumer<Frame> sink;
+    private final Runnable onEnd;
+    private volatile boolean stopped;
+
+    /**
+     * @param targetFps most frames read per second, or 0 to read frames as fast as the source
+     *                  produces them
+     */
+    FrameReader(FrameSource source, double targetFps, Consumer<Frame> sink, Runnable onEnd) {
+        if (targetFps < 0 || Double.isNaN(targetFps)) {
+            throw new IllegalArgumentException("Target FPS cannot be negative");
+        }
+        this.source = source;
+        this.frameIntervalNanos = targetFps == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / targetFps);
+        this.sink = sink;
+        this.onEnd = onEnd;
+    }
+
+    @Override
+    public void run() {
+        long nextFrameNanos = System.nanoTime();
+        try {
+            while (!stopped) {
+                Frame frame = source.nextFrame();
+                if (frame == null) {
+                    break;
+                }
+                sink.accept(frame);
+                if (frameIntervalNanos > 0) {
+                    nextFrameNanos += frameIntervalNanos;
+                    long wait = nextFrameNanos - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } else {
+                        // Behind schedule: carry on from now rather than bursting to catch up.
+                        nextFrameNanos = System.nanoTime();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            if (!stopped) {
+                log.error("Camera {} failed: {}", source.getName(), e.getMessage(), e);
+            }
+        } finally {
+            onEnd.run();
+        }
+    }
+
+    /**
+     * Stops reading and closes the source. The reading thread should also be interrupted in case
+     * it is waiting for the source or pacing.
+     */
+    void stop() throws IOException {
+        stopped = true;
+        source.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.udacity.catpoint.camera;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A feed of camera frames that is pulled one frame at a time.
+ */
+public interface FrameSource extends Closeable {
+
+    /**
+     * Blocks until the next frame is available. Returns {@code null} once the feed has ended or
+     * the source was closed.
+     */
+    Frame nextFrame() throws IOException, InterruptedException;
+
+    /**
+     * Short name used for thread names and logging.
+     */
+    String getName();
+}
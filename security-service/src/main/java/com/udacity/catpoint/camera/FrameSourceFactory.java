@@ -0,0 +1,120 @@
+package com.udacity.catpoint.camera;
+
+import com.udacity.catpoint.service.SecurityService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Chooses the camera feed at startup. The kind of feed is read from the {@value #SOURCE_PROPERTY}
+ * system property ({@code watch} for a watched directory, {@code mjpeg} for an MJPEG file or
+ * {@code sequence} for a directory of image files) and its path from {@value #LOCATION_PROPERTY}.
+ * The recorded feeds loop so they can stand in for a live camera. Without a source property there
+ * is no feed and images are picked by hand.
+ *
+ * Several cameras are listed by id in {@value #CAMERAS_PROPERTY}, separated by commas, each with
+ * its kind of feed in {@code catpoint.cameras.<id>} and its path in
+ * {@code catpoint.cameras.<id>.location}. They share a {@link CameraClassifierPool} of
+ * {@value #CAMERA_WORKERS_PROPERTY} workers, one per camera up to the number of processors by
+ * default. Setting {@value #SAMPLING_PROPERTY} to {@code adaptive} classifies only the frames an
+ * {@link AdaptiveSamplingScheduler} with the {@link SamplingPolicy#DEFAULT default policy} samples;
+ * the default, {@code fixed}, classifies every frame read.
+ */
+public final class FrameSourceFactory {
+    public static final String SOURCE_PROPERTY = "catpoint.camera";
+    public static final String LOCATION_PROPERTY = "catpoint.camera.location";
+    public static final String FPS_PROPERTY = "catpoint.camera.fps";
+    public static final double DEFAULT_FPS = 5;
+    public static final String CAMERAS_PROPERTY = "catpoint.cameras";
+    public static final String CAMERA_WORKERS_PROPERTY = "catpoint.cameras.workers";
+    public static final String SAMPLING_PROPERTY = "catpoint.camera.sampling";
+
+    private FrameSourceFactory() {
+    }
+
+    public static Optional<FrameSource> fromSystemProperties() throws IOException {
+        String source = System.getProperty(SOURCE_PROPERTY);
+        if (source == null) {
+            return Optional.empty();
+        }
+        String location = System.getProperty(LOCATION_PROPERTY);
+        if (location == null) {
+            throw new IllegalArgumentException(LOCATION_PROPERTY + " must be set for camera " + source);
+        }
+        return Optional.of(create(source, Path.of(location)));
+    }
+
+    /**
+     * A pipeline feeding the configured camera into the service at the configured rate, not yet
+     * started, or empty when no camera is configured.
+     */
+    public static Optional<FramePipeline> pipelineFromSystemProperties(SecurityService securityService) throws IOException {
+        double fps = fpsFromSystemProperties();
+        return fromSystemProperties().map(source -> new FramePipeline(source, securityService, fps));
+    }
+
+    /**
+     * A pool classifying the listed cameras at the configured rate and sampling, not yet started,
+     * or empty when no cameras are listed.
+     */
+    public static Optional<CameraClassifierPool> poolFromSystemProperties(SecurityService securityService) throws IOException {
+        String cameraList = System.getProperty(CAMERAS_PROPERTY);
+        if (cameraList == null) {
+            return Optional.empty();
+        }
+        Set<String> cameraIds = new LinkedHashSet<>();
+        for (String cameraId : cameraList.split(",")) {
+            if (!cameraId.isBlank()) {
+                cameraIds.add(cameraId.strip());
+            }
+        }
+        if (cameraIds.isEmpty()) {
+            throw new IllegalArgumentException(CAMERAS_PROPERTY + " lists no cameras");
+        }
+        double fps = fpsFromSystemProperties();
+        int workers = Integer.getInteger(CAMERA_WORKERS_PROPERTY,
+                Math.min(cameraIds.size(), Runtime.getRuntime().availableProcessors()));
+        AdaptiveSamplingScheduler sampler = samplerFromSystemProperties(securityService);
+        CameraClassifierPool pool = new CameraClassifierPool(securityService, workers);
+        try {
+            for (String cameraId : cameraIds) {
+                String source = System.getProperty(CAMERAS_PROPERTY + "." + cameraId);
+                String location = System.getProperty(CAMERAS_PROPERTY + "." + cameraId + ".location");
+                if (source == null || location == null) {
+                    throw new IllegalArgumentException(CAMERAS_PROPERTY + "." + cameraId + " and its location must be set");
+                }
+                pool.addCamera(cameraId, create(source, Path.of(location)), fps, sampler);
+            }
+        } catch (IOException | RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+        return Optional.of(pool);
+    }
+
+    private static AdaptiveSamplingScheduler samplerFromSystemProperties(SecurityService securityService) {
+        String sampling = System.getProperty(SAMPLING_PROPERTY, "fixed");
+        return switch (sampling.toLowerCase(Locale.ROOT)) {
+            case "fixed" -> null;
+            case "adaptive" -> AdaptiveSamplingScheduler.attach(securityService, SamplingPolicy.DEFAULT);
+            default -> throw new IllegalArgumentException("Unknown camera sampling: " + sampling);
+        };
+    }
+
+    public static double fpsFromSystemProperties() {
+        return Double.parseDouble(System.getProperty(FPS_PROPERTY, String.valueOf(DEFAULT_FPS)));
+    }
+
+    public static FrameSource create(String source, Path location) throws IOException {
+        return switch (source.toLowerCase(Locale.ROOT)) {
+            case "watch" -> new DirectoryFrameSource(location);
+            case "mjpeg" -> FileFrameSource.mjpeg(location, true);
+            case "sequence" -> FileFrameSource.imageSequence(location, true);
+            default -> throw new IllegalArgumentException("Unknown camera source: " + source);
+        };
+    }
+}
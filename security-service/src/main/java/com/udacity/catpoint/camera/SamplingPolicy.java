@@ -0,0 +1,24 @@
+package com.udacity.catpoint.camera;
+
+import java.time.Duration;
+
+/**
+ * How often {@link AdaptiveSamplingScheduler} samples a camera: at the active rate while there is
+ * activity, decaying towards the idle rate with the given half-life once it stops, and never more
+ * than the per-camera budget of classifier calls per minute on average.
+ */
+public record SamplingPolicy(double idleFps, double activeFps, Duration decayHalfLife, int maxCallsPerMinute) {
+    public static final SamplingPolicy DEFAULT = new SamplingPolicy(0.2, 5, Duration.ofSeconds(30), 120);
+
+    public SamplingPolicy {
+        if (!(idleFps > 0) || !(activeFps >= idleFps)) {
+            throw new IllegalArgumentException("Rates must be positive and the active rate at least the idle rate");
+        }
+        if (decayHalfLife.isNegative() || decayHalfLife.isZero()) {
+            throw new IllegalArgumentException("Decay half-life must be positive");
+        }
+        if (maxCallsPerMinute <= 0) {
+            throw new IllegalArgumentException("Call budget must be positive");
+        }
+    }
+}
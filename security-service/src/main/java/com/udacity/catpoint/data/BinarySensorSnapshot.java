@@ -0,0 +1,183 @@
+package com.udacity.catpoint.data;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Versioned, fixed-layout binary snapshot of the repository state, read through a
+ * {@link MappedByteBuffer}. Opening a snapshot only validates the header; sensors are
+ * materialized one record at a time when asked for.
+ *
+ * <pre>
+ * header (24 bytes): magic int, version short, reserved short, alarm ordinal byte,
+ *                    arming ordinal byte, reserved short, sensor count int,
+ *                    string table offset int, reserved int
+ * sensor (32 bytes): id msb long, id lsb long, type ordinal byte (-1 = none), active byte,
+ *                    reserved short, name offset int, name length int (-1 = null), reserved int
+ * string table:      UTF-8 sensor names
+ * </pre>
+ * Enum ordinals are part of the format, so reordering an enum requires a version bump.
+ */
+public final class BinarySensorSnapshot {
+    static final int MAGIC = 0x43415450; // "CATP"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 32;
+    private static final AlarmStatus[] ALARM_STATUSES = AlarmStatus.values();
+    private static final ArmingStatus[] ARMING_STATUSES = ArmingStatus.values();
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+
+    private final ByteBuffer buffer;
+    private final AlarmStatus alarmStatus;
+    private final ArmingStatus armingStatus;
+    private final int sensorCount;
+    private final int stringTableOffset;
+
+    private BinarySensorSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a sensor snapshot");
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported sensor snapshot version " + version);
+        }
+        int alarm = buffer.get(8);
+        int arming = buffer.get(9);
+        sensorCount = buffer.getInt(12);
+        stringTableOffset = buffer.getInt(16);
+        if (alarm < 0 || alarm >= ALARM_STATUSES.length || arming < 0 || arming >= ARMING_STATUSES.length
+                || sensorCount < 0 || stringTableOffset != HEADER_SIZE + (long) sensorCount * RECORD_SIZE
+                || stringTableOffset > buffer.limit()) {
+            throw new IOException("Corrupt sensor snapshot header");
+        }
+        alarmStatus = ALARM_STATUSES[alarm];
+        armingStatus = ARMING_STATUSES[arming];
+    }
+
+    public static BinarySensorSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinarySensorSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Writes a snapshot next to {@code file} and atomically moves it into place.
+     */
+    public static void write(Path file, AlarmStatus alarmStatus, ArmingStatus armingStatus, Collection<Sensor> sensors) throws IOException {
+        List<byte[]> names = new ArrayList<>(sensors.size());
+        int stringTableSize = 0;
+        for (Sensor sensor : sensors) {
+            byte[] name = sensor.getName() == null ? null : sensor.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            stringTableSize += name == null ? 0 : name.length;
+        }
+        int stringTableOffset = HEADER_SIZE + sensors.size() * RECORD_SIZE;
+        ByteBuffer out = ByteBuffer.allocate(stringTableOffset + stringTableSize);
+        out.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .put((byte) alarmStatus.ordinal()).put((byte) armingStatus.ordinal()).putShort((short) 0)
+                .putInt(sensors.size()).putInt(stringTableOffset).putInt(0);
+        int nameOffset = stringTableOffset;
+        int i = 0;
+        for (Sensor sensor : sensors) {
+            byte[] name = names.get(i++);
+            UUID id = sensor.getSensorId();
+            out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                    .put((byte) (sensor.getSensorType() == null ? -1 : sensor.getSensorType().ordinal()))
+                    .put((byte) (Boolean.TRUE.equals(sensor.getActive()) ? 1 : 0))
+                    .putShort((short) 0)
+                    .putInt(nameOffset)
+                    .putInt(name == null ? -1 : name.length)
+                    .putInt(0);
+            nameOffset += name == null ? 0 : name.length;
+        }
+        for (byte[] name : names) {
+            if (name != null) out.put(name);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the state held by the legacy Preferences store into a snapshot, unless one already
+     * exists at {@code file}.
+     * @return true if a snapshot was written
+     */
+    public static boolean migrateFromPreferences(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return false;
+        }
+        SecurityRepository legacy = new PretendDatabaseSecurityRepositoryImpl();
+        write(file, legacy.getAlarmStatus(), legacy.getArmingStatus(), legacy.getSensors());
+        return true;
+    }
+
+    public AlarmStatus getAlarmStatus() {
+        return alarmStatus;
+    }
+
+    public ArmingStatus getArmingStatus() {
+        return armingStatus;
+    }
+
+    public int getSensorCount() {
+        return sensorCount;
+    }
+
+    public UUID getSensorId(int index) {
+        int base = recordOffset(index);
+        return new UUID(buffer.getLong(base), buffer.getLong(base + 8));
+    }
+
+    public boolean isActive(int index) {
+        return buffer.get(recordOffset(index) + 17) != 0;
+    }
+
+    public Sensor getSensor(int index) throws IOException {
+        int base = recordOffset(index);
+        int type = buffer.get(base + 16);
+        int nameOffset = buffer.getInt(base + 20);
+        int nameLength = buffer.getInt(base + 24);
+        if (type >= SENSOR_TYPES.length || (nameLength >= 0 && (nameOffset < stringTableOffset
+                || (long) nameOffset + nameLength > buffer.limit()))) {
+            throw new IOException("Corrupt sensor record " + index);
+        }
+        Sensor sensor = new Sensor();
+        sensor.setSensorId(new UUID(buffer.getLong(base), buffer.getLong(base + 8)));
+        sensor.setSensorType(type < 0 ? null : SENSOR_TYPES[type]);
+        sensor.setActive(buffer.get(base + 17) != 0);
+        if (nameLength >= 0) {
+            byte[] name = new byte[nameLength];
+            buffer.get(nameOffset, name);
+            sensor.setName(new String(name, StandardCharsets.UTF_8));
+        }
+        return sensor;
+    }
+
+    public List<Sensor> getSensors() throws IOException {
+        List<Sensor> result = new ArrayList<>(sensorCount);
+        for (int i = 0; i < sensorCount; i++) {
+            result.add(getSensor(i));
+        }
+        return result;
+    }
+
+    private int recordOffset(int index) {
+        if (index < 0 || index >= sensorCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+}
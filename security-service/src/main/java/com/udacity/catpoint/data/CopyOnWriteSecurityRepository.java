@@ -0,0 +1,138 @@
+package com.udacity.catpoint.data;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Copy-on-write layer in front of another repository. Writers are serialized, applied to the
+ * delegate and then publish a new {@link SecurityState} through a volatile field. Readers only
+ * dereference the current state, so they never block on writers.
+ *
+ * Each write publishes {@link Sensor#immutableCopy immutable views} of the sensors, and every
+ * reader is handed those same views and collections, so reads allocate nothing and a published
+ * state never changes. Callers that want to change a sensor copy the view first, as
+ * {@link com.udacity.catpoint.service.SecurityService} does.
+ */
+public class CopyOnWriteSecurityRepository implements SecurityRepository, Closeable {
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+
+    private final SecurityRepository delegate;
+    private volatile Snapshot snapshot;
+
+    public CopyOnWriteSecurityRepository(SecurityRepository delegate){
+        this.delegate = Objects.requireNonNull(delegate, "SecurityRepository cannot be null");
+        publish();
+    }
+
+    private void publish(){
+        List<Sensor> sorted = delegate.getSortedSensors().stream().map(Sensor::immutableCopy).toList();
+        int active = 0;
+        int[] activeByType = new int[SENSOR_TYPES.length];
+        for (Sensor sensor : sorted) {
+            if (Boolean.TRUE.equals(sensor.getActive())) {
+                active++;
+                if (sensor.getSensorType() != null) {
+                    activeByType[sensor.getSensorType().ordinal()]++;
+                }
+            }
+        }
+        Map<UUID, Sensor> byId = new HashMap<>(sorted.size() * 2);
+        for (Sensor sensor : sorted) {
+            byId.put(sensor.getSensorId(), sensor);
+        }
+        snapshot = new Snapshot(new SecurityState(delegate.getAlarmStatus(), delegate.getArmingStatus(),
+                Set.copyOf(sorted), sorted, active), activeByType, byId);
+    }
+
+    private void publishStatus(AlarmStatus alarmStatus, ArmingStatus armingStatus){
+        Snapshot current = snapshot;
+        SecurityState state = current.state();
+        snapshot = new Snapshot(new SecurityState(alarmStatus, armingStatus, state.sensors(), state.sortedSensors(),
+                state.activeSensorCount()), current.activeByType(), current.byId());
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor){
+        delegate.addSensor(sensor);
+        publish();
+    }
+    @Override
+    public synchronized void removeSensor(Sensor sensor){
+        delegate.removeSensor(sensor);
+        publish();
+    }
+    @Override
+    public synchronized void updateSensor(Sensor sensor){
+        delegate.updateSensor(sensor);
+        publish();
+    }
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> sensors){
+        delegate.updateSensors(sensors);
+        publish();
+    }
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
+        if (alarmStatus != null && snapshot.state().alarmStatus() != alarmStatus) {
+            delegate.setAlarmStatus(alarmStatus);
+            publishStatus(delegate.getAlarmStatus(), snapshot.state().armingStatus());
+        }
+    }
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus){
+        if (armingStatus != null && snapshot.state().armingStatus() != armingStatus) {
+            delegate.setArmingStatus(armingStatus);
+            publishStatus(snapshot.state().alarmStatus(), delegate.getArmingStatus());
+        }
+    }
+    @Override
+    public SecurityState getState(){
+        return snapshot.state();
+    }
+    @Override
+    public Set<Sensor> getSensors(){
+        return snapshot.state().sensors();
+    }
+    @Override
+    public List<Sensor> getSortedSensors(){
+        return snapshot.state().sortedSensors();
+    }
+    @Override
+    public int getActiveSensorCount(){
+        return snapshot.state().activeSensorCount();
+    }
+    @Override
+    public int getActiveSensorCount(SensorType sensorType){
+        return snapshot.activeByType()[sensorType.ordinal()];
+    }
+    @Override
+    public Sensor getSensor(UUID sensorId){
+        return snapshot.byId().get(sensorId);
+    }
+    @Override
+    public AlarmStatus getAlarmStatus(){
+        return snapshot.state().alarmStatus();
+    }
+    @Override
+    public ArmingStatus getArmingStatus(){
+        return snapshot.state().armingStatus();
+    }
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Published state with the active count per {@link SensorType}, indexed by ordinal, and the
+     * sensors by id. Never modified once published.
+     */
+    private record Snapshot(SecurityState state, int[] activeByType, Map<UUID, Sensor> byId) { }
+}
@@ -0,0 +1,309 @@
+package com.udacity.catpoint.data;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Repository that appends one small record per mutation to a journal file instead of rewriting
+ * the whole sensor set. On startup the latest {@link BinarySensorSnapshot} is mapped and the
+ * journal replayed on top of it; once the journal grows past the compaction threshold it is
+ * folded into a new snapshot. Records are idempotent, so replaying a journal over a snapshot
+ * that already contains it is safe. Sensors are only read out of the snapshot when first needed.
+ */
+public class JournaledSecurityRepositoryImpl implements SecurityRepository, Closeable {
+    static final String SNAPSHOT_FILE = "catpoint-snapshot.bin";
+    static final String JOURNAL_FILE = "catpoint-journal.log";
+    private static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("user.home"), ".catpoint");
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final char ADD_SENSOR = 'A';
+    private static final char REMOVE_SENSOR = 'R';
+    private static final char UPDATE_SENSOR = 'U';
+    private static final char UPDATE_SENSORS = 'B';
+    private static final char ALARM_STATUS = 'S';
+    private static final char ARMING_STATUS = 'M';
+    private static final Gson gson = new Gson();
+    private static final Logger log = LoggerFactory.getLogger(JournaledSecurityRepositoryImpl.class);
+
+    private SensorIndex sensors;
+    private BinarySensorSnapshot snapshot;
+    private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+    private ArmingStatus armingStatus = ArmingStatus.DISARMED;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int compactionThreshold;
+    private BufferedWriter journal;
+    private int journalRecords;
+
+    public JournaledSecurityRepositoryImpl(){
+        this(withPreferencesMigrated(DEFAULT_DIRECTORY));
+    }
+    public JournaledSecurityRepositoryImpl(Path directory){
+        this(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+    public JournaledSecurityRepositoryImpl(Path directory, int compactionThreshold){
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        }
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Files.createDirectories(directory);
+            loadSnapshot();
+            if (replayJournal()) {
+                compact();
+            } else {
+                journal = openJournal(StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journaled state in " + directory, e);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to open journaled state in " + directory, e);
+        }
+    }
+
+    private static Path withPreferencesMigrated(Path directory){
+        try {
+            Files.createDirectories(directory);
+            if (!Files.exists(directory.resolve(JOURNAL_FILE))
+                    && BinarySensorSnapshot.migrateFromPreferences(directory.resolve(SNAPSHOT_FILE))) {
+                log.info("Migrated sensor state from preferences into {}", directory);
+            }
+        } catch (IOException e) {
+            log.error("Failed to migrate sensor state from preferences: {}", e.getMessage(), e);
+        }
+        return directory;
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        snapshot = BinarySensorSnapshot.open(snapshotPath);
+        alarmStatus = snapshot.getAlarmStatus();
+        armingStatus = snapshot.getArmingStatus();
+    }
+
+    /**
+     * The sensors, read out of the snapshot on first use. A snapshot whose sensor records cannot be
+     * read is kept, and every call fails, so no write or compaction can replace it with an empty
+     * sensor set.
+     */
+    private SensorIndex sensors(){
+        if (sensors == null) {
+            SensorIndex loaded = new SensorIndex();
+            if (snapshot != null) {
+                try {
+                    snapshot.getSensors().forEach(loaded::put);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read sensors from snapshot " + snapshotPath, e);
+                }
+                snapshot = null;
+            }
+            sensors = loaded;
+        }
+        return sensors;
+    }
+
+    /**
+     * Applies the journal's readable records.
+     * @return true if the journal held any records, readable or not, and so must be compacted
+     * away; appending after an unreadable record would lose everything written after it
+     */
+    private boolean replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return false;
+        }
+        int replayed = 0;
+        boolean torn = false;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() < 2) {
+                    continue;
+                }
+                try {
+                    apply(line.charAt(0), line.substring(2));
+                    replayed++;
+                } catch (JsonParseException | IllegalArgumentException e) {
+                    // A torn record can only be the tail of the journal written during a crash.
+                    log.warn("Stopping journal replay at unreadable record {}: {}", replayed + 1, e.getMessage());
+                    torn = true;
+                    break;
+                }
+            }
+        }
+        return replayed > 0 || torn;
+    }
+
+    private void apply(char type, String payload) {
+        switch (type) {
+            case ADD_SENSOR, UPDATE_SENSOR -> {
+                Sensor sensor = gson.fromJson(payload, Sensor.class);
+                if (sensor == null || sensor.getSensorId() == null) {
+                    throw new IllegalArgumentException("Sensor record without id");
+                }
+                sensors().put(sensor);
+            }
+            case UPDATE_SENSORS -> {
+                Sensor[] batch = gson.fromJson(payload, Sensor[].class);
+                for (Sensor sensor : batch) {
+                    if (sensor == null || sensor.getSensorId() == null) {
+                        throw new IllegalArgumentException("Sensor record without id");
+                    }
+                }
+                for (Sensor sensor : batch) {
+                    sensors().put(sensor);
+                }
+            }
+            case REMOVE_SENSOR -> sensors().remove(UUID.fromString(payload));
+            case ALARM_STATUS -> alarmStatus = AlarmStatus.valueOf(payload);
+            case ARMING_STATUS -> armingStatus = ArmingStatus.valueOf(payload);
+            default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+        }
+    }
+
+    private BufferedWriter openJournal(StandardOpenOption mode) throws IOException {
+        return Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+    }
+
+    private void append(char type, String payload){
+        if (journal == null) {
+            log.error("Journal is not open, dropping record {}", type);
+            return;
+        }
+        try {
+            journal.write(type);
+            journal.write(' ');
+            journal.write(payload);
+            journal.newLine();
+            journal.flush();
+            if (++journalRecords >= compactionThreshold) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.error("Failed to append journal record {} : {}", type, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the current state to a new snapshot and truncates the journal.
+     */
+    public synchronized void compact() throws IOException {
+        BinarySensorSnapshot.write(snapshotPath, alarmStatus, armingStatus, sensors().values());
+        if (journal != null) {
+            journal.close();
+        }
+        journal = openJournal(StandardOpenOption.TRUNCATE_EXISTING);
+        journalRecords = 0;
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor){
+        if (sensor != null && sensors().add(sensor)){
+            append(ADD_SENSOR, gson.toJson(sensor));
+        }
+    }
+    @Override
+    public synchronized void removeSensor(Sensor sensor){
+        if (sensor != null && sensors().remove(sensor.getSensorId()) != null){
+            append(REMOVE_SENSOR, sensor.getSensorId().toString());
+        }
+    }
+    @Override
+    public synchronized void updateSensor(Sensor sensor){
+        if (sensor == null) {
+            return;
+        }
+        if (sensors().update(sensor)) {
+            append(UPDATE_SENSOR, gson.toJson(sensor));
+        } else {
+            log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+        }
+    }
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> batch){
+        if (batch == null) {
+            return;
+        }
+        List<Sensor> updated = new ArrayList<>(batch.size());
+        for (Sensor sensor : batch) {
+            if (sensor != null && sensors().update(sensor)) {
+                updated.add(sensor);
+            } else if (sensor != null) {
+                log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+            }
+        }
+        if (!updated.isEmpty()) {
+            append(UPDATE_SENSORS, gson.toJson(updated));
+        }
+    }
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
+        if (alarmStatus != null && this.alarmStatus != alarmStatus){
+            this.alarmStatus = alarmStatus;
+            append(ALARM_STATUS, alarmStatus.name());
+        }
+    }
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus){
+        if (armingStatus != null && this.armingStatus != armingStatus){
+            this.armingStatus = armingStatus;
+            append(ARMING_STATUS, armingStatus.name());
+        }
+    }
+    @Override
+    public synchronized Set<Sensor> getSensors(){
+        return Set.copyOf(sensors().values());
+    }
+    @Override
+    public synchronized int getActiveSensorCount(){
+        return sensors().getActiveCount();
+    }
+    @Override
+    public synchronized int getActiveSensorCount(SensorType sensorType){
+        return sensors().getActiveCount(sensorType);
+    }
+    @Override
+    public synchronized Sensor getSensor(UUID sensorId){
+        return sensors().get(sensorId);
+    }
+    @Override
+    public synchronized List<Sensor> getSortedSensors(){
+        return sensors().sortedCopy();
+    }
+    @Override
+    public synchronized SecurityState getState(){
+        return new SecurityState(alarmStatus, armingStatus, Set.copyOf(sensors().values()), sensors().sortedCopy(), sensors().getActiveCount());
+    }
+    @Override
+    public synchronized AlarmStatus getAlarmStatus(){
+        return alarmStatus;
+    }
+    @Override
+    public synchronized ArmingStatus getArmingStatus(){
+        return armingStatus;
+    }
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+}
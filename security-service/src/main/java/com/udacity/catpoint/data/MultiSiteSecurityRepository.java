@@ -0,0 +1,354 @@
+package com.udacity.catpoint.data;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts the state of many premises in one process. Each site has its own {@link SensorIndex} and
+ * statuses guarded by the site's own lock, so sites never contend with each other. All sites share
+ * one journal file: mutations enqueue a site-tagged record and a single writer thread appends
+ * whatever has accumulated with one flush, compacting the journal into a per-site snapshot once it
+ * passes the compaction threshold. The queue is bounded, so mutations wait for the writer when it
+ * falls that far behind.
+ *
+ * A journal that cannot be read or compacted fails construction, so an unreadable journal is never
+ * replaced by an empty one.
+ */
+public class MultiSiteSecurityRepository implements Closeable {
+    private static final char ADD_SENSOR = 'A';
+    private static final char REMOVE_SENSOR = 'R';
+    private static final char UPDATE_SENSOR = 'U';
+    private static final char UPDATE_SENSORS = 'B';
+    private static final char ALARM_STATUS = 'S';
+    private static final char ARMING_STATUS = 'M';
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 100_000;
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final String STOP = ""; // records always carry a site id, so never empty
+    private static final Gson gson = new Gson();
+    private static final Logger log = LoggerFactory.getLogger(MultiSiteSecurityRepository.class);
+
+    private final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> records = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Path journalPath;
+    private final int compactionThreshold;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public MultiSiteSecurityRepository(Path journalPath){
+        this(journalPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+    public MultiSiteSecurityRepository(Path journalPath, int compactionThreshold){
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        }
+        this.journalPath = journalPath;
+        this.compactionThreshold = compactionThreshold;
+        BufferedWriter out;
+        try {
+            replayJournal();
+            out = compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open multi-site journal " + journalPath, e);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to open multi-site journal " + journalPath, e);
+        }
+        this.writer = new Thread(() -> runWriter(out), "catpoint-multisite-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Repository for one site, created on first use.
+     */
+    public SecurityRepository forSite(String siteId){
+        if (siteId == null || siteId.isEmpty() || siteId.indexOf('\t') >= 0 || siteId.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid site id: " + siteId);
+        }
+        return sites.computeIfAbsent(siteId, Site::new);
+    }
+
+    public Set<String> getSiteIds(){
+        return Set.copyOf(sites.keySet());
+    }
+
+    private void replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int tab = line.indexOf('\t');
+                if (tab <= 0 || line.length() < tab + 3) {
+                    continue;
+                }
+                try {
+                    sites.computeIfAbsent(line.substring(0, tab), Site::new)
+                            .apply(line.charAt(tab + 1), line.substring(tab + 3));
+                } catch (JsonParseException | IllegalArgumentException e) {
+                    log.warn("Stopping journal replay at unreadable line {}: {}", lineNumber, e.getMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void runWriter(BufferedWriter out){
+        int written = 0;
+        List<String> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(records.take());
+                records.drainTo(batch);
+                boolean stop = false;
+                for (String record : batch) {
+                    if (record.isEmpty()) {
+                        stop = true;
+                        break;
+                    }
+                    out.write(record);
+                    out.newLine();
+                    written++;
+                }
+                out.flush();
+                batch.clear();
+                if (stop) {
+                    break;
+                }
+                if (written >= compactionThreshold) {
+                    out.close();
+                    out = compact();
+                    written = 0;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Multi-site journal writer failed: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.error("Failed to close multi-site journal: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Queues a record, waiting while the queue is full. Gives up only if the writer has stopped
+     * or the caller is interrupted, since nothing would take the record then.
+     */
+    private boolean enqueue(String record){
+        try {
+            while (!records.offer(record, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Rewrites the journal as one status and one sensor batch record per site. Records still
+     * queued from before a site was captured replay idempotently on top of it.
+     */
+    private BufferedWriter compact() throws IOException {
+        Path tmp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Site site : sites.values()) {
+                for (String record : site.snapshotRecords()) {
+                    out.write(record);
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Writes everything still queued and stops the journal writer.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!enqueue(STOP)) {
+            log.error("Multi-site journal writer is not running, records still queued are lost");
+            return;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Site implements SecurityRepository {
+        private final String siteId;
+        private final SensorIndex sensors = new SensorIndex();
+        private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+        private ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+        private Site(String siteId){
+            this.siteId = siteId;
+        }
+
+        private void apply(char type, String payload){
+            switch (type) {
+                case ADD_SENSOR, UPDATE_SENSOR -> sensors.put(readSensor(gson.fromJson(payload, Sensor.class)));
+                case UPDATE_SENSORS -> {
+                    for (Sensor sensor : gson.fromJson(payload, Sensor[].class)) {
+                        sensors.put(readSensor(sensor));
+                    }
+                }
+                case REMOVE_SENSOR -> sensors.remove(UUID.fromString(payload));
+                case ALARM_STATUS -> alarmStatus = AlarmStatus.valueOf(payload);
+                case ARMING_STATUS -> armingStatus = ArmingStatus.valueOf(payload);
+                default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+            }
+        }
+
+        private Sensor readSensor(Sensor sensor){
+            if (sensor == null || sensor.getSensorId() == null) {
+                throw new IllegalArgumentException("Sensor record without id");
+            }
+            return sensor;
+        }
+
+        private synchronized List<String> snapshotRecords(){
+            return List.of(record(ALARM_STATUS, alarmStatus.name()),
+                    record(ARMING_STATUS, armingStatus.name()),
+                    record(UPDATE_SENSORS, gson.toJson(sensors.values())));
+        }
+
+        private String record(char type, String payload){
+            return siteId + '\t' + type + ' ' + payload;
+        }
+
+        // Called with the site lock held so each site's records are queued in mutation order.
+        private void append(char type, String payload){
+            if (closed) {
+                log.error("Repository is closed, dropping record {} for site {}", type, siteId);
+                return;
+            }
+            if (!enqueue(record(type, payload))) {
+                log.error("Journal writer unavailable, dropping record {} for site {}", type, siteId);
+            }
+        }
+
+        @Override
+        public synchronized void addSensor(Sensor sensor){
+            if (sensor != null && sensors.add(sensor)) {
+                append(ADD_SENSOR, gson.toJson(sensor));
+            }
+        }
+        @Override
+        public synchronized void removeSensor(Sensor sensor){
+            if (sensor != null && sensors.remove(sensor.getSensorId()) != null) {
+                append(REMOVE_SENSOR, sensor.getSensorId().toString());
+            }
+        }
+        @Override
+        public synchronized void updateSensor(Sensor sensor){
+            if (sensor == null) {
+                return;
+            }
+            if (sensors.update(sensor)) {
+                append(UPDATE_SENSOR, gson.toJson(sensor));
+            } else {
+                log.warn("Attempted to update sensor not found in site {}: {}", siteId, sensor.getName());
+            }
+        }
+        @Override
+        public synchronized void updateSensors(Collection<Sensor> batch){
+            if (batch == null) {
+                return;
+            }
+            List<Sensor> updated = new ArrayList<>(batch.size());
+            for (Sensor sensor : batch) {
+                if (sensor != null && sensors.update(sensor)) {
+                    updated.add(sensor);
+                }
+            }
+            if (!updated.isEmpty()) {
+                append(UPDATE_SENSORS, gson.toJson(updated));
+            }
+        }
+        @Override
+        public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
+            if (alarmStatus != null && this.alarmStatus != alarmStatus) {
+                this.alarmStatus = alarmStatus;
+                append(ALARM_STATUS, alarmStatus.name());
+            }
+        }
+        @Override
+        public synchronized void setArmingStatus(ArmingStatus armingStatus){
+            if (armingStatus != null && this.armingStatus != armingStatus) {
+                this.armingStatus = armingStatus;
+                append(ARMING_STATUS, armingStatus.name());
+            }
+        }
+        @Override
+        public synchronized Set<Sensor> getSensors(){
+            return Set.copyOf(sensors.values());
+        }
+        @Override
+        public synchronized List<Sensor> getSortedSensors(){
+            return sensors.sortedCopy();
+        }
+        @Override
+        public synchronized int getActiveSensorCount(){
+            return sensors.getActiveCount();
+        }
+        @Override
+        public synchronized int getActiveSensorCount(SensorType sensorType){
+            return sensors.getActiveCount(sensorType);
+        }
+        @Override
+        public synchronized Sensor getSensor(UUID sensorId){
+            return sensors.get(sensorId);
+        }
+        @Override
+        public synchronized AlarmStatus getAlarmStatus(){
+            return alarmStatus;
+        }
+        @Override
+        public synchronized ArmingStatus getArmingStatus(){
+            return armingStatus;
+        }
+        @Override
+        public synchronized SecurityState getState(){
+            return new SecurityState(alarmStatus, armingStatus, Set.copyOf(sensors.values()), sensors.sortedCopy(), sensors.getActiveCount());
+        }
+    }
+}
@@ -4,14 +4,15 @@ import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.reflect.Type;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.UUID;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 
 public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository{
-    private Set<Sensor> sensors = new HashSet<>();
+    private final SensorIndex sensors = new SensorIndex();
     private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
     private ArmingStatus armingStatus = ArmingStatus.DISARMED;
     private static final String SENSORS = "SENSORS";
@@ -25,22 +26,20 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
             alarmStatus = AlarmStatus.valueOf(prefs.get(ALARM_STATUS, AlarmStatus.NO_ALARM.toString()));
             armingStatus = ArmingStatus.valueOf(prefs.get(ARMING_STATUS, ArmingStatus.DISARMED.toString()));
             String sensorString = prefs.get(SENSORS, null);
-            if (sensorString == null || sensorString.isBlank()){
-                sensors = new TreeSet<>();
-            } else {
+            if (sensorString != null && !sensorString.isBlank()){
                 Type type = new TypeToken<Set<Sensor>>() {}.getType();
                 Set<Sensor> loadedSensors = gson.fromJson(sensorString, type);
-                sensors = (loadedSensors != null) ? new TreeSet<>(loadedSensors) : new TreeSet<>();
+                if (loadedSensors != null) {
+                    loadedSensors.forEach(sensors::put);
+                } else {
+                    log.warn("Sensor set was unexpectedly null after loading, initialized to empty set.");
+                }
             }
         } catch (RuntimeException e) {
             log.error("Failed to load state from preferences, using defaults. Error: {}", e.getMessage(), e);
             alarmStatus = AlarmStatus.NO_ALARM;
             armingStatus = ArmingStatus.DISARMED;
-            sensors = new TreeSet<>();
-        }
-        if (sensors == null) {
-            sensors = new TreeSet<>();
-            log.warn("Sensor set was unexpectedly null after loading, initialized to empty set.");
+            sensors.clear();
         }
     }
     private void savePrefs(String key, String value){
@@ -55,30 +54,46 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
     public synchronized void addSensor(Sensor sensor){
         if (sensor != null){
             if (sensors.add(sensor)){
-                savePrefs(SENSORS, gson.toJson(sensors));
+                savePrefs(SENSORS, gson.toJson(sensors.values()));
             }
         }
     }
     @Override
     public synchronized void removeSensor(Sensor sensor){
         if (sensor != null){
-            if (sensors.remove(sensor)){
-                savePrefs(SENSORS, gson.toJson(sensors));
+            if (sensors.remove(sensor.getSensorId()) != null){
+                savePrefs(SENSORS, gson.toJson(sensors.values()));
             }
         }
     }
     @Override
     public synchronized void updateSensor(Sensor sensor) {
         if (sensor != null) {
-            if (sensors.remove(sensor)) {
-                sensors.add(sensor);
-                savePrefs(SENSORS, gson.toJson(sensors));
+            if (sensors.update(sensor)) {
+                savePrefs(SENSORS, gson.toJson(sensors.values()));
             } else{
                 log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
             }
         }
     }
     @Override
+    public synchronized void updateSensors(Collection<Sensor> sensors) {
+        if (sensors == null) {
+            return;
+        }
+        boolean changed = false;
+        for (Sensor sensor : sensors) {
+            if (sensor != null && this.sensors.update(sensor)) {
+                changed = true;
+            } else if (sensor != null) {
+                log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+            }
+        }
+        if (changed) {
+            savePrefs(SENSORS, gson.toJson(this.sensors.values()));
+        }
+    }
+    @Override
     public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
         if (alarmStatus != null && this.alarmStatus != alarmStatus){
             this.alarmStatus = alarmStatus;
@@ -94,7 +109,27 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
     }
     @Override
     public synchronized Set<Sensor> getSensors(){
-        return Set.copyOf(sensors);
+        return Set.copyOf(sensors.values());
+    }
+    @Override
+    public synchronized int getActiveSensorCount() {
+        return sensors.getActiveCount();
+    }
+    @Override
+    public synchronized int getActiveSensorCount(SensorType sensorType) {
+        return sensors.getActiveCount(sensorType);
+    }
+    @Override
+    public synchronized Sensor getSensor(UUID sensorId) {
+        return sensors.get(sensorId);
+    }
+    @Override
+    public synchronized List<Sensor> getSortedSensors() {
+        return sensors.sortedCopy();
+    }
+    @Override
+    public synchronized SecurityState getState() {
+        return new SecurityState(alarmStatus, armingStatus, Set.copyOf(sensors.values()), sensors.sortedCopy(), sensors.getActiveCount());
     }
     @Override
     public synchronized AlarmStatus getAlarmStatus() {
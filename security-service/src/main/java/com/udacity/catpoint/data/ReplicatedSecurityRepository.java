@@ -0,0 +1,215 @@
+package com.udacity.catpoint.data;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Primary side of hot-standby replication. Every mutation is applied to the delegate and recorded
+ * as a {@link ReplicationRecord} with the next sequence number in a bounded in-memory backlog,
+ * from which standbys are streamed the records they have not seen. A standby that asks for
+ * records older than the backlog holds, or that followed a different primary, is sent one
+ * {@link ReplicationRecord#FULL_STATE} record instead, so catching up never replays more than
+ * the backlog. Sequence numbers are only meaningful together with this repository's epoch, which
+ * is chosen afresh each time one is created.
+ *
+ * Records are published through a volatile sequence number and read without taking the
+ * repository's lock, so streaming to standbys never competes with writers for it.
+ */
+public class ReplicatedSecurityRepository implements SecurityRepository, Closeable {
+    public static final int DEFAULT_BACKLOG = 4096;
+
+    private final SecurityRepository delegate;
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+
+    private final ReplicationRecord[] backlog; // written under this, published through sequence
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition appended = signalLock.newCondition();
+    private volatile long sequence;
+    private volatile int waiting;
+    private volatile boolean closed;
+
+    public ReplicatedSecurityRepository(SecurityRepository delegate){
+        this(delegate, DEFAULT_BACKLOG);
+    }
+    public ReplicatedSecurityRepository(SecurityRepository delegate, int backlogSize){
+        this.delegate = Objects.requireNonNull(delegate, "SecurityRepository cannot be null");
+        if (backlogSize <= 0) {
+            throw new IllegalArgumentException("Backlog size must be positive");
+        }
+        this.backlog = new ReplicationRecord[backlogSize];
+    }
+
+    private void append(char type, String payload){
+        long next = sequence + 1;
+        backlog[(int) (next % backlog.length)] = new ReplicationRecord(next, epochMicros(), type, payload);
+        sequence = next;
+        if (waiting > 0) {
+            signalAll();
+        }
+    }
+
+    private void signalAll(){
+        signalLock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    private synchronized ReplicationRecord fullState(){
+        return ReplicationRecord.fullState(sequence, epochMicros(), delegate.getState());
+    }
+
+    private static long epochMicros(){
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+
+    /**
+     * Identifies this primary's sequence numbers.
+     */
+    public long getEpoch(){
+        return epoch;
+    }
+
+    /**
+     * Sequence number of the latest mutation, or 0 if there has been none.
+     */
+    public long getSequence(){
+        return sequence;
+    }
+
+    /**
+     * Waits up to the timeout for mutations after the given sequence number and returns at most
+     * {@code max} of them in order, or an empty list if none arrived in time or the repository was
+     * closed. If the records after that sequence number have already left the backlog, or the
+     * sequence number is negative, returns a single full-state record as of the latest mutation.
+     */
+    public List<ReplicationRecord> awaitRecordsAfter(long after, int max, long timeoutNanos) throws InterruptedException {
+        if (after < 0 || after < sequence - backlog.length) {
+            return List.of(fullState());
+        }
+        if (sequence <= after) {
+            awaitSequence(after, timeoutNanos);
+        }
+        long last = Math.min(sequence, after + max);
+        List<ReplicationRecord> records = new ArrayList<>((int) Math.max(0, last - after));
+        for (long s = after + 1; s <= last; s++) {
+            ReplicationRecord record = backlog[(int) (s % backlog.length)];
+            if (record == null || record.sequence() != s) {
+                // Overwritten while this reader was looking at it.
+                return List.of(fullState());
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private void awaitSequence(long after, long timeoutNanos) throws InterruptedException {
+        signalLock.lock();
+        try {
+            waiting++;
+            long remaining = timeoutNanos;
+            while (sequence <= after && !closed && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } finally {
+            waiting--;
+            signalLock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor){
+        if (sensor != null) {
+            delegate.addSensor(sensor);
+            append(ReplicationRecord.ADD_SENSOR, ReplicationRecord.toJson(sensor));
+        }
+    }
+    @Override
+    public synchronized void removeSensor(Sensor sensor){
+        if (sensor != null) {
+            delegate.removeSensor(sensor);
+            append(ReplicationRecord.REMOVE_SENSOR, sensor.getSensorId().toString());
+        }
+    }
+    @Override
+    public synchronized void updateSensor(Sensor sensor){
+        if (sensor != null) {
+            delegate.updateSensor(sensor);
+            append(ReplicationRecord.UPDATE_SENSOR, ReplicationRecord.toJson(sensor));
+        }
+    }
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> sensors){
+        if (sensors != null && !sensors.isEmpty()) {
+            delegate.updateSensors(sensors);
+            append(ReplicationRecord.UPDATE_SENSORS, ReplicationRecord.toJson(sensors));
+        }
+    }
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
+        if (alarmStatus != null && delegate.getAlarmStatus() != alarmStatus) {
+            delegate.setAlarmStatus(alarmStatus);
+            append(ReplicationRecord.ALARM_STATUS, alarmStatus.name());
+        }
+    }
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus){
+        if (armingStatus != null && delegate.getArmingStatus() != armingStatus) {
+            delegate.setArmingStatus(armingStatus);
+            append(ReplicationRecord.ARMING_STATUS, armingStatus.name());
+        }
+    }
+    @Override
+    public Set<Sensor> getSensors(){
+        return delegate.getSensors();
+    }
+    @Override
+    public int getActiveSensorCount(){
+        return delegate.getActiveSensorCount();
+    }
+    @Override
+    public int getActiveSensorCount(SensorType sensorType){
+        return delegate.getActiveSensorCount(sensorType);
+    }
+    @Override
+    public Sensor getSensor(UUID sensorId){
+        return delegate.getSensor(sensorId);
+    }
+    @Override
+    public List<Sensor> getSortedSensors(){
+        return delegate.getSortedSensors();
+    }
+    @Override
+    public SecurityState getState(){
+        return delegate.getState();
+    }
+    @Override
+    public AlarmStatus getAlarmStatus(){
+        return delegate.getAlarmStatus();
+    }
+    @Override
+    public ArmingStatus getArmingStatus(){
+        return delegate.getArmingStatus();
+    }
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        signalAll();
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
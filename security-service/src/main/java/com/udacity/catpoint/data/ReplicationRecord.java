@@ -0,0 +1,122 @@
+package com.udacity.catpoint.data;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One repository mutation as a primary ships it to its standbys: the sequence number the primary
+ * assigned it, when it was made in microseconds since the epoch, and the change itself in the same
+ * form as a journal record, a type character and a JSON or plain-text payload. A
+ * {@link #FULL_STATE} record carries the whole repository and replaces whatever the standby held.
+ * Like journal records, records are idempotent.
+ */
+public record ReplicationRecord(long sequence, long timestampMicros, char type, String payload) {
+    public static final char ADD_SENSOR = 'A';
+    public static final char REMOVE_SENSOR = 'R';
+    public static final char UPDATE_SENSOR = 'U';
+    public static final char UPDATE_SENSORS = 'B';
+    public static final char ALARM_STATUS = 'S';
+    public static final char ARMING_STATUS = 'M';
+    public static final char FULL_STATE = 'F';
+    private static final String RECORD_TYPES = "ARUBSMF";
+    private static final Gson gson = new Gson();
+
+    public ReplicationRecord {
+        if (RECORD_TYPES.indexOf(type) < 0) {
+            throw new IllegalArgumentException("Unknown replication record type " + type);
+        }
+        Objects.requireNonNull(payload, "Payload cannot be null");
+    }
+
+    static ReplicationRecord fullState(long sequence, long timestampMicros, SecurityState state){
+        JsonObject payload = new JsonObject();
+        payload.addProperty("alarmStatus", state.alarmStatus().name());
+        payload.addProperty("armingStatus", state.armingStatus().name());
+        payload.add("sensors", gson.toJsonTree(state.sortedSensors()));
+        return new ReplicationRecord(sequence, timestampMicros, FULL_STATE, payload.toString());
+    }
+
+    static String toJson(Object value){
+        return gson.toJson(value);
+    }
+
+    /**
+     * Applies the change to the repository. Sensor updates are decoded into fresh instances, so
+     * the repository never shares them with the sender.
+     * @throws com.google.gson.JsonParseException or IllegalArgumentException if the payload is unreadable
+     */
+    public void applyTo(SecurityRepository repository){
+        switch (type) {
+            case ADD_SENSOR -> repository.addSensor(sensor(gson.fromJson(payload, Sensor.class)));
+            case UPDATE_SENSOR -> repository.updateSensor(sensor(gson.fromJson(payload, Sensor.class)));
+            case UPDATE_SENSORS -> repository.updateSensors(sensors(gson.fromJson(payload, Sensor[].class)));
+            case REMOVE_SENSOR -> {
+                Sensor sensor = new Sensor();
+                sensor.setSensorId(UUID.fromString(payload));
+                repository.removeSensor(sensor);
+            }
+            case ALARM_STATUS -> repository.setAlarmStatus(AlarmStatus.valueOf(payload));
+            case ARMING_STATUS -> repository.setArmingStatus(ArmingStatus.valueOf(payload));
+            default -> replaceState(repository);
+        }
+    }
+
+    private void replaceState(SecurityRepository repository){
+        JsonObject state = JsonParser.parseString(payload).getAsJsonObject();
+        JsonArray sensorArray = state.getAsJsonArray("sensors");
+        List<Sensor> incoming = sensors(gson.fromJson(sensorArray == null ? new JsonArray() : sensorArray, Sensor[].class));
+        Set<UUID> incomingIds = new HashSet<>();
+        incoming.forEach(sensor -> incomingIds.add(sensor.getSensorId()));
+        Set<UUID> existingIds = new HashSet<>();
+        for (Sensor sensor : repository.getSensors()) {
+            if (incomingIds.contains(sensor.getSensorId())) {
+                existingIds.add(sensor.getSensorId());
+            } else {
+                repository.removeSensor(sensor);
+            }
+        }
+        List<Sensor> updated = new ArrayList<>();
+        for (Sensor sensor : incoming) {
+            if (existingIds.contains(sensor.getSensorId())) {
+                updated.add(sensor);
+            } else {
+                repository.addSensor(sensor);
+            }
+        }
+        if (!updated.isEmpty()) {
+            repository.updateSensors(updated);
+        }
+        repository.setAlarmStatus(AlarmStatus.valueOf(field(state, "alarmStatus")));
+        repository.setArmingStatus(ArmingStatus.valueOf(field(state, "armingStatus")));
+    }
+
+    private static String field(JsonObject state, String name){
+        if (!state.has(name)) {
+            throw new IllegalArgumentException("Full state record without " + name);
+        }
+        return state.get(name).getAsString();
+    }
+
+    private static Sensor sensor(Sensor sensor){
+        if (sensor == null || sensor.getSensorId() == null) {
+            throw new IllegalArgumentException("Sensor record without id");
+        }
+        return sensor;
+    }
+
+    private static List<Sensor> sensors(Sensor[] batch){
+        if (batch == null) {
+            throw new IllegalArgumentException("Sensor batch record without sensors");
+        }
+        Arrays.stream(batch).forEach(ReplicationRecord::sensor);
+        return Arrays.asList(batch);
+    }
+}
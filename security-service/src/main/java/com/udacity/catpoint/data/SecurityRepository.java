@@ -1,6 +1,9 @@
 package com.udacity.catpoint.data;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Interface showing the methods our security repository will need to support
@@ -9,11 +12,50 @@ public interface SecurityRepository {
     void addSensor(Sensor sensor);
     void removeSensor(Sensor sensor);
     void updateSensor(Sensor sensor);
+    /**
+     * Applies all updates atomically with a single persistence write.
+     */
+    void updateSensors(Collection<Sensor> sensors);
     void setAlarmStatus(AlarmStatus alarmStatus);
     void setArmingStatus(ArmingStatus armingStatus);
     Set<Sensor> getSensors();
     AlarmStatus getAlarmStatus();
     ArmingStatus getArmingStatus();
 
+    /**
+     * Number of active sensors. Repositories backed by a {@link SensorIndex} answer this in O(1).
+     */
+    default int getActiveSensorCount() {
+        return (int) getSensors().stream().filter(Sensor::getActive).count();
+    }
 
+    /**
+     * Number of active sensors of one type.
+     */
+    default int getActiveSensorCount(SensorType sensorType) {
+        return (int) getSensors().stream().filter(s -> s.getActive() && s.getSensorType() == sensorType).count();
+    }
+
+    /**
+     * The stored sensor with the given id, or null if there is none. Repositories backed by a
+     * {@link SensorIndex} answer this without copying their sensors.
+     */
+    default Sensor getSensor(UUID sensorId) {
+        return getSensors().stream().filter(sensor -> sensorId.equals(sensor.getSensorId())).findFirst().orElse(null);
+    }
+
+    /**
+     * Sensors ordered for display by name, type and id.
+     */
+    default List<Sensor> getSortedSensors() {
+        return getSensors().stream().sorted().toList();
+    }
+
+    /**
+     * View of alarm status, arming status and sensors. Implementations override this to take the
+     * view atomically.
+     */
+    default SecurityState getState() {
+        return new SecurityState(getAlarmStatus(), getArmingStatus(), getSensors(), getSortedSensors(), getActiveSensorCount());
+    }
 }
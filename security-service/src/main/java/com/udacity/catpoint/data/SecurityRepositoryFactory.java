@@ -0,0 +1,52 @@
+package com.udacity.catpoint.data;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Chooses the repository backend at startup. The backend is read from the
+ * {@value #BACKEND_PROPERTY} system property ({@code preferences}, {@code journal} or {@code sql},
+ * defaulting to {@code preferences}) and its location, a directory for the journal or a JDBC URL
+ * for SQL, from {@value #LOCATION_PROPERTY}. Setting {@value #COPY_ON_WRITE_PROPERTY} to
+ * {@code true} puts a {@link CopyOnWriteSecurityRepository} in front of the backend, so reads
+ * never wait for writes.
+ *
+ * A standby must not share storage with a primary on the same host, so
+ * {@link #standbyFromSystemProperties()} only accepts the journal or SQL backend with an explicit
+ * location: the preferences node and the default journal directory and database are per user.
+ */
+public final class SecurityRepositoryFactory {
+    public static final String BACKEND_PROPERTY = "catpoint.repository";
+    public static final String LOCATION_PROPERTY = "catpoint.repository.location";
+    public static final String COPY_ON_WRITE_PROPERTY = "catpoint.repository.copyOnWrite";
+
+    private SecurityRepositoryFactory(){
+    }
+
+    public static SecurityRepository fromSystemProperties(){
+        SecurityRepository repository = create(System.getProperty(BACKEND_PROPERTY, "preferences"), System.getProperty(LOCATION_PROPERTY));
+        return Boolean.getBoolean(COPY_ON_WRITE_PROPERTY) ? new CopyOnWriteSecurityRepository(repository) : repository;
+    }
+
+    /**
+     * The repository a hot standby replicates into, chosen like {@link #fromSystemProperties()}.
+     * @throws IllegalStateException if the backend is the preferences one or no location is set,
+     *         since the standby would then write to the same storage as a primary on this host
+     */
+    public static SecurityRepository standbyFromSystemProperties(){
+        String backend = System.getProperty(BACKEND_PROPERTY, "preferences");
+        if (backend.equalsIgnoreCase("preferences") || System.getProperty(LOCATION_PROPERTY) == null) {
+            throw new IllegalStateException("A standby needs storage of its own: set " + BACKEND_PROPERTY
+                    + " to journal or sql and " + LOCATION_PROPERTY + " to a location the primary does not use");
+        }
+        return fromSystemProperties();
+    }
+
+    public static SecurityRepository create(String backend, String location){
+        return switch (backend.toLowerCase(Locale.ROOT)) {
+            case "preferences" -> new PretendDatabaseSecurityRepositoryImpl();
+            case "journal" -> location == null ? new JournaledSecurityRepositoryImpl() : new JournaledSecurityRepositoryImpl(Path.of(location));
+            case "sql" -> new SqlSecurityRepositoryImpl(location == null ? SqlSecurityRepositoryImpl.DEFAULT_URL : location);
+            default -> throw new IllegalArgumentException("Unknown repository backend: " + backend);
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.udacity.catpoint.data;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, consistent view of the repository at one point in time.
+ */
+public record SecurityState(AlarmStatus alarmStatus,
+                            ArmingStatus armingStatus,
+                            Set<Sensor> sensors,
+                            List<Sensor> sortedSensors,
+                            int activeSensorCount) {
+
+    public SecurityState {
+        sensors = Set.copyOf(sensors);
+        sortedSensors = List.copyOf(sortedSensors);
+    }
+
+    public boolean allSensorsInactive() {
+        return activeSensorCount == 0;
+    }
+}
@@ -7,12 +7,23 @@ public class Sensor implements Comparable<Sensor>{
     private String name;
     private Boolean active;
     private SensorType sensorType;
+    private transient boolean immutable;
     public Sensor(String name, SensorType sensorType){
         this.name = name;
         this.sensorType = sensorType;
         this.sensorId = UUID.randomUUID();
         this.active = Boolean.FALSE;
     }
+    /**
+     * Copies the other sensor's id, name, type and active flag. The copy can be changed even when
+     * the other sensor cannot.
+     */
+    public Sensor(Sensor other){
+        this.sensorId = other.sensorId;
+        this.name = other.name;
+        this.sensorType = other.sensorType;
+        this.active = other.active;
+    }
     public Sensor(){
         this.sensorId = null;
         this.name = null;
@@ -34,26 +45,46 @@ public class Sensor implements Comparable<Sensor>{
         return name;
     }
     public void setName(String name){
+        checkMutable();
         this.name = name;
     }
     public Boolean getActive(){
         return active;
     }
     public void setActive(Boolean active){
+        checkMutable();
         this.active = active;
     }
     public SensorType getSensorType(){
         return sensorType;
     }
     public void setSensorType(SensorType sensorType){
+        checkMutable();
         this.sensorType = sensorType;
     }
     public UUID getSensorId(){
         return sensorId;
     }
     public void setSensorId(UUID sensorId){
+        checkMutable();
         this.sensorId = sensorId;
     }
+    /**
+     * Copy whose setters throw, so it can be shared with any number of readers.
+     */
+    public Sensor immutableCopy(){
+        Sensor copy = new Sensor(this);
+        copy.immutable = true;
+        return copy;
+    }
+    public boolean isImmutable(){
+        return immutable;
+    }
+    private void checkMutable(){
+        if (immutable) {
+            throw new UnsupportedOperationException("Sensor " + sensorId + " is an immutable view");
+        }
+    }
     @Override
     public int compareTo(Sensor o){
         return ComparisonChain.start()
@@ -0,0 +1,158 @@
+package com.udacity.catpoint.data;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Sensor store keyed by sensor id. Keeps running counts of active sensors, overall and per
+ * {@link SensorType}, and an incrementally maintained view in display order. The name, type and
+ * active flag of each sensor are recorded when it is stored, so counters and ordering stay
+ * correct even though callers mutate {@link Sensor} instances before handing them back.
+ * Not thread-safe; repositories guard it with their own lock.
+ */
+public final class SensorIndex {
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+    private static final Comparator<SortKey> DISPLAY_ORDER = Comparator
+            .comparing(SortKey::name, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(SortKey::type, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(SortKey::id, Comparator.nullsFirst(Comparator.<UUID>naturalOrder()));
+
+    private final Map<UUID, Entry> byId = new HashMap<>();
+    private final TreeMap<SortKey, Sensor> sorted = new TreeMap<>(DISPLAY_ORDER);
+    private final int[] countByType = new int[SENSOR_TYPES.length];
+    private final int[] activeCountByType = new int[SENSOR_TYPES.length];
+    private int activeCount;
+
+    /**
+     * Adds the sensor unless one with the same id is already stored.
+     * @return true if the sensor was added
+     */
+    public boolean add(Sensor sensor){
+        if (byId.containsKey(sensor.getSensorId())) {
+            return false;
+        }
+        store(sensor);
+        return true;
+    }
+
+    /**
+     * Replaces the stored sensor with the same id.
+     * @return false if no such sensor is stored
+     */
+    public boolean update(Sensor sensor){
+        Entry previous = byId.get(sensor.getSensorId());
+        if (previous == null) {
+            return false;
+        }
+        unlink(previous);
+        store(sensor);
+        return true;
+    }
+
+    /**
+     * Adds the sensor, replacing any stored sensor with the same id.
+     */
+    public void put(Sensor sensor){
+        Entry previous = byId.get(sensor.getSensorId());
+        if (previous != null) {
+            unlink(previous);
+        }
+        store(sensor);
+    }
+
+    public Sensor remove(UUID sensorId){
+        Entry previous = byId.remove(sensorId);
+        if (previous == null) {
+            return null;
+        }
+        unlink(previous);
+        return previous.sensor();
+    }
+
+    public void clear(){
+        byId.clear();
+        sorted.clear();
+        Arrays.fill(countByType, 0);
+        Arrays.fill(activeCountByType, 0);
+        activeCount = 0;
+    }
+
+    public Sensor get(UUID sensorId){
+        Entry entry = byId.get(sensorId);
+        return entry == null ? null : entry.sensor();
+    }
+
+    public boolean contains(UUID sensorId){
+        return byId.containsKey(sensorId);
+    }
+
+    public int size(){
+        return byId.size();
+    }
+
+    public int getActiveCount(){
+        return activeCount;
+    }
+
+    public int getActiveCount(SensorType type){
+        return activeCountByType[type.ordinal()];
+    }
+
+    public int getCount(SensorType type){
+        return countByType[type.ordinal()];
+    }
+
+    public boolean allInactive(){
+        return activeCount == 0;
+    }
+
+    /**
+     * Live, unmodifiable view of the stored sensors in display order.
+     */
+    public Collection<Sensor> values(){
+        return Collections.unmodifiableCollection(sorted.values());
+    }
+
+    /**
+     * Copy of the stored sensors ordered by name, type and id.
+     */
+    public List<Sensor> sortedCopy(){
+        return List.copyOf(sorted.values());
+    }
+
+    private void store(Sensor sensor){
+        boolean active = Boolean.TRUE.equals(sensor.getActive());
+        SensorType type = sensor.getSensorType();
+        SortKey key = new SortKey(sensor.getName(), type == null ? null : type.toString(), sensor.getSensorId());
+        byId.put(sensor.getSensorId(), new Entry(sensor, key, active, type));
+        sorted.put(key, sensor);
+        adjustCounts(type, active, 1);
+    }
+
+    private void unlink(Entry entry){
+        sorted.remove(entry.key());
+        adjustCounts(entry.type(), entry.active(), -1);
+    }
+
+    private void adjustCounts(SensorType type, boolean active, int delta){
+        if (active) {
+            activeCount += delta;
+        }
+        if (type != null) {
+            countByType[type.ordinal()] += delta;
+            if (active) {
+                activeCountByType[type.ordinal()] += delta;
+            }
+        }
+    }
+
+    private record SortKey(String name, String type, UUID id) { }
+
+    private record Entry(Sensor sensor, SortKey key, boolean active, SensorType type) { }
+}
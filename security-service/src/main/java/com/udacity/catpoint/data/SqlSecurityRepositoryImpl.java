@@ -0,0 +1,278 @@
+package com.udacity.catpoint.data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Repository backed by an embedded, file-based H2 database. Statements are prepared once and
+ * reused, and multi-sensor updates go out as one JDBC batch in a single transaction. State is
+ * cached in memory, so reads never touch the database.
+ */
+public class SqlSecurityRepositoryImpl implements SecurityRepository, Closeable {
+    public static final String DEFAULT_URL = "jdbc:h2:file:~/.catpoint/catpoint";
+    private static final String ALARM_STATUS = "ALARM_STATUS";
+    private static final String ARMING_STATUS = "ARMING_STATUS";
+    private static final Logger log = LoggerFactory.getLogger(SqlSecurityRepositoryImpl.class);
+
+    private final SensorIndex sensors = new SensorIndex();
+    private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+    private ArmingStatus armingStatus = ArmingStatus.DISARMED;
+    private Connection connection;
+    private PreparedStatement insertSensor;
+    private PreparedStatement updateSensor;
+    private PreparedStatement deleteSensor;
+    private PreparedStatement mergeStatus;
+
+    public SqlSecurityRepositoryImpl(){
+        this(DEFAULT_URL);
+    }
+    public SqlSecurityRepositoryImpl(String jdbcUrl){
+        Connection opened = null;
+        try {
+            opened = DriverManager.getConnection(jdbcUrl);
+            connection = opened;
+            createSchema();
+            insertSensor = connection.prepareStatement("INSERT INTO sensor (sensor_id, name, sensor_type, active) VALUES (?, ?, ?, ?)");
+            updateSensor = connection.prepareStatement("UPDATE sensor SET name = ?, sensor_type = ?, active = ? WHERE sensor_id = ?");
+            deleteSensor = connection.prepareStatement("DELETE FROM sensor WHERE sensor_id = ?");
+            mergeStatus = connection.prepareStatement("MERGE INTO system_status (status_key, status_value) KEY (status_key) VALUES (?, ?)");
+            load();
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(opened);
+            throw new IllegalStateException("Failed to open sensor database " + jdbcUrl, e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection){
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close sensor database after a failed open: {}", e.getMessage());
+        }
+    }
+
+    private void createSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS sensor ("
+                    + "sensor_id UUID PRIMARY KEY, "
+                    + "name VARCHAR(255), "
+                    + "sensor_type VARCHAR(16), "
+                    + "active BOOLEAN NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS sensor_type_idx ON sensor (sensor_type)");
+            statement.execute("CREATE TABLE IF NOT EXISTS system_status ("
+                    + "status_key VARCHAR(32) PRIMARY KEY, "
+                    + "status_value VARCHAR(32) NOT NULL)");
+        }
+    }
+
+    private void load() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT sensor_id, name, sensor_type, active FROM sensor")) {
+                while (rs.next()) {
+                    Sensor sensor = new Sensor();
+                    sensor.setSensorId(rs.getObject(1, UUID.class));
+                    sensor.setName(rs.getString(2));
+                    String type = rs.getString(3);
+                    sensor.setSensorType(type == null ? null : SensorType.valueOf(type));
+                    sensor.setActive(rs.getBoolean(4));
+                    sensors.put(sensor);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT status_key, status_value FROM system_status")) {
+                while (rs.next()) {
+                    switch (rs.getString(1)) {
+                        case ALARM_STATUS -> alarmStatus = AlarmStatus.valueOf(rs.getString(2));
+                        case ARMING_STATUS -> armingStatus = ArmingStatus.valueOf(rs.getString(2));
+                        default -> log.warn("Ignoring unknown status key {}", rs.getString(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private void bindSensorValues(PreparedStatement statement, int first, Sensor sensor) throws SQLException {
+        statement.setString(first, sensor.getName());
+        if (sensor.getSensorType() == null) {
+            statement.setNull(first + 1, Types.VARCHAR);
+        } else {
+            statement.setString(first + 1, sensor.getSensorType().name());
+        }
+        statement.setBoolean(first + 2, Boolean.TRUE.equals(sensor.getActive()));
+    }
+
+    private boolean isOpen(){
+        if (connection == null) {
+            log.error("Sensor database is not open, change not persisted");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor){
+        if (sensor == null || !sensors.add(sensor) || !isOpen()) {
+            return;
+        }
+        try {
+            insertSensor.setObject(1, sensor.getSensorId());
+            bindSensorValues(insertSensor, 2, sensor);
+            insertSensor.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Failed to insert sensor {} : {}", sensor.getName(), e.getMessage(), e);
+        }
+    }
+    @Override
+    public synchronized void removeSensor(Sensor sensor){
+        if (sensor == null || sensors.remove(sensor.getSensorId()) == null || !isOpen()) {
+            return;
+        }
+        try {
+            deleteSensor.setObject(1, sensor.getSensorId());
+            deleteSensor.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Failed to delete sensor {} : {}", sensor.getName(), e.getMessage(), e);
+        }
+    }
+    @Override
+    public synchronized void updateSensor(Sensor sensor){
+        if (sensor == null) {
+            return;
+        }
+        if (!sensors.update(sensor)) {
+            log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+            return;
+        }
+        if (!isOpen()) {
+            return;
+        }
+        try {
+            bindSensorValues(updateSensor, 1, sensor);
+            updateSensor.setObject(4, sensor.getSensorId());
+            updateSensor.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Failed to update sensor {} : {}", sensor.getName(), e.getMessage(), e);
+        }
+    }
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> batch){
+        if (batch == null) {
+            return;
+        }
+        List<Sensor> updated = new ArrayList<>(batch.size());
+        for (Sensor sensor : batch) {
+            if (sensor != null && sensors.update(sensor)) {
+                updated.add(sensor);
+            } else if (sensor != null) {
+                log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+            }
+        }
+        if (updated.isEmpty() || !isOpen()) {
+            return;
+        }
+        try {
+            connection.setAutoCommit(false);
+            try {
+                for (Sensor sensor : updated) {
+                    bindSensorValues(updateSensor, 1, sensor);
+                    updateSensor.setObject(4, sensor.getSensorId());
+                    updateSensor.addBatch();
+                }
+                updateSensor.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                updateSensor.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to update {} sensors : {}", updated.size(), e.getMessage(), e);
+        }
+    }
+    private void saveStatus(String key, String value){
+        if (!isOpen()) {
+            return;
+        }
+        try {
+            mergeStatus.setString(1, key);
+            mergeStatus.setString(2, value);
+            mergeStatus.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Failed to save status {} : {}", key, e.getMessage(), e);
+        }
+    }
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus){
+        if (alarmStatus != null && this.alarmStatus != alarmStatus){
+            this.alarmStatus = alarmStatus;
+            saveStatus(ALARM_STATUS, alarmStatus.name());
+        }
+    }
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus){
+        if (armingStatus != null && this.armingStatus != armingStatus){
+            this.armingStatus = armingStatus;
+            saveStatus(ARMING_STATUS, armingStatus.name());
+        }
+    }
+    @Override
+    public synchronized Set<Sensor> getSensors(){
+        return Set.copyOf(sensors.values());
+    }
+    @Override
+    public synchronized List<Sensor> getSortedSensors(){
+        return sensors.sortedCopy();
+    }
+    @Override
+    public synchronized int getActiveSensorCount(){
+        return sensors.getActiveCount();
+    }
+    @Override
+    public synchronized int getActiveSensorCount(SensorType sensorType){
+        return sensors.getActiveCount(sensorType);
+    }
+    @Override
+    public synchronized Sensor getSensor(UUID sensorId){
+        return sensors.get(sensorId);
+    }
+    @Override
+    public synchronized AlarmStatus getAlarmStatus(){
+        return alarmStatus;
+    }
+    @Override
+    public synchronized ArmingStatus getArmingStatus(){
+        return armingStatus;
+    }
+    @Override
+    public synchronized SecurityState getState(){
+        return new SecurityState(alarmStatus, armingStatus, Set.copyOf(sensors.values()), sensors.sortedCopy(), sensors.getActiveCount());
+    }
+    @Override
+    public synchronized void close(){
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.error("Failed to close sensor database: {}", e.getMessage(), e);
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,456 @@
+package com.udacity.catpoint.data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind layer in front of another repository. Reads are served from memory and are
+ * immediately consistent; writes are coalesced so that only the latest value per key (alarm
+ * status, arming status, each sensor) reaches the delegate, and are committed as a group on a
+ * background thread once the flush interval elapses or the batch size is reached. Instances are
+ * created with {@link #start}, which starts that thread once the layer is fully built.
+ */
+public class WriteBehindSecurityRepository implements SecurityRepository, Closeable {
+
+    /**
+     * How long a mutating call waits for its write to reach the delegate.
+     */
+    public enum Durability {
+        /** Every call writes through to the delegate before returning. */
+        SYNC,
+        /** Calls return once the group commit containing their write has completed. */
+        GROUP_COMMIT,
+        /** Calls return immediately; writes reach the delegate with the next group commit. */
+        ASYNC
+    }
+
+    private static final String ALARM_STATUS = "ALARM_STATUS";
+    private static final String ARMING_STATUS = "ARMING_STATUS";
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50);
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindSecurityRepository.class);
+
+    private final SecurityRepository delegate;
+    private final Durability durability;
+    private final long flushIntervalNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final Object flushMonitor = new Object();
+    private final Thread flusher;
+
+    // guarded by lock
+    private final SensorIndex sensors = new SensorIndex();
+    private AlarmStatus alarmStatus;
+    private ArmingStatus armingStatus;
+    private Map<Object, Object> pending = new LinkedHashMap<>();
+    private long enqueuedSeq;
+    private long committedSeq;
+    private long failedSeq;
+    private RuntimeException commitFailure;
+    private boolean running = true;
+
+    // guarded by flushMonitor
+    private final Set<UUID> persistedSensorIds = new HashSet<>();
+
+    public static WriteBehindSecurityRepository start(SecurityRepository delegate, Durability durability){
+        return start(delegate, durability, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_BATCH_SIZE);
+    }
+    public static WriteBehindSecurityRepository start(SecurityRepository delegate, Durability durability, Duration flushInterval, int maxBatchSize){
+        WriteBehindSecurityRepository repository = new WriteBehindSecurityRepository(delegate, durability, flushInterval, maxBatchSize);
+        repository.flusher.start();
+        return repository;
+    }
+
+    private WriteBehindSecurityRepository(SecurityRepository delegate, Durability durability, Duration flushInterval, int maxBatchSize){
+        this.delegate = Objects.requireNonNull(delegate, "SecurityRepository cannot be null");
+        this.durability = Objects.requireNonNull(durability, "Durability cannot be null");
+        if (flushInterval.isNegative() || flushInterval.isZero() || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Flush interval and batch size must be positive");
+        }
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.alarmStatus = delegate.getAlarmStatus();
+        this.armingStatus = delegate.getArmingStatus();
+        delegate.getSensors().forEach(s -> {
+            sensors.put(s);
+            persistedSensorIds.add(s.getSensorId());
+        });
+        this.flusher = new Thread(this::runFlusher, "catpoint-write-behind");
+        this.flusher.setDaemon(true);
+    }
+
+    private void runFlusher(){
+        boolean failed = false;
+        while (true) {
+            lock.lock();
+            try {
+                if (!running) {
+                    break;
+                }
+                // After a failure wait out the interval even with a full batch, rather than spin.
+                if (failed || pending.size() < maxBatchSize) {
+                    flushRequested.awaitNanos(flushIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lock.unlock();
+            }
+            failed = !tryFlush();
+        }
+        tryFlush();
+    }
+
+    private boolean tryFlush(){
+        try {
+            flush();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes all pending changes to the delegate. If the delegate fails, the batch is put back
+     * in front of anything enqueued since, so the flusher retries it, and the failure is thrown.
+     */
+    public void flush(){
+        synchronized (flushMonitor) {
+            Map<Object, Object> batch;
+            long seq;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                seq = enqueuedSeq;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                List<Sensor> updates = new ArrayList<>();
+                batch.forEach((key, value) -> write(key, value, updates));
+                if (!updates.isEmpty()) {
+                    delegate.updateSensors(updates);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to commit {} pending writes, will retry: {}", batch.size(), e.getMessage(), e);
+                lock.lock();
+                try {
+                    batch.putAll(pending);
+                    pending = batch;
+                    failedSeq = seq;
+                    commitFailure = e;
+                    committed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+            lock.lock();
+            try {
+                committedSeq = seq;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void write(Object key, Object value, List<Sensor> updates){
+        if (value instanceof AlarmStatus status) {
+            delegate.setAlarmStatus(status);
+        } else if (value instanceof ArmingStatus status) {
+            delegate.setArmingStatus(status);
+        } else if (value instanceof SensorWrite write) {
+            UUID id = (UUID) key;
+            if (write.removed()) {
+                if (persistedSensorIds.contains(id)) {
+                    delegate.removeSensor(write.sensor());
+                    persistedSensorIds.remove(id);
+                }
+            } else if (!persistedSensorIds.contains(id)) {
+                delegate.addSensor(write.sensor());
+                persistedSensorIds.add(id);
+            } else {
+                updates.add(write.sensor());
+            }
+        }
+    }
+
+    /**
+     * Queues writes made to memory in the same locked section, so the delegate sees them in the
+     * order memory did. Must be called with the lock held.
+     * @return the sequence number to pass to {@link #awaitDurability}
+     */
+    private long enqueue(Object key, Object value){
+        return enqueue(Map.of(key, value));
+    }
+
+    private long enqueue(Map<?, ?> writes){
+        pending.putAll(writes);
+        if (pending.size() >= maxBatchSize) {
+            flushRequested.signal();
+        }
+        return ++enqueuedSeq;
+    }
+
+    /**
+     * Waits as the durability requires for the writes queued under the given sequence number.
+     * Must be called without the lock held.
+     */
+    private void awaitDurability(long seq){
+        switch (durability) {
+            case SYNC -> flush();
+            case GROUP_COMMIT -> awaitCommit(seq);
+            case ASYNC -> { }
+        }
+    }
+
+    private void awaitCommit(long seq){
+        lock.lock();
+        try {
+            while (committedSeq < seq) {
+                if (failedSeq >= seq) {
+                    throw new IllegalStateException("Write was not committed and will be retried", commitFailure);
+                }
+                if (!running) {
+                    lock.unlock();
+                    try {
+                        flush();
+                    } finally {
+                        lock.lock();
+                    }
+                    return;
+                }
+                committed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addSensor(Sensor sensor){
+        if (sensor == null) return;
+        long seq;
+        lock.lock();
+        try {
+            if (!sensors.add(sensor)) {
+                return;
+            }
+            seq = enqueue(sensor.getSensorId(), new SensorWrite(sensor, false));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public void removeSensor(Sensor sensor){
+        if (sensor == null) return;
+        long seq;
+        lock.lock();
+        try {
+            if (sensors.remove(sensor.getSensorId()) == null) {
+                return;
+            }
+            seq = enqueue(sensor.getSensorId(), new SensorWrite(sensor, true));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public void updateSensor(Sensor sensor){
+        if (sensor == null) return;
+        long seq;
+        lock.lock();
+        try {
+            if (!sensors.update(sensor)) {
+                log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+                return;
+            }
+            seq = enqueue(sensor.getSensorId(), new SensorWrite(sensor, false));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public void updateSensors(Collection<Sensor> sensors){
+        if (sensors == null) return;
+        Map<UUID, SensorWrite> writes = new LinkedHashMap<>();
+        long seq;
+        lock.lock();
+        try {
+            for (Sensor sensor : sensors) {
+                if (sensor != null && this.sensors.update(sensor)) {
+                    writes.put(sensor.getSensorId(), new SensorWrite(sensor, false));
+                } else if (sensor != null) {
+                    log.warn("Attempted to update sensor not found in the set: {}", sensor.getName());
+                }
+            }
+            if (writes.isEmpty()) {
+                return;
+            }
+            seq = enqueue(writes);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public void setAlarmStatus(AlarmStatus alarmStatus){
+        if (alarmStatus == null) return;
+        long seq;
+        lock.lock();
+        try {
+            if (this.alarmStatus == alarmStatus) {
+                return;
+            }
+            this.alarmStatus = alarmStatus;
+            seq = enqueue(ALARM_STATUS, alarmStatus);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus){
+        if (armingStatus == null) return;
+        long seq;
+        lock.lock();
+        try {
+            if (this.armingStatus == armingStatus) {
+                return;
+            }
+            this.armingStatus = armingStatus;
+            seq = enqueue(ARMING_STATUS, armingStatus);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurability(seq);
+    }
+    @Override
+    public Set<Sensor> getSensors(){
+        lock.lock();
+        try {
+            return Set.copyOf(sensors.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public int getActiveSensorCount(){
+        lock.lock();
+        try {
+            return sensors.getActiveCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public int getActiveSensorCount(SensorType sensorType){
+        lock.lock();
+        try {
+            return sensors.getActiveCount(sensorType);
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public Sensor getSensor(UUID sensorId){
+        lock.lock();
+        try {
+            return sensors.get(sensorId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public List<Sensor> getSortedSensors(){
+        lock.lock();
+        try {
+            return sensors.sortedCopy();
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public SecurityState getState(){
+        lock.lock();
+        try {
+            return new SecurityState(alarmStatus, armingStatus, Set.copyOf(sensors.values()), sensors.sortedCopy(), sensors.getActiveCount());
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public AlarmStatus getAlarmStatus(){
+        lock.lock();
+        try {
+            return alarmStatus;
+        } finally {
+            lock.unlock();
+        }
+    }
+    @Override
+    public ArmingStatus getArmingStatus(){
+        lock.lock();
+        try {
+            return armingStatus;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the background thread after a final flush and closes the delegate if it is closeable.
+     * Throws the delegate's failure if the final flush could not commit.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            if (delegate instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private record SensorWrite(Sensor sensor, boolean removed) { }
+}
@@ -0,0 +1,397 @@
+package com.udacity.catpoint.net;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.SecurityState;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.service.SecurityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serial;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP control API for {@link SecurityService}, on the JDK's built-in server. Every body is
+ * JSON, read and written with Gson's streaming reader and writer, so no intermediate object trees
+ * or strings are built: requests are parsed straight from the exchange and responses are written
+ * into a buffer reused by each worker thread.
+ *
+ * <pre>
+ * GET  /api/status                 alarm and arming status, active sensor count, cameras seeing a cat
+ * PUT  /api/arming                 {"armingStatus": "ARMED_HOME"}
+ * GET  /api/sensors                sensors in display order
+ * PUT  /api/sensors/{id}           {"active": true}
+ * POST /api/images?camera={id}     an encoded image; answers whether the camera now sees a cat
+ * GET  /api/events                 server-sent events: alarm, cat and sensors
+ * </pre>
+ *
+ * Requests run on a fixed pool of worker threads. An event stream does not hold a worker: each
+ * subscriber is a {@link StatusListener} and writes from the listener's own delivery mailbox, so
+ * a slow subscriber only delays itself and skips to the latest status.
+ *
+ * The JDK server leaves Nagle's algorithm on unless the JVM is started with
+ * {@code -Dsun.net.httpserver.nodelay=true}, or the property is set before the first server is
+ * created, and a response's body then waits for the client's delayed ACK of its headers, about
+ * 40 ms. {@link com.udacity.catpoint.application.CatpointServer#main} sets it unless it is given.
+ */
+public final class ControlApiServer implements Closeable {
+    public static final int DEFAULT_THREADS = 16;
+    private static final Logger log = LoggerFactory.getLogger(ControlApiServer.class);
+    private static final ThreadLocal<ResponseBuffer> RESPONSE_BUFFER = ThreadLocal.withInitial(ResponseBuffer::new);
+
+    private final SecurityService securityService;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final Set<EventStream> eventStreams = ConcurrentHashMap.newKeySet();
+
+    public ControlApiServer(SecurityService securityService, InetSocketAddress address) throws IOException {
+        this(securityService, address, DEFAULT_THREADS);
+    }
+
+    public ControlApiServer(SecurityService securityService, InetSocketAddress address, int threads) throws IOException {
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "catpoint-http-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(workers);
+        server.createContext("/api/status", exchange -> handle(exchange, this::status));
+        server.createContext("/api/arming", exchange -> handle(exchange, this::arming));
+        server.createContext("/api/sensors", exchange -> handle(exchange, this::sensors));
+        server.createContext("/api/images", exchange -> handle(exchange, this::images));
+        server.createContext("/api/events", exchange -> handle(exchange, this::events));
+    }
+
+    public void start() {
+        server.start();
+        log.info("Control API listening on {}", getLocalAddress());
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Number of open event streams.
+     */
+    public int getEventStreamCount() {
+        return eventStreams.size();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) {
+        try {
+            handler.handle(exchange);
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (MalformedJsonException | EOFException e) {
+            sendError(exchange, 400, "Malformed JSON body");
+        } catch (IOException e) {
+            log.debug("Control API request failed", e);
+            exchange.close();
+        } catch (RuntimeException e) {
+            log.warn("Control API request failed", e);
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    private void status(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        respondWithStatus(exchange);
+    }
+
+    private void respondWithStatus(HttpExchange exchange) throws IOException {
+        SecurityState state = securityService.getState();
+        Set<String> camerasDetectingCat = securityService.getCamerasDetectingCat();
+        respond(exchange, 200, json -> writeStatus(json, state, camerasDetectingCat));
+    }
+
+    private void arming(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "PUT");
+        ArmingStatus armingStatus = null;
+        try (JsonReader body = readJson(exchange)) {
+            body.beginObject();
+            while (body.hasNext()) {
+                if (body.nextName().equals("armingStatus")) {
+                    armingStatus = ArmingStatus.valueOf(body.nextString().toUpperCase(Locale.ROOT));
+                } else {
+                    body.skipValue();
+                }
+            }
+            body.endObject();
+        }
+        if (armingStatus == null) {
+            throw new ApiException(400, "armingStatus is required");
+        }
+        securityService.setArmingStatus(armingStatus);
+        respondWithStatus(exchange);
+    }
+
+    private void sensors(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(Math.min(path.length(), "/api/sensors/".length()));
+        if (id.isEmpty()) {
+            requireMethod(exchange, "GET");
+            List<Sensor> sensors = securityService.getSortedSensors();
+            respond(exchange, 200, json -> {
+                json.beginArray();
+                for (Sensor sensor : sensors) {
+                    writeSensor(json, sensor);
+                }
+                json.endArray();
+            });
+            return;
+        }
+        requireMethod(exchange, "PUT");
+        UUID sensorId = UUID.fromString(id);
+        Sensor sensor = securityService.getSensors().stream()
+                .filter(candidate -> sensorId.equals(candidate.getSensorId()))
+                .findFirst()
+                .orElseThrow(() -> new ApiException(404, "No sensor " + sensorId));
+        Boolean active = null;
+        try (JsonReader body = readJson(exchange)) {
+            body.beginObject();
+            while (body.hasNext()) {
+                if (body.nextName().equals("active")) {
+                    active = body.nextBoolean();
+                } else {
+                    body.skipValue();
+                }
+            }
+            body.endObject();
+        }
+        if (active == null) {
+            throw new ApiException(400, "active is required");
+        }
+        securityService.changeSensorActivationStatus(sensor, active);
+        respond(exchange, 200, json -> writeSensor(json, sensor));
+    }
+
+    private void images(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        String camera = queryParameter(exchange.getRequestURI(), "camera");
+        String cameraId = camera == null ? SecurityService.DEFAULT_CAMERA : camera;
+        BufferedImage image;
+        try (var body = exchange.getRequestBody()) {
+            image = ImageIO.read(body);
+        }
+        if (image == null) {
+            throw new ApiException(415, "Body is not a readable image");
+        }
+        securityService.processImage(cameraId, image);
+        boolean catDetected = securityService.getCamerasDetectingCat().contains(cameraId);
+        respond(exchange, 200, json -> json.beginObject().name("camera").value(cameraId).name("catDetected").value(catDetected).endObject());
+    }
+
+    private void events(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        EventStream stream = new EventStream(exchange);
+        eventStreams.add(stream);
+        stream.send("status", json -> writeStatus(json, securityService.getState(), securityService.getCamerasDetectingCat()));
+        securityService.addStatusListener(stream);
+    }
+
+    private static void writeStatus(JsonWriter json, SecurityState state, Set<String> camerasDetectingCat) throws IOException {
+        json.beginObject()
+                .name("alarmStatus").value(state.alarmStatus().name())
+                .name("armingStatus").value(state.armingStatus().name())
+                .name("activeSensors").value(state.activeSensorCount());
+        json.name("camerasDetectingCat").beginArray();
+        for (String camera : camerasDetectingCat) {
+            json.value(camera);
+        }
+        json.endArray().endObject();
+    }
+
+    private static void writeSensor(JsonWriter json, Sensor sensor) throws IOException {
+        json.beginObject()
+                .name("id").value(sensor.getSensorId().toString())
+                .name("name").value(sensor.getName())
+                .name("type").value(sensor.getSensorType() == null ? null : sensor.getSensorType().name())
+                .name("active").value(Boolean.TRUE.equals(sensor.getActive()))
+                .endObject();
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new ApiException(405, "Use " + method);
+        }
+    }
+
+    private static JsonReader readJson(HttpExchange exchange) {
+        return new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the body into this worker's reusable buffer and sends it with its length, so the
+     * response leaves in one write rather than as a run of small chunks.
+     */
+    private static void respond(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        ResponseBuffer buffer = RESPONSE_BUFFER.get();
+        buffer.reset();
+        JsonWriter json = new JsonWriter(buffer.writer);
+        body.write(json);
+        json.flush();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, buffer.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            buffer.writeTo(out);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            respond(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+        } catch (IOException e) {
+            log.debug("Failed to send error response", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops accepting requests, ends every event stream and waits up to a second for requests in
+     * progress.
+     */
+    @Override
+    public void close() {
+        eventStreams.forEach(EventStream::close);
+        server.stop(1);
+        workers.shutdownNow();
+    }
+
+    private static final class ApiException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static final class ResponseBuffer extends ByteArrayOutputStream {
+        private final Writer writer = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+
+        private ResponseBuffer() {
+            super(1024);
+        }
+    }
+
+    /**
+     * One subscriber to {@code /api/events}. Closed when a write fails, which is how a subscriber
+     * going away is noticed.
+     */
+    private final class EventStream implements StatusListener {
+        private final HttpExchange exchange;
+        private final Writer writer;
+
+        private EventStream(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void notify(AlarmStatus status) {
+            send("alarm", json -> json.beginObject().name("alarmStatus").value(status.name()).endObject());
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            send("cat", json -> json.beginObject().name("catDetected").value(catDetected).endObject());
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+            send("sensors", json -> json.beginObject().name("activeSensors").value(securityService.getState().activeSensorCount()).endObject());
+        }
+
+        private synchronized void send(String event, JsonBody body) {
+            try {
+                writer.write("event: ");
+                writer.write(event);
+                writer.write("\ndata: ");
+                JsonWriter json = new JsonWriter(writer);
+                body.write(json);
+                json.flush();
+                writer.write("\n\n");
+                writer.flush();
+            } catch (IOException e) {
+                log.debug("Event stream closed", e);
+                close();
+            }
+        }
+
+        private void close() {
+            if (eventStreams.remove(this)) {
+                securityService.removeStatusListener(this);
+                exchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.udacity.catpoint.net;
+
+import com.udacity.catpoint.data.ReplicatedSecurityRepository;
+import com.udacity.catpoint.data.ReplicationRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams the mutations of a {@link ReplicatedSecurityRepository} to {@link StandbyReplica}s over
+ * TCP. Each standby gets a thread that sends it the records after the sequence number it reports
+ * on connecting, then every new record as it is made, in batches of whatever accumulated while
+ * the previous batch was written. When there is nothing to send a heartbeat carrying the latest
+ * sequence number goes out instead, so a standby knows how far behind it is and can tell a quiet
+ * primary from a dead one. Standbys acknowledge what they have applied, which gives the
+ * replication lag as seen from here.
+ *
+ * Replication is asynchronous: a mutation returns on the primary before any standby has it, and
+ * mutations not yet applied by a standby are lost if the primary dies.
+ */
+public final class ReplicationServer implements Closeable {
+    static final int MAGIC = 0x43525031;
+    static final byte VERSION = 1;
+    static final char HEARTBEAT = 'K';
+    static final long HEARTBEAT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final int MAX_PAYLOAD = 64 << 20;
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_BATCH = 512;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Logger log = LoggerFactory.getLogger(ReplicationServer.class);
+
+    private final ReplicatedSecurityRepository repository;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final Set<Standby> standbys = new CopyOnWriteArraySet<>();
+    private final AtomicInteger standbyNumber = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private volatile boolean closed;
+
+    public ReplicationServer(ReplicatedSecurityRepository repository, InetSocketAddress address) throws IOException {
+        this.repository = Objects.requireNonNull(repository, "ReplicatedSecurityRepository cannot be null");
+        this.serverSocket = new ServerSocket();
+        try {
+            serverSocket.bind(address);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        this.acceptor = new Thread(this::accept, "catpoint-replication");
+        this.acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        acceptor.start();
+        log.info("Serving replication on {}", getLocalAddress());
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Standby standby = new Standby(socket);
+                standbys.add(standby);
+                Thread sender = new Thread(standby::run, "catpoint-replication-" + standbyNumber.incrementAndGet());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.error("Replication server stopped", e);
+                }
+                return;
+            }
+        }
+    }
+
+    static void writeFrame(DataOutputStream out, char type, long sequence, long timestampMicros, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(type);
+        out.writeLong(sequence);
+        out.writeLong(timestampMicros);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private final class Standby {
+        private final Socket socket;
+        private final SocketAddress remote;
+        private volatile long acknowledged = -1;
+
+        Standby(Socket socket) {
+            this.socket = socket;
+            this.remote = socket.getRemoteSocketAddress();
+        }
+
+        void run() {
+            try (socket) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                    log.warn("Closing replication connection from {} after a bad handshake", remote);
+                    return;
+                }
+                long epoch = in.readLong();
+                long applied = in.readLong();
+                socket.setSoTimeout(0);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(repository.getEpoch());
+                out.flush();
+                long next = epoch == repository.getEpoch() ? applied : -1;
+                log.info("Standby {} connected, replicating from sequence {}", remote, next);
+                while (!closed) {
+                    List<ReplicationRecord> records = repository.awaitRecordsAfter(next, MAX_BATCH, HEARTBEAT_INTERVAL_NANOS);
+                    if (records.isEmpty()) {
+                        writeFrame(out, HEARTBEAT, repository.getSequence(), SensorEventServer.epochMicros(), "");
+                    }
+                    for (ReplicationRecord record : records) {
+                        writeFrame(out, record.type(), record.sequence(), record.timestampMicros(), record.payload());
+                        next = record.sequence();
+                    }
+                    out.flush();
+                    sent.add(records.size());
+                    while (in.available() >= Long.BYTES) {
+                        acknowledged = in.readLong();
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Standby {} disconnected: {}", remote, e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                standbys.remove(this);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close replication connection", e);
+            }
+        }
+    }
+
+    /**
+     * Number of standbys connected.
+     */
+    public int getStandbyCount() {
+        return standbys.size();
+    }
+
+    /**
+     * Number of records sent to standbys, counting a full-state record as one.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Latest sequence number every connected standby has acknowledged applying, or -1 if there is
+     * no standby or one has not acknowledged anything yet.
+     */
+    public long getAcknowledgedSequence() {
+        long acknowledged = Long.MAX_VALUE;
+        for (Standby standby : standbys) {
+            acknowledged = Math.min(acknowledged, standby.acknowledged);
+        }
+        return acknowledged == Long.MAX_VALUE ? -1 : acknowledged;
+    }
+
+    /**
+     * Stops accepting standbys and disconnects the connected ones.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        serverSocket.close();
+        for (Standby standby : standbys) {
+            standby.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.udacity.catpoint.net;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * The binary sensor event frame. Every frame is {@value #FRAME_SIZE} bytes in network byte order:
+ *
+ * <pre>
+ *  0  magic        short  0x4353
+ *  2  version      byte   1
+ *  3  flags        byte   bit 0 set when the sensor is active
+ *  4  reserved     int    0
+ *  8  sensor id    long   most significant bits of the UUID
+ * 16  sensor id    long   least significant bits of the UUID
+ * 24  timestamp    long   when the sensor reported, in microseconds since the epoch
+ * </pre>
+ *
+ * A TCP connection carries any number of frames back to back; a UDP datagram carries one or more
+ * whole frames.
+ */
+public final class SensorEventCodec {
+    public static final int FRAME_SIZE = 32;
+    public static final short MAGIC = 0x4353;
+    public static final byte VERSION = 1;
+    private static final int FLAG_ACTIVE = 1;
+
+    private SensorEventCodec() {
+    }
+
+    public static void encode(ByteBuffer buffer, UUID sensorId, boolean active, long timestampMicros) {
+        buffer.putShort(MAGIC)
+                .put(VERSION)
+                .put((byte) (active ? FLAG_ACTIVE : 0))
+                .putInt(0)
+                .putLong(sensorId.getMostSignificantBits())
+                .putLong(sensorId.getLeastSignificantBits())
+                .putLong(timestampMicros);
+    }
+
+    /**
+     * Hands every whole frame between the buffer's position and limit to the handler, reading the
+     * fields in place so nothing is allocated, and leaves the position after the last frame read.
+     *
+     * @return false if a frame has the wrong magic or version, with the position left at that
+     *         frame
+     */
+    public static boolean decode(ByteBuffer buffer, SensorEventHandler handler) {
+        while (buffer.remaining() >= FRAME_SIZE) {
+            int at = buffer.position();
+            if (buffer.getShort(at) != MAGIC || buffer.get(at + 2) != VERSION) {
+                return false;
+            }
+            handler.onSensorEvent(buffer.getLong(at + 8), buffer.getLong(at + 16),
+                    (buffer.get(at + 3) & FLAG_ACTIVE) != 0, buffer.getLong(at + 24));
+            buffer.position(at + FRAME_SIZE);
+        }
+        return true;
+    }
+}
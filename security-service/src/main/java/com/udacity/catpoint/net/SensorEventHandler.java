@@ -0,0 +1,9 @@
+package com.udacity.catpoint.net;
+
+/**
+ * Receives decoded sensor events field by field, so decoding needs no object per event.
+ */
+@FunctionalInterface
+public interface SensorEventHandler {
+    void onSensorEvent(long sensorIdHigh, long sensorIdLow, boolean active, long timestampMicros);
+}
@@ -0,0 +1,327 @@
+package com.udacity.catpoint.net;
+
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.service.SecurityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Accepts sensor events in {@link SensorEventCodec} frames over TCP and UDP on the same port and
+ * forwards them to {@link SecurityService#changeSensorActivationStatusAsync}. One selector thread
+ * serves every connection. Each TCP connection reads into a pooled direct buffer and frames are
+ * decoded in place, so a steady stream of events allocates nothing until it reaches the service.
+ *
+ * Known sensor ids are kept in a table taken from the service, which is refreshed at most once a
+ * second when an unknown id arrives. The table holds ids only: each event is applied to the sensor
+ * as the repository holds it when the event runs, so changes made through other paths, such as
+ * arming, are never overwritten with stale state. When more than the in-flight limit of events are waiting
+ * on the service, the server stops reading until half of them have been applied. TCP senders
+ * then block on their socket buffers, and datagrams that arrive meanwhile are left to the kernel,
+ * which discards them once its receive buffer is full.
+ *
+ * Latency is measured from the frame's timestamp to when the service has applied the event, so it
+ * is only meaningful when the sender's clock agrees with this machine's.
+ */
+public final class SensorEventServer implements Closeable {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    private static final int BUFFER_SIZE = 128 * SensorEventCodec.FRAME_SIZE;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    private static final int MAX_DATAGRAMS_PER_WAKEUP = 64;
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Logger log = LoggerFactory.getLogger(SensorEventServer.class);
+
+    private final SecurityService securityService;
+    private final int maxInFlight;
+    private final Selector selector;
+    private final ServerSocketChannel tcp;
+    private final DatagramChannel udp;
+    private final ByteBufferPool buffers = new ByteBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final ByteBuffer datagram = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final SensorTable sensors = new SensorTable(); // only touched on the selector thread
+    private final SensorEventHandler forwarder = this::forward;
+    private final Consumer<SelectionKey> keyHandler = this::handle;
+    private final Thread thread;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder unknownSensor = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LatencyHistogram latencyMicros = new LatencyHistogram();
+    private long lastRefreshNanos;
+    private volatile boolean paused;
+    private volatile boolean closed;
+
+    public SensorEventServer(SecurityService securityService, InetSocketAddress address) throws IOException {
+        this(securityService, address, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Binds both channels. With port 0 the TCP port is picked by the system and UDP binds the same.
+     */
+    public SensorEventServer(SecurityService securityService, InetSocketAddress address, int maxInFlight) throws IOException {
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        if (maxInFlight <= 1) {
+            throw new IllegalArgumentException("In-flight limit must be greater than one");
+        }
+        this.maxInFlight = maxInFlight;
+        this.selector = Selector.open();
+        this.tcp = ServerSocketChannel.open();
+        this.udp = DatagramChannel.open();
+        try {
+            tcp.bind(address);
+            udp.bind(new InetSocketAddress(address.getAddress(), getLocalAddress().getPort()));
+            tcp.configureBlocking(false);
+            udp.configureBlocking(false);
+            tcp.register(selector, SelectionKey.OP_ACCEPT);
+            udp.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "catpoint-sensor-server");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        log.info("Accepting sensor events on {}", getLocalAddress());
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) tcp.socket().getLocalSocketAddress();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select(keyHandler);
+                if (paused && inFlight.get() <= maxInFlight / 2) {
+                    setReading(true);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.error("Sensor event server stopped", e);
+            }
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.channel() == udp) {
+                readDatagrams();
+            } else {
+                readStream(key);
+            }
+        } catch (IOException e) {
+            log.debug("Closing sensor connection", e);
+            closeConnection(key);
+        }
+        if (!paused && inFlight.get() >= maxInFlight) {
+            setReading(false);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = tcp.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, paused ? 0 : SelectionKey.OP_READ, buffers.acquire());
+    }
+
+    private void readDatagrams() throws IOException {
+        for (int i = 0; i < MAX_DATAGRAMS_PER_WAKEUP && !paused; i++) {
+            datagram.clear();
+            if (udp.receive(datagram) == null) {
+                return;
+            }
+            datagram.flip();
+            if (!SensorEventCodec.decode(datagram, forwarder) || datagram.hasRemaining()) {
+                malformed.increment();
+            }
+        }
+    }
+
+    private void readStream(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        if (channel.read(buffer) < 0) {
+            closeConnection(key);
+            return;
+        }
+        buffer.flip();
+        boolean valid = SensorEventCodec.decode(buffer, forwarder);
+        buffer.compact();
+        if (!valid) {
+            malformed.increment();
+            log.warn("Closing sensor connection from {} after a malformed frame", channel.getRemoteAddress());
+            closeConnection(key);
+        }
+    }
+
+    private void forward(long sensorIdHigh, long sensorIdLow, boolean active, long timestampMicros) {
+        received.increment();
+        UUID sensorId = sensors.get(sensorIdHigh, sensorIdLow);
+        if (sensorId == null && refreshSensors()) {
+            sensorId = sensors.get(sensorIdHigh, sensorIdLow);
+        }
+        if (sensorId == null) {
+            unknownSensor.increment();
+            return;
+        }
+        inFlight.incrementAndGet();
+        securityService.changeSensorActivationStatusAsync(sensorId, active).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                applied.increment();
+                latencyMicros.record(epochMicros() - timestampMicros);
+            } else {
+                failed.increment();
+                log.warn("Failed to apply sensor event", failure);
+            }
+            if (inFlight.decrementAndGet() <= maxInFlight / 2 && paused) {
+                selector.wakeup();
+            }
+        });
+    }
+
+    private boolean refreshSensors() {
+        long now = System.nanoTime();
+        if (lastRefreshNanos != 0 && now - lastRefreshNanos < REFRESH_INTERVAL_NANOS) {
+            return false;
+        }
+        lastRefreshNanos = now;
+        sensors.rebuild(securityService.getSensors());
+        return true;
+    }
+
+    private void setReading(boolean reading) {
+        paused = !reading;
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.channel() != tcp) {
+                key.interestOps(reading ? SelectionKey.OP_READ : 0);
+            }
+        }
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        if (key.attachment() instanceof ByteBuffer buffer) {
+            buffers.release(buffer);
+        }
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Failed to close sensor connection", e);
+        }
+    }
+
+    private void closeChannels() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.channel() instanceof SocketChannel) {
+                closeConnection(key);
+            }
+        }
+        try {
+            tcp.close();
+            udp.close();
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Failed to close sensor event server", e);
+        }
+    }
+
+    static long epochMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+
+    /**
+     * Number of well-formed events decoded.
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * Number of events the service has applied.
+     */
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+
+    /**
+     * Number of events the service failed to apply.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Number of events naming a sensor the service does not have.
+     */
+    public long getUnknownSensorCount() {
+        return unknownSensor.sum();
+    }
+
+    /**
+     * Number of connections closed or datagrams discarded for holding a malformed frame.
+     */
+    public long getMalformedCount() {
+        return malformed.sum();
+    }
+
+    /**
+     * Latency from the sensor's timestamp until the event was applied, at the given percentile
+     * between 0 and 1.
+     */
+    public Duration getLatencyPercentile(double percentile) {
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros.percentile(percentile)));
+    }
+
+    /**
+     * Stops accepting events and closes every connection. Events already forwarded are still
+     * applied by the service.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (thread.isAlive()) {
+            selector.wakeup();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            closeChannels();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.udacity.catpoint.net;
+
+import com.udacity.catpoint.data.Sensor;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Maps the two halves of a sensor id to the id itself without building a {@link UUID}, using open
+ * addressing over parallel arrays. Only ids are kept, never sensors, so the state of a sensor is
+ * always read from the repository. Replaced wholesale by {@link #rebuild}. Not thread-safe.
+ */
+final class SensorTable {
+    private long[] highs = new long[0];
+    private long[] lows = new long[0];
+    private UUID[] ids = new UUID[0];
+    private int mask = -1;
+
+    void rebuild(Collection<Sensor> all) {
+        int capacity = Integer.highestOneBit(Math.max(4, all.size() * 2 - 1)) << 1;
+        long[] newHighs = new long[capacity];
+        long[] newLows = new long[capacity];
+        UUID[] newIds = new UUID[capacity];
+        int newMask = capacity - 1;
+        for (Sensor sensor : all) {
+            UUID id = sensor.getSensorId();
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            int slot = slot(high, low, newMask);
+            while (newIds[slot] != null) {
+                slot = (slot + 1) & newMask;
+            }
+            newHighs[slot] = high;
+            newLows[slot] = low;
+            newIds[slot] = id;
+        }
+        highs = newHighs;
+        lows = newLows;
+        ids = newIds;
+        mask = newMask;
+    }
+
+    UUID get(long high, long low) {
+        if (mask < 0) {
+            return null;
+        }
+        for (int slot = slot(high, low, mask); ids[slot] != null; slot = (slot + 1) & mask) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return ids[slot];
+            }
+        }
+        return null;
+    }
+
+    private static int slot(long high, long low, int mask) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
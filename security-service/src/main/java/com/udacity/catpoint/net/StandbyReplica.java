@@ -0,0 +1,288 @@
+package com.udacity.catpoint.net;
+
+import com.udacity.catpoint.data.ReplicationRecord;
+import com.udacity.catpoint.data.SecurityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows a primary's {@link ReplicationServer} and applies every record it streams to a
+ * repository of its own, reconnecting whenever the connection drops. On reconnecting it asks for
+ * the records after the last one it applied, so a short outage is caught up from the primary's
+ * backlog; after a longer one, or when the primary was restarted, it is sent the full state.
+ * Applied sequence numbers are acknowledged back to the primary.
+ *
+ * {@link #promote} turns the standby into the holder of the state: it waits a bounded time for
+ * records already on their way to be applied, stops following and hands over the repository.
+ * Nothing fences the old primary, so it must be gone before the repository is written to.
+ *
+ * Lag is measured from when the primary made a mutation until it was applied here, so it is only
+ * meaningful when both machines' clocks agree, as they do for two nodes on one host.
+ */
+public final class StandbyReplica implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final int READ_TIMEOUT_MILLIS = (int) (TimeUnit.NANOSECONDS.toMillis(ReplicationServer.HEARTBEAT_INTERVAL_NANOS) * 10);
+    private static final long RECONNECT_DELAY_MILLIS = 200;
+    private static final long ACK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Logger log = LoggerFactory.getLogger(StandbyReplica.class);
+
+    private final SecurityRepository repository;
+    private final InetSocketAddress primary;
+    private final Thread thread;
+    private final Object progress = new Object();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder fullStates = new LongAdder();
+    private final LatencyHistogram lagMicros = new LatencyHistogram();
+    private long epoch; // only touched on the replication thread
+    private volatile long appliedSequence = -1;
+    private volatile long primarySequence = -1;
+    private volatile long lastContactNanos;
+    private volatile Socket socket;
+    private volatile boolean connected;
+    private volatile boolean closed;
+
+    public StandbyReplica(SecurityRepository repository, InetSocketAddress primary) {
+        this.repository = Objects.requireNonNull(repository, "SecurityRepository cannot be null");
+        this.primary = Objects.requireNonNull(primary, "Primary address cannot be null");
+        this.thread = new Thread(this::run, "catpoint-standby");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        log.info("Following primary at {}", primary);
+    }
+
+    private void run() {
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(primary, CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+                follow(connection);
+            } catch (IOException | RuntimeException e) {
+                if (closed) {
+                    break;
+                } else if (connected) {
+                    log.warn("Lost primary at {}: {}", primary, e.toString());
+                } else {
+                    log.debug("Cannot reach primary at {}: {}", primary, e.toString());
+                }
+            } finally {
+                setConnected(false);
+            }
+            synchronized (progress) {
+                try {
+                    if (!closed) {
+                        progress.wait(RECONNECT_DELAY_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        out.writeInt(ReplicationServer.MAGIC);
+        out.writeByte(ReplicationServer.VERSION);
+        out.writeLong(epoch);
+        out.writeLong(appliedSequence);
+        out.flush();
+        if (in.readInt() != ReplicationServer.MAGIC || in.readByte() != ReplicationServer.VERSION) {
+            throw new IOException("Bad replication handshake from " + primary);
+        }
+        long primaryEpoch = in.readLong();
+        if (primaryEpoch != epoch) {
+            primarySequence = -1;
+        }
+        setConnected(true);
+        long lastAckNanos = System.nanoTime();
+        while (!closed) {
+            char type = (char) in.readUnsignedByte();
+            long sequence = in.readLong();
+            long timestampMicros = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > ReplicationServer.MAX_PAYLOAD) {
+                throw new IOException("Replication frame of " + length + " bytes");
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (type != ReplicationServer.HEARTBEAT) {
+                try {
+                    new ReplicationRecord(sequence, timestampMicros, type, new String(payload, StandardCharsets.UTF_8)).applyTo(repository);
+                } catch (RuntimeException e) {
+                    // Start over from the full state rather than diverge from the primary.
+                    epoch = 0;
+                    appliedSequence = -1;
+                    throw e;
+                }
+                if (type == ReplicationRecord.FULL_STATE) {
+                    fullStates.increment();
+                }
+                epoch = primaryEpoch;
+                appliedSequence = sequence;
+                applied.increment();
+                lagMicros.record(SensorEventServer.epochMicros() - timestampMicros);
+            }
+            primarySequence = Math.max(primarySequence, sequence);
+            long now = System.nanoTime();
+            lastContactNanos = now;
+            // Acknowledge once caught up with what has arrived, and periodically under a steady stream.
+            if (in.available() == 0 || now - lastAckNanos >= ACK_INTERVAL_NANOS) {
+                lastAckNanos = now;
+                out.writeLong(appliedSequence);
+                out.flush();
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void setConnected(boolean connected) {
+        this.connected = connected;
+        if (connected) {
+            lastContactNanos = System.nanoTime();
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until the standby has been connected to the primary and then heard nothing from it,
+     * not even a heartbeat, for the given time.
+     */
+    public void awaitPrimaryLoss(Duration silence) throws InterruptedException {
+        long silenceNanos = silence.toNanos();
+        synchronized (progress) {
+            while (true) {
+                long last = lastContactNanos;
+                long waited = System.nanoTime() - last;
+                if (last != 0 && waited >= silenceNanos) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progress, last == 0 ? silenceNanos : silenceNanos - waited);
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code catchUp} for every record the primary is known to have sent to be
+     * applied, then stops following it and returns the repository, which the caller now owns.
+     * Records still missing after that are lost, and are logged.
+     */
+    public SecurityRepository promote(Duration catchUp) throws InterruptedException {
+        long deadline = System.nanoTime() + catchUp.toNanos();
+        synchronized (progress) {
+            long remaining = deadline - System.nanoTime();
+            while (connected && appliedSequence < primarySequence && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        close();
+        long missing = getLag();
+        if (missing > 0) {
+            log.warn("Promoted with {} records from the primary not applied", missing);
+        }
+        log.info("Promoted standby at sequence {}", appliedSequence);
+        return repository;
+    }
+
+    /**
+     * Whether the standby is connected to the primary.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Sequence number of the last record applied, or -1 if none was.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Latest sequence number the primary reported, or -1 if it has not reported any.
+     */
+    public long getPrimarySequence() {
+        return primarySequence;
+    }
+
+    /**
+     * Number of records the primary has reported that are not applied here.
+     */
+    public long getLag() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    /**
+     * Number of records applied, including full-state records.
+     */
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+
+    /**
+     * Number of times the full state was received rather than a catch-up from the backlog.
+     */
+    public long getFullStateCount() {
+        return fullStates.sum();
+    }
+
+    /**
+     * Time from a mutation on the primary until it was applied here, at the given percentile
+     * between 0 and 1.
+     */
+    public Duration getLagPercentile(double percentile) {
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(lagMicros.percentile(percentile)));
+    }
+
+    /**
+     * Stops following the primary. The repository is left open.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Failed to close replication connection", e);
+            }
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.udacity.catpoint.service;
+
+import com.udacity.catpoint.data.ArmingStatus;
+
+/**
+ * Events that can move the alarm state machine.
+ */
+public enum AlarmEvent {
+    /** An inactive sensor became active. */
+    SENSOR_ACTIVATED,
+    /** An already active sensor reported active again. */
+    SENSOR_REACTIVATED,
+    /** An active sensor became inactive. */
+    SENSOR_DEACTIVATED,
+    /** An inactive sensor reported inactive again. */
+    SENSOR_UNCHANGED,
+    CAT_DETECTED,
+    NO_CAT_DETECTED,
+    ARMED_HOME,
+    ARMED_AWAY,
+    DISARMED,
+    /** Explicit re-evaluation of the sensors. */
+    SENSORS_CHECKED;
+
+    public boolean isSensorEvent() {
+        return this == SENSOR_ACTIVATED || this == SENSOR_REACTIVATED || this == SENSOR_DEACTIVATED || this == SENSOR_UNCHANGED;
+    }
+
+    public static AlarmEvent forSensorChange(boolean wasActive, boolean isActive) {
+        if (isActive) {
+            return wasActive ? SENSOR_REACTIVATED : SENSOR_ACTIVATED;
+        }
+        return wasActive ? SENSOR_DEACTIVATED : SENSOR_UNCHANGED;
+    }
+
+    public static AlarmEvent forArmingStatus(ArmingStatus armingStatus) {
+        return switch (armingStatus) {
+            case ARMED_HOME -> ARMED_HOME;
+            case ARMED_AWAY -> ARMED_AWAY;
+            case DISARMED -> DISARMED;
+        };
+    }
+}
@@ -0,0 +1,268 @@
+package com.udacity.catpoint.service;
+
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.SensorType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alarm state machine compiled into a transition table indexed by
+ * (alarm status, arming status, event, cat detected, any sensor active). The table is built once
+ * from a declarative, first-match-wins rule list; looking up a transition is index arithmetic and
+ * one array read.
+ * <p>
+ * Sensor types can be restricted to count only in some arming modes, e.g. motion sensors that only
+ * count while {@link ArmingStatus#ARMED_AWAY}. A sensor that does not count is still stored but its
+ * events never move the alarm, and it is left out of the "any sensor active" check. While
+ * {@link ArmingStatus#DISARMED} every sensor counts.
+ */
+public final class AlarmRules {
+    private static final AlarmStatus[] ALARM_STATUSES = AlarmStatus.values();
+    private static final ArmingStatus[] ARMING_STATUSES = ArmingStatus.values();
+    private static final AlarmEvent[] EVENTS = AlarmEvent.values();
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+    private static final byte NO_CHANGE = -1;
+    private static final byte IGNORE = -2;
+    private static final Set<AlarmEvent> SENSOR_EVENTS = EnumSet.of(AlarmEvent.SENSOR_ACTIVATED,
+            AlarmEvent.SENSOR_REACTIVATED, AlarmEvent.SENSOR_DEACTIVATED, AlarmEvent.SENSOR_UNCHANGED);
+    private static final AlarmRules STANDARD = standardBuilder().build();
+
+    private final byte[] table;
+    private final boolean[] counts;
+    private final boolean typeRestricted;
+
+    private AlarmRules(byte[] table, boolean[] counts) {
+        this.table = table;
+        this.counts = counts;
+        boolean restricted = false;
+        for (boolean c : counts) {
+            restricted |= !c;
+        }
+        this.typeRestricted = restricted;
+    }
+
+    /**
+     * The rules the system has always applied.
+     */
+    public static AlarmRules standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Builder pre-populated with the standard rules, for adding sensor type restrictions.
+     */
+    public static Builder standardBuilder() {
+        return builder()
+                .on(SENSOR_EVENTS).whenAlarm(AlarmStatus.ALARM).ignore()
+                .on(AlarmEvent.SENSOR_ACTIVATED, AlarmEvent.SENSOR_REACTIVATED).whenArming(ArmingStatus.DISARMED).keep()
+                .on(AlarmEvent.SENSOR_ACTIVATED).whenAlarm(AlarmStatus.PENDING_ALARM).set(AlarmStatus.ALARM)
+                .on(AlarmEvent.SENSOR_ACTIVATED).set(AlarmStatus.PENDING_ALARM)
+                .on(AlarmEvent.SENSOR_REACTIVATED).set(AlarmStatus.ALARM)
+                .on(AlarmEvent.SENSOR_DEACTIVATED, AlarmEvent.SENSORS_CHECKED).whenAlarm(AlarmStatus.PENDING_ALARM).whenNoSensorActive().set(AlarmStatus.NO_ALARM)
+                .on(AlarmEvent.CAT_DETECTED).whenArming(ArmingStatus.ARMED_HOME).set(AlarmStatus.ALARM)
+                .on(AlarmEvent.NO_CAT_DETECTED).whenAlarm(AlarmStatus.NO_ALARM, AlarmStatus.PENDING_ALARM).whenNoSensorActive().set(AlarmStatus.NO_ALARM)
+                .on(AlarmEvent.ARMED_HOME).whenCatDetected().set(AlarmStatus.ALARM)
+                .on(AlarmEvent.DISARMED).set(AlarmStatus.NO_ALARM);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static int index(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event, boolean catDetected, boolean anySensorActive) {
+        int i = alarmStatus.ordinal();
+        i = i * ARMING_STATUSES.length + armingStatus.ordinal();
+        i = i * EVENTS.length + event.ordinal();
+        i = i * 2 + (catDetected ? 1 : 0);
+        return i * 2 + (anySensorActive ? 1 : 0);
+    }
+
+    /**
+     * @return the alarm status to set, or null if the event leaves the alarm unchanged
+     */
+    public AlarmStatus next(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event, boolean catDetected, boolean anySensorActive) {
+        byte outcome = table[index(alarmStatus, armingStatus, event, catDetected, anySensorActive)];
+        return outcome < 0 ? null : ALARM_STATUSES[outcome];
+    }
+
+    /**
+     * @return true if the event must be dropped entirely, without even storing the sensor change
+     */
+    public boolean ignores(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event, boolean catDetected, boolean anySensorActive) {
+        return table[index(alarmStatus, armingStatus, event, catDetected, anySensorActive)] == IGNORE;
+    }
+
+    /**
+     * @return true if the outcome differs depending on whether any sensor is active, so callers
+     * only need to count active sensors when it matters
+     */
+    public boolean dependsOnActivity(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event, boolean catDetected) {
+        int idle = index(alarmStatus, armingStatus, event, catDetected, false);
+        return table[idle] != table[idle + 1];
+    }
+
+    /**
+     * @return true if sensors of this type take part in the alarm rules in this arming mode
+     */
+    public boolean counts(SensorType sensorType, ArmingStatus armingStatus) {
+        return sensorType == null || counts[sensorType.ordinal() * ARMING_STATUSES.length + armingStatus.ordinal()];
+    }
+
+    /**
+     * @return true if any sensor type is restricted to some arming modes
+     */
+    public boolean isTypeRestricted() {
+        return typeRestricted;
+    }
+
+    public static final class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+        private final boolean[] counts = new boolean[SENSOR_TYPES.length * ARMING_STATUSES.length];
+
+        private Builder() {
+            Arrays.fill(counts, true);
+        }
+
+        public RuleBuilder on(AlarmEvent first, AlarmEvent... rest) {
+            return new RuleBuilder(this, EnumSet.of(first, rest));
+        }
+
+        public RuleBuilder on(Set<AlarmEvent> events) {
+            return new RuleBuilder(this, EnumSet.copyOf(events));
+        }
+
+        /**
+         * Restricts sensors of the given type to count only in the given arming modes.
+         */
+        public Builder onlyCount(SensorType sensorType, ArmingStatus first, ArmingStatus... rest) {
+            Set<ArmingStatus> armed = EnumSet.of(first, rest);
+            for (ArmingStatus armingStatus : ARMING_STATUSES) {
+                counts[sensorType.ordinal() * ARMING_STATUSES.length + armingStatus.ordinal()] =
+                        armingStatus == ArmingStatus.DISARMED || armed.contains(armingStatus);
+            }
+            return this;
+        }
+
+        public AlarmRules build() {
+            byte[] table = new byte[ALARM_STATUSES.length * ARMING_STATUSES.length * EVENTS.length * 4];
+            for (AlarmStatus alarmStatus : ALARM_STATUSES) {
+                for (ArmingStatus armingStatus : ARMING_STATUSES) {
+                    for (AlarmEvent event : EVENTS) {
+                        for (int flags = 0; flags < 4; flags++) {
+                            boolean catDetected = (flags & 2) != 0;
+                            boolean anySensorActive = (flags & 1) != 0;
+                            byte outcome = NO_CHANGE;
+                            for (Rule rule : rules) {
+                                if (rule.matches(alarmStatus, armingStatus, event, catDetected, anySensorActive)) {
+                                    outcome = rule.outcome;
+                                    break;
+                                }
+                            }
+                            table[index(alarmStatus, armingStatus, event, catDetected, anySensorActive)] = outcome;
+                        }
+                    }
+                }
+            }
+            return new AlarmRules(table, counts.clone());
+        }
+    }
+
+    /**
+     * Collects the conditions of one rule; unset conditions match anything.
+     */
+    public static final class RuleBuilder {
+        private final Builder owner;
+        private final Set<AlarmEvent> events;
+        private Set<AlarmStatus> alarmStatuses = EnumSet.allOf(AlarmStatus.class);
+        private Set<ArmingStatus> armingStatuses = EnumSet.allOf(ArmingStatus.class);
+        private Boolean catDetected;
+        private Boolean anySensorActive;
+
+        private RuleBuilder(Builder owner, Set<AlarmEvent> events) {
+            this.owner = owner;
+            this.events = events;
+        }
+
+        public RuleBuilder whenAlarm(AlarmStatus first, AlarmStatus... rest) {
+            alarmStatuses = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public RuleBuilder whenArming(ArmingStatus first, ArmingStatus... rest) {
+            armingStatuses = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public RuleBuilder whenCatDetected() {
+            catDetected = Boolean.TRUE;
+            return this;
+        }
+
+        public RuleBuilder whenNoCatDetected() {
+            catDetected = Boolean.FALSE;
+            return this;
+        }
+
+        public RuleBuilder whenAnySensorActive() {
+            anySensorActive = Boolean.TRUE;
+            return this;
+        }
+
+        public RuleBuilder whenNoSensorActive() {
+            anySensorActive = Boolean.FALSE;
+            return this;
+        }
+
+        /** Moves the alarm to the given status. */
+        public Builder set(AlarmStatus target) {
+            return add((byte) target.ordinal());
+        }
+
+        /** Leaves the alarm unchanged and stops rule matching. */
+        public Builder keep() {
+            return add(NO_CHANGE);
+        }
+
+        /** Drops the event entirely. */
+        public Builder ignore() {
+            return add(IGNORE);
+        }
+
+        private Builder add(byte outcome) {
+            owner.rules.add(new Rule(events, alarmStatuses, armingStatuses, catDetected, anySensorActive, outcome));
+            return owner;
+        }
+    }
+
+    private static final class Rule {
+        private final Set<AlarmEvent> events;
+        private final Set<AlarmStatus> alarmStatuses;
+        private final Set<ArmingStatus> armingStatuses;
+        private final Boolean catDetected;
+        private final Boolean anySensorActive;
+        private final byte outcome;
+
+        private Rule(Set<AlarmEvent> events, Set<AlarmStatus> alarmStatuses, Set<ArmingStatus> armingStatuses,
+                     Boolean catDetected, Boolean anySensorActive, byte outcome) {
+            this.events = events;
+            this.alarmStatuses = alarmStatuses;
+            this.armingStatuses = armingStatuses;
+            this.catDetected = catDetected;
+            this.anySensorActive = anySensorActive;
+            this.outcome = outcome;
+        }
+
+        private boolean matches(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event, boolean cat, boolean anyActive) {
+            return events.contains(event)
+                    && alarmStatuses.contains(alarmStatus)
+                    && armingStatuses.contains(armingStatus)
+                    && (catDetected == null || catDetected == cat)
+                    && (anySensorActive == null || anySensorActive == anyActive);
+        }
+    }
+}
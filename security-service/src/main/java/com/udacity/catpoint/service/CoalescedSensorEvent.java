@@ -0,0 +1,10 @@
+package com.udacity.catpoint.service;
+
+import com.udacity.catpoint.data.Sensor;
+
+/**
+ * What remains of a burst of events for one sensor: whether it was reported active at least once,
+ * and the state it was last reported in.
+ */
+record CoalescedSensorEvent(Sensor sensor, boolean activated, boolean active) {
+}
@@ -4,115 +4,372 @@ import com.udacity.catpoint.application.StatusListener;
 import com.udacity.catpoint.data.AlarmStatus;
 import com.udacity.catpoint.data.ArmingStatus;
 import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.SecurityState;
 import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.image.CameraImageService;
 import com.udacity.catpoint.image.ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.Objects;
 
+/**
+ * Applies the alarm rules, which are looked up in a compiled {@link AlarmRules} table. Every state-changing command runs on a single event-loop thread, so
+ * the decision logic sees a consistent view of the repository without locking. The
+ * {@code *Async} methods return as soon as the command is queued; the plain methods wait for it.
+ * Listeners are notified asynchronously through a {@link StatusListenerDispatcher}.
+ */
 public final class SecurityService {
+    public static final float CAT_CONFIDENCE_THRESHOLD = 50.0f;
+    public static final String DEFAULT_CAMERA = CameraImageService.DEFAULT_CAMERA;
+    private static final Logger log = LoggerFactory.getLogger(SecurityService.class);
+
     private final SecurityRepository securityRepository;
     private final ImageService imageService;
-    private final Set<StatusListener> statusListeners = ConcurrentHashMap.newKeySet();
+    private final AlarmRules alarmRules;
+    private final StatusListenerDispatcher statusListeners = new StatusListenerDispatcher();
+    private final ThreadLocal<Boolean> onEventLoop = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final ExecutorService eventLoop;
+    private final AtomicLong imageSequence = new AtomicLong();
+    private final Map<String, CameraState> cameras = new HashMap<>(); // only touched on the event loop
     private volatile boolean catDetected = false;
+    private volatile Set<String> camerasDetectingCat = Set.of(); // replaced on the event loop
 
     public SecurityService(SecurityRepository securityRepository, ImageService imageService) {
+        this(securityRepository, imageService, AlarmRules.standard());
+    }
+
+    public SecurityService(SecurityRepository securityRepository, ImageService imageService, AlarmRules alarmRules) {
         this.securityRepository = Objects.requireNonNull(securityRepository, "SecurityRepository cannot be null");
         this.imageService = Objects.requireNonNull(imageService, "ImageService cannot be null");
+        this.alarmRules = Objects.requireNonNull(alarmRules, "AlarmRules cannot be null");
+        // A single thread that is allowed to time out keeps commands serialized without pinning a thread per idle service.
+        ThreadPoolExecutor loop = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(() -> {
+                onEventLoop.set(Boolean.TRUE);
+                r.run();
+            }, "catpoint-security-loop");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loop.allowCoreThreadTimeOut(true);
+        this.eventLoop = loop;
+    }
+
+    private CompletableFuture<Void> submit(Runnable command) {
+        if (onEventLoop.get()) {
+            command.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(command, eventLoop);
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     public void setArmingStatus(ArmingStatus armingStatus) {
+        await(setArmingStatusAsync(armingStatus));
+    }
+
+    public CompletableFuture<Void> setArmingStatusAsync(ArmingStatus armingStatus) {
         Objects.requireNonNull(armingStatus, "ArmingStatus cannot be null");
+        return submit(() -> applyArmingStatus(armingStatus));
+    }
 
+    private void applyArmingStatus(ArmingStatus armingStatus) {
         if (armingStatus != ArmingStatus.DISARMED) {
             deactivateAllSensors();
-            if (armingStatus == ArmingStatus.ARMED_HOME && catDetected) {
-                setAlarmStatus(AlarmStatus.ALARM);
-            }
-        } else {
-            setAlarmStatus(AlarmStatus.NO_ALARM);
         }
+        applyTransition(AlarmEvent.forArmingStatus(armingStatus));
         securityRepository.setArmingStatus(armingStatus);
     }
 
     private void deactivateAllSensors() {
+        boolean armed = getArmingStatus() != ArmingStatus.DISARMED;
+        List<Sensor> changed = new ArrayList<>();
         getSensors().forEach(sensor -> {
             boolean wasActive = sensor.getActive();
-            sensor.setActive(false);
-            if (wasActive || getArmingStatus() != ArmingStatus.DISARMED) {
-                securityRepository.updateSensor(sensor);
+            if (wasActive || armed) {
+                changed.add(withActive(sensor, false));
             }
         });
+        if (!changed.isEmpty()) {
+            securityRepository.updateSensors(changed);
+            statusListeners.sensorStatusChanged();
+        }
     }
 
     public void changeSensorActivationStatus(Sensor sensor, Boolean active) {
+        await(changeSensorActivationStatusAsync(sensor, active));
+    }
+
+    public CompletableFuture<Void> changeSensorActivationStatusAsync(Sensor sensor, Boolean active) {
         Objects.requireNonNull(sensor, "Sensor cannot be null");
         Objects.requireNonNull(active, "Active status cannot be null");
+        return submit(() -> applySensorActivation(sensor, active));
+    }
 
-        if (getAlarmStatus() == AlarmStatus.ALARM) {
+    /**
+     * Changes the activation of the sensor with the given id as the repository holds it when the
+     * command runs, for callers such as network feeds that know sensors only by id. The returned
+     * future fails with {@link IllegalArgumentException} if no such sensor is stored.
+     */
+    public CompletableFuture<Void> changeSensorActivationStatusAsync(UUID sensorId, boolean active) {
+        Objects.requireNonNull(sensorId, "Sensor id cannot be null");
+        return submit(() -> {
+            Sensor sensor = securityRepository.getSensor(sensorId);
+            if (sensor == null) {
+                throw new IllegalArgumentException("Unknown sensor " + sensorId);
+            }
+            applySensorActivation(sensor, active);
+        });
+    }
+
+    private void applySensorActivation(Sensor sensor, boolean active) {
+        AlarmStatus alarmStatus = currentAlarmStatus();
+        ArmingStatus armingStatus = currentArmingStatus();
+        boolean wasActive = sensor.getActive();
+        AlarmEvent event = AlarmEvent.forSensorChange(wasActive, active);
+        if (alarmRules.ignores(alarmStatus, armingStatus, event, catDetected, anySensorActive(alarmStatus, armingStatus, event))) {
             return;
         }
 
-        boolean wasActive = sensor.getActive();
-        sensor.setActive(active);
-        securityRepository.updateSensor(sensor);
+        securityRepository.updateSensor(withActive(sensor, active));
+        statusListeners.sensorStatusChanged();
 
-        handleSensorStateChange(wasActive, active);
+        if (alarmRules.counts(sensor.getSensorType(), armingStatus)) {
+            applyTransition(alarmStatus, armingStatus, event);
+        }
     }
 
-    private void handleSensorStateChange(boolean wasActive, boolean isActive) {
-        AlarmStatus alarmStatus = getAlarmStatus();
+    /**
+     * The sensor with the given active flag. A sensor the caller may change is changed in place, so
+     * callers holding it see the change; an immutable view from the repository is copied.
+     */
+    private static Sensor withActive(Sensor sensor, boolean active) {
+        Sensor target = sensor.isImmutable() ? new Sensor(sensor) : sensor;
+        target.setActive(active);
+        return target;
+    }
+
+    /**
+     * Applies a coalesced burst of sensor events as one command. A sensor reported active whose
+     * activation would move the alarm is applied on its own so the rules see that edge; all other
+     * changes are written with one {@link SecurityRepository#updateSensors} call and evaluated once
+     * per kind of change.
+     */
+    CompletableFuture<Void> applySensorEventsAsync(Collection<CoalescedSensorEvent> events) {
+        return submit(() -> applySensorEvents(events));
+    }
 
-        if (isActive) {
-            handleSensorActivation(alarmStatus, wasActive);
-        } else if (wasActive) {
-            handleSensorDeactivation(alarmStatus);
+    private void applySensorEvents(Collection<CoalescedSensorEvent> events) {
+        ArmingStatus armingStatus = currentArmingStatus();
+        List<Sensor> changed = new ArrayList<>();
+        Set<AlarmEvent> transitions = EnumSet.noneOf(AlarmEvent.class);
+        for (CoalescedSensorEvent event : events) {
+            Sensor sensor = event.sensor();
+            boolean counts = alarmRules.counts(sensor.getSensorType(), armingStatus);
+            if (event.activated() && counts && activationMovesAlarm(sensor, armingStatus)) {
+                applySensorActivation(sensor, true);
+            }
+            boolean wasActive = sensor.getActive();
+            if (wasActive == event.active()) {
+                continue;
+            }
+            AlarmStatus alarmStatus = currentAlarmStatus();
+            AlarmEvent change = AlarmEvent.forSensorChange(wasActive, event.active());
+            if (alarmRules.ignores(alarmStatus, armingStatus, change, catDetected, anySensorActive(alarmStatus, armingStatus, change))) {
+                continue;
+            }
+            changed.add(withActive(sensor, event.active()));
+            if (counts) {
+                transitions.add(change);
+            }
         }
+        if (!changed.isEmpty()) {
+            securityRepository.updateSensors(changed);
+            statusListeners.sensorStatusChanged();
+        }
+        for (AlarmEvent transition : transitions) {
+            applyTransition(transition);
+        }
+    }
+
+    private boolean activationMovesAlarm(Sensor sensor, ArmingStatus armingStatus) {
+        AlarmStatus alarmStatus = currentAlarmStatus();
+        AlarmEvent event = AlarmEvent.forSensorChange(sensor.getActive(), true);
+        return alarmRules.next(alarmStatus, armingStatus, event, catDetected, false) != null
+                || alarmRules.next(alarmStatus, armingStatus, event, catDetected, true) != null;
     }
 
-    private void handleSensorActivation(AlarmStatus alarmStatus, boolean wasActive) {
-        if (getArmingStatus() == ArmingStatus.DISARMED) return;
+    public void processImage(BufferedImage image) {
+        processImage(DEFAULT_CAMERA, image);
+    }
+
+    /**
+     * Classifies a frame from the given camera and applies the result. Each camera keeps its own
+     * cat state; a cat counts as detected while any camera's latest result reports one. An image
+     * service that keeps per-camera state, such as motion gating, is told which camera it is.
+     */
+    public void processImage(String cameraId, BufferedImage image) {
+        Objects.requireNonNull(cameraId, "Camera id cannot be null");
+        if (image == null) return;
+
+        long sequence = imageSequence.incrementAndGet();
+        boolean detected = imageService instanceof CameraImageService cameraImageService
+                ? cameraImageService.imageContainsCat(cameraId, image, CAT_CONFIDENCE_THRESHOLD)
+                : imageService.imageContainsCat(image, CAT_CONFIDENCE_THRESHOLD);
+        await(submit(() -> applyCatDetection(cameraId, sequence, detected)));
+    }
+
+    public CompletableFuture<Void> processImageAsync(BufferedImage image) {
+        return processImageAsync(DEFAULT_CAMERA, image);
+    }
 
-        if (alarmStatus == AlarmStatus.PENDING_ALARM || wasActive) {
-            setAlarmStatus(AlarmStatus.ALARM);
-        } else {
-            setAlarmStatus(AlarmStatus.PENDING_ALARM);
+    /**
+     * Classifies the image through the image service's asynchronous API and then applies the
+     * result on the event loop, so neither the caller nor other commands wait for the classifier.
+     * If the classification fails the returned future fails and the cat state is left alone.
+     */
+    public CompletableFuture<Void> processImageAsync(String cameraId, BufferedImage image) {
+        Objects.requireNonNull(cameraId, "Camera id cannot be null");
+        if (image == null) return CompletableFuture.completedFuture(null);
+
+        long sequence = imageSequence.incrementAndGet();
+        CompletableFuture<Boolean> classification = imageService instanceof CameraImageService cameraImageService
+                ? cameraImageService.imageContainsCatAsync(cameraId, image, CAT_CONFIDENCE_THRESHOLD)
+                : imageService.imageContainsCatAsync(image, CAT_CONFIDENCE_THRESHOLD);
+        return classification
+                .thenCompose(detected -> submit(() -> applyCatDetection(cameraId, sequence, detected)))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Image classification failed for camera {}: {}", cameraId, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Results can complete out of order; one for an image older than the camera's last applied
+     * result is dropped so it never overwrites a newer one.
+     */
+    private void applyCatDetection(String cameraId, long sequence, boolean detected) {
+        CameraState camera = cameras.computeIfAbsent(cameraId, id -> new CameraState());
+        if (sequence < camera.appliedSequence) {
+            return;
         }
+        camera.appliedSequence = sequence;
+        camera.catDetected = detected;
+        applyCatState();
+    }
+
+    private void applyCatState() {
+        camerasDetectingCat = cameras.entrySet().stream()
+                .filter(camera -> camera.getValue().catDetected)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        catDetected = !camerasDetectingCat.isEmpty();
+        applyTransition(catDetected ? AlarmEvent.CAT_DETECTED : AlarmEvent.NO_CAT_DETECTED);
+        notifyCatDetection();
     }
 
-    private void handleSensorDeactivation(AlarmStatus alarmStatus) {
-        if (alarmStatus == AlarmStatus.PENDING_ALARM) {
-            checkSensorsAndUpdateStatus();
+    /**
+     * Forgets a camera that went away, so a cat it last reported no longer counts.
+     */
+    public void removeCamera(String cameraId) {
+        Objects.requireNonNull(cameraId, "Camera id cannot be null");
+        if (imageService instanceof CameraImageService cameraImageService) {
+            cameraImageService.removeCamera(cameraId);
         }
+        await(submit(() -> {
+            CameraState camera = cameras.remove(cameraId);
+            if (camera != null && camera.catDetected) {
+                applyCatState();
+            }
+        }));
     }
 
-    public void processImage(BufferedImage image) {
-        if (image == null) return;
+    /**
+     * Cameras whose latest result reported a cat, as of the last applied result.
+     */
+    public Set<String> getCamerasDetectingCat() {
+        return camerasDetectingCat;
+    }
 
-        catDetected = imageService.imageContainsCat(image, 50.0f);
-        evaluateCatDetection();
+    private static final class CameraState {
+        private long appliedSequence;
+        private boolean catDetected;
     }
 
-    private void evaluateCatDetection() {
-        if (catDetected && getArmingStatus() == ArmingStatus.ARMED_HOME) {
-            setAlarmStatus(AlarmStatus.ALARM);
-        } else if (!catDetected && allSensorsInactive()) {
-            if (getAlarmStatus() != AlarmStatus.ALARM) {
-                setAlarmStatus(AlarmStatus.NO_ALARM);
+    private void applyTransition(AlarmEvent event) {
+        applyTransition(currentAlarmStatus(), currentArmingStatus(), event);
+    }
+
+    private void applyTransition(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event) {
+        AlarmStatus next = alarmRules.next(alarmStatus, armingStatus, event, catDetected,
+                anySensorActive(alarmStatus, armingStatus, event));
+        if (next != null) {
+            applyAlarmStatus(next);
+        }
+    }
+
+    /**
+     * Counts active sensors only when the rule table says the outcome depends on it, and then
+     * only the sensor types that count in the current arming mode.
+     */
+    private boolean anySensorActive(AlarmStatus alarmStatus, ArmingStatus armingStatus, AlarmEvent event) {
+        if (!alarmRules.dependsOnActivity(alarmStatus, armingStatus, event, catDetected)) {
+            return false;
+        }
+        if (!alarmRules.isTypeRestricted()) {
+            return securityRepository.getActiveSensorCount() > 0;
+        }
+        for (SensorType sensorType : SensorType.values()) {
+            if (alarmRules.counts(sensorType, armingStatus) && securityRepository.getActiveSensorCount(sensorType) > 0) {
+                return true;
             }
         }
-        notifyCatDetection();
+        return false;
+    }
+
+    private AlarmStatus currentAlarmStatus() {
+        AlarmStatus alarmStatus = securityRepository.getAlarmStatus();
+        return alarmStatus == null ? AlarmStatus.NO_ALARM : alarmStatus;
     }
 
-    private boolean allSensorsInactive() {
-        return getSensors().stream().noneMatch(Sensor::getActive);
+    private ArmingStatus currentArmingStatus() {
+        ArmingStatus armingStatus = securityRepository.getArmingStatus();
+        return armingStatus == null ? ArmingStatus.DISARMED : armingStatus;
     }
 
     private void notifyCatDetection() {
-        statusListeners.forEach(listener -> listener.catDetected(catDetected));
+        statusListeners.catDetected(catDetected);
     }
 
     public AlarmStatus getAlarmStatus() {
@@ -123,14 +380,28 @@ public final class SecurityService {
         return Collections.unmodifiableSet(securityRepository.getSensors());
     }
 
+    public SecurityState getState() {
+        return securityRepository.getState();
+    }
+
+    public List<Sensor> getSortedSensors() {
+        return securityRepository.getSortedSensors();
+    }
+
     public void addSensor(Sensor sensor) {
         Objects.requireNonNull(sensor, "Sensor cannot be null");
-        securityRepository.addSensor(sensor);
+        await(submit(() -> {
+            securityRepository.addSensor(sensor);
+            statusListeners.sensorStatusChanged();
+        }));
     }
 
     public void removeSensor(Sensor sensor) {
         Objects.requireNonNull(sensor, "Sensor cannot be null");
-        securityRepository.removeSensor(sensor);
+        await(submit(() -> {
+            securityRepository.removeSensor(sensor);
+            statusListeners.sensorStatusChanged();
+        }));
     }
 
     public ArmingStatus getArmingStatus() {
@@ -139,23 +410,29 @@ public final class SecurityService {
 
     public void addStatusListener(StatusListener statusListener) {
         Objects.requireNonNull(statusListener, "StatusListener cannot be null");
-        statusListeners.add(statusListener);
+        statusListeners.addListener(statusListener);
     }
 
     public void removeStatusListener(StatusListener statusListener) {
         Objects.requireNonNull(statusListener, "StatusListener cannot be null");
-        statusListeners.remove(statusListener);
+        statusListeners.removeListener(statusListener);
     }
 
     public void setAlarmStatus(AlarmStatus status) {
         Objects.requireNonNull(status, "AlarmStatus cannot be null");
+        await(submit(() -> applyAlarmStatus(status)));
+    }
+
+    private void applyAlarmStatus(AlarmStatus status) {
         securityRepository.setAlarmStatus(status);
-        statusListeners.forEach(listener -> listener.notify(status));
+        statusListeners.alarmStatusChanged(status);
     }
 
     public void checkSensorsAndUpdateStatus() {
-        if (getAlarmStatus() == AlarmStatus.PENDING_ALARM && allSensorsInactive()) {
-            setAlarmStatus(AlarmStatus.NO_ALARM);
-        }
+        await(submit(this::applySensorCheck));
+    }
+
+    private void applySensorCheck() {
+        applyTransition(AlarmEvent.SENSORS_CHECKED);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.udacity.catpoint.service;
+
+import com.udacity.catpoint.data.Sensor;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Batches sensor events in front of {@link SecurityService}. Events for the same sensor that
+ * arrive within one window are coalesced to the last reported state, plus a flag recording that
+ * the sensor was reported active at some point, so a flapping sensor still raises the alarm while
+ * armed. At the end of the window everything that accumulated is applied as one command with a
+ * single repository write.
+ */
+public final class SensorEventIngester implements Closeable {
+    private final SecurityService securityService;
+    private final long windowNanos;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private Map<UUID, Pending> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    public SensorEventIngester(SecurityService securityService, Duration window) {
+        this.securityService = Objects.requireNonNull(securityService, "SecurityService cannot be null");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive");
+        }
+        this.windowNanos = window.toNanos();
+        this.flusher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "catpoint-sensor-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.setKeepAliveTime(1, TimeUnit.SECONDS);
+        this.flusher.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Records a sensor report. Safe to call from any thread; never blocks on the service.
+     */
+    public void submit(Sensor sensor, boolean active) {
+        Objects.requireNonNull(sensor, "Sensor cannot be null");
+        received.increment();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Ingester is closed");
+            }
+            Pending entry = pending.computeIfAbsent(sensor.getSensorId(), id -> new Pending());
+            entry.sensor = sensor;
+            entry.activated |= active;
+            entry.active = active;
+            if (!flushScheduled) {
+                flushScheduled = true;
+                flusher.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Applies everything received so far without waiting for the window to close.
+     */
+    public CompletableFuture<Void> flush() {
+        Map<UUID, Pending> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CoalescedSensorEvent> events = new ArrayList<>(batch.size());
+        for (Pending entry : batch.values()) {
+            events.add(new CoalescedSensorEvent(entry.sensor, entry.activated, entry.active));
+        }
+        applied.add(events.size());
+        return securityService.applySensorEventsAsync(events);
+    }
+
+    /**
+     * Number of events submitted.
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * Number of coalesced events handed to the service.
+     */
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+
+    /**
+     * Applies whatever is pending and stops accepting events.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdownNow();
+        flush().join();
+    }
+
+    private static final class Pending {
+        private Sensor sensor;
+        private boolean activated;
+        private boolean active;
+    }
+}
@@ -0,0 +1,147 @@
+package com.udacity.catpoint.service;
+
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.AlarmStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers {@link StatusListener} notifications off the caller's thread. Each listener has its own
+ * mailbox that at most one delivery thread drains at a time, so a slow listener only delays
+ * itself. A mailbox holds one slot per kind of notification with the latest value of that kind,
+ * so it never holds more than three and never discards a kind outright: a listener that falls
+ * behind skips straight to the latest alarm status or cat result, but always gets them.
+ */
+public final class StatusListenerDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusListenerDispatcher.class);
+
+    private final Map<StatusListener, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService deliveryThreads;
+    private final LongAdder coalesced = new LongAdder();
+
+    public StatusListenerDispatcher() {
+        this.deliveryThreads = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "catpoint-listener-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addListener(StatusListener listener) {
+        mailboxes.computeIfAbsent(listener, Mailbox::new);
+    }
+
+    public void removeListener(StatusListener listener) {
+        Mailbox mailbox = mailboxes.remove(listener);
+        if (mailbox != null) {
+            mailbox.clear();
+        }
+    }
+
+    public void alarmStatusChanged(AlarmStatus status) {
+        publish(Kind.ALARM_STATUS, status);
+    }
+
+    public void catDetected(boolean catDetected) {
+        publish(Kind.CAT_DETECTED, catDetected);
+    }
+
+    public void sensorStatusChanged() {
+        publish(Kind.SENSOR_STATUS, null);
+    }
+
+    /**
+     * Number of notifications replaced by a later one of the same kind before they were delivered.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private void publish(Kind kind, Object value) {
+        for (Mailbox mailbox : mailboxes.values()) {
+            mailbox.offer(kind, value);
+        }
+    }
+
+    private enum Kind {
+        ALARM_STATUS, CAT_DETECTED, SENSOR_STATUS
+    }
+
+    private final class Mailbox implements Runnable {
+        private final StatusListener listener;
+        private final ArrayDeque<Kind> pending = new ArrayDeque<>(Kind.values().length);
+        private final Object[] latest = new Object[Kind.values().length];
+        private boolean draining;
+
+        private Mailbox(StatusListener listener) {
+            this.listener = listener;
+        }
+
+        private void offer(Kind kind, Object value) {
+            synchronized (this) {
+                if (pending.contains(kind)) {
+                    coalesced.increment();
+                } else {
+                    pending.addLast(kind);
+                }
+                latest[kind.ordinal()] = value;
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            deliveryThreads.execute(this);
+        }
+
+        private synchronized void clear() {
+            pending.clear();
+            Arrays.fill(latest, null);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Kind next;
+                Object value;
+                synchronized (this) {
+                    next = pending.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    value = latest[next.ordinal()];
+                    latest[next.ordinal()] = null;
+                }
+                try {
+                    switch (next) {
+                        case ALARM_STATUS -> listener.notify((AlarmStatus) value);
+                        case CAT_DETECTED -> listener.catDetected((Boolean) value);
+                        case SENSOR_STATUS -> listener.sensorStatusChanged();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Status listener {} failed: {}", listener, e.getMessage(), e);
+                } catch (Error e) {
+                    // The error ends this delivery thread; anything still pending goes to a new one.
+                    boolean more;
+                    synchronized (this) {
+                        more = !pending.isEmpty();
+                        draining = more;
+                    }
+                    if (more) {
+                        deliveryThreads.execute(this);
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+}
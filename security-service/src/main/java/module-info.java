@@ -6,6 +6,8 @@ module com.udacity.catpoint {
     requires com.google.common;
     requires com.google.gson;
     requires java.sql;
+    requires jdk.httpserver;
+    requires com.h2database;
     requires org.slf4j;
     opens com.udacity.catpoint.data to com.google.gson;
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.camera.AdaptiveSamplingScheduler;
+import com.udacity.catpoint.camera.SamplingPolicy;
+import com.udacity.catpoint.data.AlarmStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSamplingSchedulerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean sensorsActive = new AtomicBoolean();
+
+    private AdaptiveSamplingScheduler scheduler(int maxCallsPerMinute) {
+        return new AdaptiveSamplingScheduler(new SamplingPolicy(0.2, 5, Duration.ofSeconds(30), maxCallsPerMinute),
+                sensorsActive::get, clock::get);
+    }
+
+    /**
+     * Offers the camera a frame every 100 ms for the given time and returns how many were sampled.
+     */
+    private int feed(AdaptiveSamplingScheduler scheduler, String camera, int seconds) {
+        int sampled = 0;
+        for (int i = 0; i < seconds * 10; i++) {
+            if (scheduler.trySample(camera)) {
+                sampled++;
+            }
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        return sampled;
+    }
+
+    @Test
+    void quietPeriod_samplesAtIdleRate() {
+        AdaptiveSamplingScheduler scheduler = scheduler(1000);
+
+        assertEquals(12, feed(scheduler, "garden", 60));
+        assertEquals(588, scheduler.getSkippedCount("garden"));
+    }
+
+    @Test
+    void activeSensorOrPendingAlarm_samplesAtActiveRate() {
+        AdaptiveSamplingScheduler scheduler = scheduler(1000);
+
+        sensorsActive.set(true);
+        scheduler.sensorStatusChanged();
+        assertEquals(50, feed(scheduler, "garden", 10));
+
+        sensorsActive.set(false);
+        scheduler.sensorStatusChanged();
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(30));
+        scheduler.notify(AlarmStatus.PENDING_ALARM);
+        assertEquals(5.0, scheduler.getCurrentRate());
+    }
+
+    @Test
+    void afterActivity_rateDecaysTowardsIdle() {
+        AdaptiveSamplingScheduler scheduler = scheduler(1000);
+
+        scheduler.catDetected(true);
+        assertEquals(5.0, scheduler.getCurrentRate(), 1e-9);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(2.6, scheduler.getCurrentRate(), 1e-9);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertEquals(0.2, scheduler.getCurrentRate(), 1e-3);
+    }
+
+    @Test
+    void callBudget_capsSustainedSampling() {
+        AdaptiveSamplingScheduler scheduler = scheduler(30);
+        sensorsActive.set(true);
+        scheduler.sensorStatusChanged();
+
+        int sampled = feed(scheduler, "garden", 120);
+
+        // A full bucket of 30, plus 30 per minute refilled over the two minutes.
+        assertTrue(sampled >= 87 && sampled <= 90, "sampled " + sampled);
+        assertTrue(scheduler.getOverBudgetCount("garden") > 0);
+        assertEquals(0, scheduler.getCallCount("hall"));
+    }
+}
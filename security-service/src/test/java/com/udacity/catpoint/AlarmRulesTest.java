@@ -0,0 +1,94 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.service.AlarmEvent;
+import com.udacity.catpoint.service.AlarmRules;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlarmRulesTest {
+
+    private static final String IGNORED = "ignored";
+
+    @Mock private ImageService imageService;
+
+    /**
+     * The nested conditionals the service applied before the rules were compiled into a table.
+     */
+    private static Object legacy(AlarmStatus alarm, ArmingStatus arming, AlarmEvent event, boolean cat, boolean anyActive) {
+        if (event.isSensorEvent() && alarm == AlarmStatus.ALARM) {
+            return IGNORED;
+        }
+        return switch (event) {
+            case SENSOR_ACTIVATED -> arming == ArmingStatus.DISARMED ? null
+                    : alarm == AlarmStatus.PENDING_ALARM ? AlarmStatus.ALARM : AlarmStatus.PENDING_ALARM;
+            case SENSOR_REACTIVATED -> arming == ArmingStatus.DISARMED ? null : AlarmStatus.ALARM;
+            case SENSOR_DEACTIVATED, SENSORS_CHECKED -> alarm == AlarmStatus.PENDING_ALARM && !anyActive ? AlarmStatus.NO_ALARM : null;
+            case SENSOR_UNCHANGED, ARMED_AWAY -> null;
+            case CAT_DETECTED -> arming == ArmingStatus.ARMED_HOME ? AlarmStatus.ALARM : null;
+            case NO_CAT_DETECTED -> !anyActive && alarm != AlarmStatus.ALARM ? AlarmStatus.NO_ALARM : null;
+            case ARMED_HOME -> cat ? AlarmStatus.ALARM : null;
+            case DISARMED -> AlarmStatus.NO_ALARM;
+        };
+    }
+
+    @Test
+    void standardTable_matchesLegacyRulesForEveryInput() {
+        AlarmRules rules = AlarmRules.standard();
+        for (AlarmStatus alarm : AlarmStatus.values()) {
+            for (ArmingStatus arming : ArmingStatus.values()) {
+                for (AlarmEvent event : AlarmEvent.values()) {
+                    for (boolean cat : new boolean[]{false, true}) {
+                        for (boolean anyActive : new boolean[]{false, true}) {
+                            Object expected = legacy(alarm, arming, event, cat, anyActive);
+                            String input = alarm + "/" + arming + "/" + event + "/cat=" + cat + "/active=" + anyActive;
+                            assertEquals(expected == IGNORED, rules.ignores(alarm, arming, event, cat, anyActive), input);
+                            if (expected != IGNORED) {
+                                assertEquals(expected, rules.next(alarm, arming, event, cat, anyActive), input);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void motionOnlyWhileAway_isStoredButDoesNotTripAlarmWhenArmedHome() {
+        AlarmRules rules = AlarmRules.standardBuilder()
+                .onlyCount(SensorType.MOTION, ArmingStatus.ARMED_AWAY)
+                .build();
+        assertFalse(rules.counts(SensorType.MOTION, ArmingStatus.ARMED_HOME));
+        assertTrue(rules.counts(SensorType.MOTION, ArmingStatus.DISARMED));
+
+        try (SqlSecurityRepositoryImpl repository = new SqlSecurityRepositoryImpl("jdbc:h2:mem:alarm-rules")) {
+            SecurityService securityService = new SecurityService(repository, imageService, rules);
+            Sensor motion = new Sensor("Hall", SensorType.MOTION);
+            Sensor door = new Sensor("Front", SensorType.DOOR);
+            securityService.addSensor(motion);
+            securityService.addSensor(door);
+
+            securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+            securityService.changeSensorActivationStatus(motion, true);
+            assertTrue(repository.getSensors().stream().anyMatch(Sensor::getActive));
+            assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+
+            securityService.changeSensorActivationStatus(door, true);
+            assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+            // The motion sensor is still active but does not count at home, so the alarm clears.
+            securityService.changeSensorActivationStatus(door, false);
+            assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+
+            securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            securityService.changeSensorActivationStatus(motion, true);
+            assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+        }
+    }
+}
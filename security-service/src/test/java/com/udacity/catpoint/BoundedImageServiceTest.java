@@ -0,0 +1,89 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.BoundedImageService;
+import com.udacity.catpoint.image.ImageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedImageServiceTest {
+
+    private final BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    @Mock private ImageService delegate;
+
+    @Test
+    void callsBeyondLimit_areRejectedUntilOneCompletes() {
+        CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        when(delegate.imageContainsCatAsync(any(), anyFloat())).thenReturn(pending, CompletableFuture.completedFuture(true));
+        BoundedImageService service = new BoundedImageService(delegate, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> first = service.imageContainsCatAsync(image, 50f);
+        CompletionException rejected = assertThrows(CompletionException.class, () -> service.imageContainsCatAsync(image, 50f).join());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+
+        pending.complete(false);
+        assertFalse(first.join());
+        assertTrue(service.imageContainsCatAsync(image, 50f).join());
+        assertEquals(1, service.getAvailableSlots());
+    }
+
+    @Test
+    void slowCall_timesOutButKeepsSlotUntilItFinishes() {
+        CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        when(delegate.imageContainsCatAsync(any(), anyFloat())).thenReturn(pending);
+        BoundedImageService service = new BoundedImageService(delegate, 1, Duration.ofMillis(20));
+
+        CompletionException timedOut = assertThrows(CompletionException.class, () -> service.imageContainsCatAsync(image, 50f).join());
+        assertInstanceOf(TimeoutException.class, timedOut.getCause());
+        assertEquals(0, service.getAvailableSlots());
+
+        pending.complete(true);
+        assertEquals(1, service.getAvailableSlots());
+    }
+
+    @Test
+    void synchronousCallers_waitForSlotUpToDeadline() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.imageContainsCat(any(), anyFloat())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return true;
+        });
+        BoundedImageService service = new BoundedImageService(delegate, 1, Duration.ofMillis(50));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = callers.submit(() -> service.imageContainsCat(image, 50f));
+            entered.await();
+            assertThrows(RejectedExecutionException.class, () -> service.imageContainsCat(image, 50f));
+
+            Future<Boolean> waiting = callers.submit(() -> service.imageContainsCat(image, 50f));
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertTrue(waiting.get(5, TimeUnit.SECONDS));
+            assertEquals(1, service.getAvailableSlots());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
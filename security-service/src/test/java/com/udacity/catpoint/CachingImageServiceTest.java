@@ -0,0 +1,126 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.CachingImageService;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.PerceptualHash;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingImageServiceTest {
+
+    private static BufferedImage cat;
+    private static BufferedImage notCat;
+
+    private final AtomicInteger classifications = new AtomicInteger();
+    // Stands in for the remote classifier: anything the size of the cat sample is a cat.
+    private final ImageService classifier = (image, threshold) -> {
+        classifications.incrementAndGet();
+        return image.getWidth() * cat.getHeight() == image.getHeight() * cat.getWidth();
+    };
+
+    @BeforeAll
+    static void loadSamples() throws IOException {
+        cat = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+        notCat = ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile());
+    }
+
+    private static BufferedImage perturb(BufferedImage source, int brightness, long seed) {
+        Random random = new Random(seed);
+        BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int rgb = source.getRGB(x, y);
+                int noise = brightness + random.nextInt(7) - 3;
+                int r = clamp(((rgb >> 16) & 0xff) + noise);
+                int g = clamp(((rgb >> 8) & 0xff) + noise);
+                int b = clamp((rgb & 0xff) + noise);
+                copy.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return copy;
+    }
+
+    private static BufferedImage rescale(BufferedImage source, double factor) {
+        int width = (int) (source.getWidth() * factor);
+        int height = (int) (source.getHeight() * factor);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    @Test
+    void nearDuplicateFrames_reuseCachedVerdict() {
+        CachingImageService service = new CachingImageService(classifier, 16, 6, Duration.ofMinutes(1));
+
+        assertTrue(service.imageContainsCat(cat, 50f));
+        assertTrue(service.imageContainsCat(perturb(cat, 6, 1), 50f));
+        assertTrue(service.imageContainsCat(perturb(cat, -6, 2), 50f));
+        assertTrue(service.imageContainsCatAsync(rescale(cat, 0.98), 50f).join());
+        assertFalse(service.imageContainsCat(notCat, 50f));
+        assertFalse(service.imageContainsCat(perturb(notCat, 4, 3), 50f));
+
+        assertEquals(2, classifications.get());
+        assertEquals(4, service.getHitCount());
+        assertEquals(2, service.getMissCount());
+    }
+
+    @Test
+    void differentImages_areFarApart() {
+        int distance = PerceptualHash.distance(PerceptualHash.dHash(cat), PerceptualHash.dHash(notCat));
+        assertTrue(distance > 6, "distance " + distance);
+        assertTrue(PerceptualHash.distance(PerceptualHash.dHash(cat), PerceptualHash.dHash(perturb(cat, 6, 4))) <= 6);
+    }
+
+    @Test
+    void expiredAndEvictedEntries_areClassifiedAgain() throws InterruptedException {
+        CachingImageService shortLived = new CachingImageService(classifier, 16, 6, Duration.ofMillis(20));
+        shortLived.imageContainsCat(cat, 50f);
+        Thread.sleep(40);
+        shortLived.imageContainsCat(cat, 50f);
+        assertEquals(2, classifications.get());
+
+        CachingImageService tiny = new CachingImageService(classifier, 1, 6, Duration.ofMinutes(1));
+        tiny.imageContainsCat(cat, 50f);
+        tiny.imageContainsCat(notCat, 50f);
+        tiny.imageContainsCat(cat, 50f);
+        assertEquals(5, classifications.get());
+        assertEquals(1, tiny.size());
+    }
+
+    @Test
+    void verdicts_areCachedPerThreshold() {
+        ImageService strict = (image, threshold) -> {
+            classifications.incrementAndGet();
+            return threshold < 80f;
+        };
+        CachingImageService service = new CachingImageService(strict, 16, 6, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.imageContainsCat(cat, 50f));
+            assertFalse(service.imageContainsCat(perturb(cat, 4, i), 90f));
+        }
+
+        assertEquals(2, classifications.get());
+        assertEquals(2, service.size());
+        assertEquals(4, service.getHitCount());
+    }
+}
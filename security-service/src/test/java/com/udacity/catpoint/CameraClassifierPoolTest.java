@@ -0,0 +1,163 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.camera.CameraClassifierPool;
+import com.udacity.catpoint.camera.CameraStats;
+import com.udacity.catpoint.camera.Frame;
+import com.udacity.catpoint.camera.FrameSourceFactory;
+import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CameraClassifierPoolTest {
+
+    @Mock private SecurityRepository securityRepository;
+
+    private final Map<BufferedImage, String> cameraOf = new ConcurrentHashMap<>();
+    private final List<String> classified = new CopyOnWriteArrayList<>();
+    private CameraClassifierPool pool;
+
+    @AfterEach
+    void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private ImageService slowClassifier(CountDownLatch done) {
+        return (image, confidenceThreshold) -> {
+            classified.add(cameraOf.get(image));
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+            return cameraOf.get(image).equals("garden");
+        };
+    }
+
+    private Frame frame(String camera) {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        cameraOf.put(image, camera);
+        return Frame.now(image);
+    }
+
+    private void awaitProcessed(String camera) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getStats(camera).processed() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, pool.getStats(camera).processed());
+    }
+
+    @Test
+    void busyCamera_cannotStarveQuietCameras() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        SecurityService securityService = new SecurityService(securityRepository, slowClassifier(done));
+        pool = new CameraClassifierPool(securityService, 1, 2);
+        pool.start();
+
+        for (int i = 0; i < 50; i++) {
+            pool.submit("driveway", frame("driveway"));
+        }
+        pool.submit("garden", frame("garden"));
+        pool.submit("hall", frame("hall"));
+
+        awaitProcessed("garden");
+        awaitProcessed("hall");
+        // At most the frame already taken and one more turn of the busy camera come first.
+        assertTrue(classified.indexOf("garden") <= 3 && classified.indexOf("hall") <= 3, classified.toString());
+        CameraStats driveway = pool.getStats("driveway");
+        assertEquals(50, driveway.received());
+        assertTrue(driveway.dropped() >= 47);
+        assertEquals(Set.of("garden"), securityService.getCamerasDetectingCat());
+    }
+
+    @Test
+    void removedCamera_dropsQueuedFramesAndItsCat() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        SecurityService securityService = new SecurityService(securityRepository, slowClassifier(done));
+        pool = new CameraClassifierPool(securityService, 2);
+        pool.start();
+
+        pool.submit("garden", frame("garden"));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pool.removeCamera("garden");
+
+        assertEquals(Set.of(), pool.getCameraIds());
+        assertEquals(Set.of(), securityService.getCamerasDetectingCat());
+    }
+
+    @Test
+    void errorFromClassifier_doesNotBlockRemoveCamera() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        SecurityService securityService = new SecurityService(securityRepository, (image, confidenceThreshold) -> {
+            failing.countDown();
+            throw new AssertionError("classifier bug");
+        });
+        pool = new CameraClassifierPool(securityService, 1);
+        pool.start();
+
+        pool.submit("garden", frame("garden"));
+        assertTrue(failing.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> pool.removeCamera("garden"));
+        assertEquals(Set.of(), pool.getCameraIds());
+    }
+
+    @Test
+    void poolFromSystemProperties_classifiesListedCamerasAsSampled(@TempDir Path dir) throws Exception {
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("frame.png").toFile());
+        SecurityService securityService = new SecurityService(new SqlSecurityRepositoryImpl("jdbc:h2:mem:pool-" + UUID.randomUUID()),
+                (image, confidenceThreshold) -> false);
+        System.setProperty(FrameSourceFactory.CAMERAS_PROPERTY, "garden, hall");
+        System.setProperty(FrameSourceFactory.CAMERAS_PROPERTY + ".garden", "sequence");
+        System.setProperty(FrameSourceFactory.CAMERAS_PROPERTY + ".garden.location", dir.toString());
+        System.setProperty(FrameSourceFactory.CAMERAS_PROPERTY + ".hall", "sequence");
+        System.setProperty(FrameSourceFactory.CAMERAS_PROPERTY + ".hall.location", dir.toString());
+        System.setProperty(FrameSourceFactory.FPS_PROPERTY, "50");
+        System.setProperty(FrameSourceFactory.SAMPLING_PROPERTY, "adaptive");
+        try {
+            pool = FrameSourceFactory.poolFromSystemProperties(securityService).orElseThrow();
+        } finally {
+            for (String key : List.of("", ".garden", ".garden.location", ".hall", ".hall.location")) {
+                System.clearProperty(FrameSourceFactory.CAMERAS_PROPERTY + key);
+            }
+            System.clearProperty(FrameSourceFactory.FPS_PROPERTY);
+            System.clearProperty(FrameSourceFactory.SAMPLING_PROPERTY);
+        }
+        assertEquals(Set.of("garden", "hall"), pool.getCameraIds());
+        Thread.sleep(100);
+        assertEquals(0, pool.getStats("garden").received());
+
+        pool.start();
+        awaitProcessed("garden");
+        awaitProcessed("hall");
+        // With nothing going on, the idle rate samples one frame every few seconds.
+        Thread.sleep(200);
+        assertEquals(1, pool.getStats("garden").received());
+    }
+}
@@ -0,0 +1,141 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.application.CatpointServer;
+import com.udacity.catpoint.camera.Frame;
+import com.udacity.catpoint.camera.FramePipeline;
+import com.udacity.catpoint.camera.FrameSource;
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.JournaledSecurityRepositoryImpl;
+import com.udacity.catpoint.data.ReplicatedSecurityRepository;
+import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.SecurityRepositoryFactory;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.ImageServiceFactory;
+import com.udacity.catpoint.net.ReplicationServer;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatpointServerTest {
+
+    private static FrameSource oneFrame() {
+        return new FrameSource() {
+            private boolean sent;
+
+            @Override
+            public Frame nextFrame() {
+                if (sent) {
+                    return null;
+                }
+                sent = true;
+                return Frame.now(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+            }
+
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void headlessServer_classifiesCameraFramesAndRaisesAlarm() throws Exception {
+        SqlSecurityRepositoryImpl repository = new SqlSecurityRepositoryImpl("jdbc:h2:mem:headless");
+        ImageService alwaysCat = (image, confidenceThreshold) -> true;
+        SecurityService securityService = new SecurityService(repository, alwaysCat);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        FramePipeline pipeline = new FramePipeline(oneFrame(), securityService, 0);
+
+        try (CatpointServer server = new CatpointServer(repository, securityService, pipeline)) {
+            server.start();
+            assertTrue(pipeline.awaitCompletion(Duration.ofSeconds(10)));
+            assertEquals(AlarmStatus.ALARM, server.getSecurityService().getAlarmStatus());
+        }
+    }
+
+    @Test
+    void close_releasesAwaitShutdown() throws Exception {
+        SqlSecurityRepositoryImpl repository = new SqlSecurityRepositoryImpl("jdbc:h2:mem:headless-close");
+        CatpointServer server = new CatpointServer(repository, new SecurityService(repository, (image, threshold) -> false), null);
+        server.start();
+        Thread waiter = new Thread(() -> {
+            try {
+                server.awaitShutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        server.close();
+
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiter.isAlive());
+    }
+
+    @Test
+    void imageServiceFactory_rejectsUnknownClassifier() {
+        assertThrows(IllegalArgumentException.class, () -> ImageServiceFactory.create("psychic", null));
+    }
+
+    @Test
+    void promotedStandby_keepsReplicatedStateInItsOwnRepository(@TempDir Path dir) throws Exception {
+        ReplicatedSecurityRepository primary = new ReplicatedSecurityRepository(new SqlSecurityRepositoryImpl("jdbc:h2:mem:primary-" + UUID.randomUUID()));
+        primary.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        ReplicationServer replicationServer = new ReplicationServer(primary, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        replicationServer.start();
+        InetSocketAddress address = replicationServer.getLocalAddress();
+        CompletableFuture<SecurityRepository> promoted = CompletableFuture.supplyAsync(() -> {
+            try {
+                return CatpointServer.followUntilFailover(new JournaledSecurityRepositoryImpl(dir), address);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (replicationServer.getAcknowledgedSequence() != primary.getSequence() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(primary.getSequence(), replicationServer.getAcknowledgedSequence());
+        replicationServer.close();
+        primary.close();
+
+        try (JournaledSecurityRepositoryImpl repository = (JournaledSecurityRepositoryImpl) promoted.get(10, TimeUnit.SECONDS)) {
+            assertEquals(ArmingStatus.ARMED_AWAY, repository.getArmingStatus());
+        }
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(ArmingStatus.ARMED_AWAY, reopened.getArmingStatus());
+        }
+    }
+
+    @Test
+    void standby_refusesStorageSharedWithPrimary() {
+        InetSocketAddress primary = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+        assertThrows(IllegalStateException.class, () -> CatpointServer.followUntilFailover(primary));
+
+        System.setProperty(SecurityRepositoryFactory.BACKEND_PROPERTY, "journal");
+        try {
+            assertThrows(IllegalStateException.class, () -> CatpointServer.followUntilFailover(primary));
+        } finally {
+            System.clearProperty(SecurityRepositoryFactory.BACKEND_PROPERTY);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.ControlApiServer;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlApiServerTest {
+
+    private SecurityService securityService;
+    private ControlApiServer server;
+    private Sensor window;
+
+    @BeforeEach
+    void init() throws Exception {
+        securityService = new SecurityService(new SqlSecurityRepositoryImpl("jdbc:h2:mem:control-api-" + UUID.randomUUID()),
+                (image, confidenceThreshold) -> image.getWidth() == 32);
+        window = new Sensor("Kitchen window", SensorType.WINDOW);
+        securityService.addSensor(window);
+        server = new ControlApiServer(securityService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+    }
+
+    @AfterEach
+    void close() {
+        server.close();
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost", server.getLocalAddress().getPort(), path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setReadTimeout(10_000);
+        return connection;
+    }
+
+    private record Response(int status, String body) { }
+
+    private Response call(String method, String path, String contentType, byte[] body) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private Response callJson(String method, String path, String json) throws IOException {
+        return call(method, path, "application/json", json == null ? null : json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void armAndToggleSensor_updateServiceAndStatus() throws Exception {
+        Response armed = callJson("PUT", "/api/arming", "{\"armingStatus\": \"ARMED_HOME\"}");
+        assertEquals(200, armed.status());
+        assertTrue(armed.body().contains("\"armingStatus\":\"ARMED_HOME\""), armed.body());
+
+        Response toggled = callJson("PUT", "/api/sensors/" + window.getSensorId(), "{\"active\": true}");
+        assertEquals(200, toggled.status());
+        assertTrue(toggled.body().contains("\"active\":true"), toggled.body());
+
+        Response sensors = callJson("GET", "/api/sensors", null);
+        assertTrue(sensors.body().startsWith("[{\"id\":\"" + window.getSensorId() + "\",\"name\":\"Kitchen window\""), sensors.body());
+        Response status = callJson("GET", "/api/status", null);
+        assertTrue(status.body().contains("\"alarmStatus\":\"PENDING_ALARM\""), status.body());
+        assertTrue(status.body().contains("\"activeSensors\":1"), status.body());
+        assertEquals(ArmingStatus.ARMED_HOME, securityService.getArmingStatus());
+    }
+
+    @Test
+    void badRequests_getErrorStatuses() throws Exception {
+        assertEquals(404, callJson("PUT", "/api/sensors/00000000-0000-0000-0000-000000000000", "{\"active\": true}").status());
+        assertEquals(400, callJson("PUT", "/api/arming", "{\"armingStatus\": \"ON_HOLIDAY\"}").status());
+        assertEquals(400, callJson("PUT", "/api/arming", "{not json").status());
+        assertEquals(405, callJson("POST", "/api/status", "{}").status());
+    }
+
+    @Test
+    void postedImage_isClassifiedForItsCamera() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        Response response = call("POST", "/api/images?camera=porch", "image/png", png.toByteArray());
+
+        assertEquals(200, response.status());
+        assertEquals("{\"camera\":\"porch\",\"catDetected\":true}", response.body());
+        assertEquals(415, call("POST", "/api/images", "image/png", new byte[] {1, 2, 3}).status());
+    }
+
+    @Test
+    void eventStream_sendsStatusThenChanges() throws Exception {
+        HttpURLConnection connection = open("GET", "/api/events");
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            assertEquals("text/event-stream", connection.getContentType());
+            assertEquals("event: status", events.readLine());
+            assertTrue(events.readLine().startsWith("data: {\"alarmStatus\":\"NO_ALARM\""));
+            assertEquals("", events.readLine());
+
+            securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            securityService.changeSensorActivationStatus(window, true);
+
+            String line;
+            do {
+                line = events.readLine();
+            } while (line != null && !line.equals("event: alarm"));
+            assertEquals("event: alarm", line);
+            assertEquals("data: {\"alarmStatus\":\"PENDING_ALARM\"}", events.readLine());
+            assertEquals(1, server.getEventStreamCount());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
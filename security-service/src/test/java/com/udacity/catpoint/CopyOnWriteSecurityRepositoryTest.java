@@ -0,0 +1,98 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyOnWriteSecurityRepositoryTest {
+
+    private CopyOnWriteSecurityRepository repository;
+    private Sensor door;
+    private Sensor window;
+
+    @BeforeEach
+    void init() {
+        repository = new CopyOnWriteSecurityRepository(new SqlSecurityRepositoryImpl("jdbc:h2:mem:cow-" + UUID.randomUUID()));
+        door = new Sensor("Door", SensorType.DOOR);
+        window = new Sensor("Window", SensorType.WINDOW);
+        repository.addSensor(door);
+        repository.addSensor(window);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        repository.close();
+    }
+
+    @Test
+    void readers_shareImmutableViewsOfPublishedState() {
+        SecurityState before = repository.getState();
+        Sensor view = repository.getSortedSensors().get(0);
+
+        assertSame(before, repository.getState());
+        assertSame(repository.getSensors(), repository.getSensors());
+        assertSame(view, repository.getSortedSensors().get(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.setActive(true));
+
+        door.setActive(true);
+        assertEquals(0, repository.getActiveSensorCount());
+        assertFalse(view.getActive());
+
+        repository.updateSensor(door);
+        assertEquals(1, repository.getActiveSensorCount());
+        assertFalse(before.sortedSensors().get(0).getActive());
+        assertTrue(repository.getSortedSensors().get(0).getActive());
+    }
+
+    @Test
+    void securityService_changesSensorsThroughCopiesOfViews() {
+        SecurityService securityService = new SecurityService(repository, (image, confidenceThreshold) -> false);
+        Sensor view = repository.getSortedSensors().get(0);
+
+        securityService.changeSensorActivationStatus(view, true);
+        assertFalse(view.getActive());
+        assertEquals(1, repository.getActiveSensorCount(SensorType.DOOR));
+
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        assertEquals(0, repository.getActiveSensorCount());
+    }
+
+    @Test
+    void activeSensorCountByType_readsPublishedState() {
+        door.setActive(true);
+        window.setActive(true);
+        repository.updateSensors(List.of(door, window));
+        window.setActive(false);
+
+        assertEquals(1, repository.getActiveSensorCount(SensorType.DOOR));
+        assertEquals(1, repository.getActiveSensorCount(SensorType.WINDOW));
+        assertEquals(0, repository.getActiveSensorCount(SensorType.MOTION));
+
+        repository.updateSensor(window);
+        assertEquals(0, repository.getActiveSensorCount(SensorType.WINDOW));
+        assertEquals(1, repository.getActiveSensorCount());
+    }
+
+    @Test
+    void factory_wrapsBackendWhenCopyOnWriteIsSet() throws Exception {
+        System.setProperty(SecurityRepositoryFactory.BACKEND_PROPERTY, "sql");
+        System.setProperty(SecurityRepositoryFactory.LOCATION_PROPERTY, "jdbc:h2:mem:cow-" + UUID.randomUUID());
+        System.setProperty(SecurityRepositoryFactory.COPY_ON_WRITE_PROPERTY, "true");
+        try (CopyOnWriteSecurityRepository created = assertInstanceOf(CopyOnWriteSecurityRepository.class,
+                SecurityRepositoryFactory.fromSystemProperties())) {
+            created.setArmingStatus(ArmingStatus.ARMED_HOME);
+            assertEquals(ArmingStatus.ARMED_HOME, created.getArmingStatus());
+        } finally {
+            System.clearProperty(SecurityRepositoryFactory.BACKEND_PROPERTY);
+            System.clearProperty(SecurityRepositoryFactory.LOCATION_PROPERTY);
+            System.clearProperty(SecurityRepositoryFactory.COPY_ON_WRITE_PROPERTY);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.camera.DirectoryFrameSource;
+import com.udacity.catpoint.camera.FileFrameSource;
+import com.udacity.catpoint.camera.Frame;
+import com.udacity.catpoint.camera.FramePipeline;
+import com.udacity.catpoint.camera.FrameSource;
+import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FramePipelineTest {
+
+    @Mock private SecurityRepository securityRepository;
+
+    private final List<BufferedImage> classified = new CopyOnWriteArrayList<>();
+
+    private ImageService slowClassifier(long millis) {
+        return (image, confidenceThreshold) -> {
+            classified.add(image);
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        };
+    }
+
+    private static FrameSource framesOf(List<BufferedImage> images) {
+        List<BufferedImage> remaining = new ArrayList<>(images);
+        return new FrameSource() {
+            @Override
+            public Frame nextFrame() {
+                return remaining.isEmpty() ? null : Frame.now(remaining.remove(0));
+            }
+            @Override
+            public String getName() {
+                return "test";
+            }
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static List<BufferedImage> blankFrames(int count) {
+        List<BufferedImage> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            frames.add(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+        }
+        return frames;
+    }
+
+    @Test
+    void slowClassifier_dropsOldestFramesAndFinishesWithNewest() throws Exception {
+        List<BufferedImage> frames = blankFrames(20);
+        SecurityService securityService = new SecurityService(securityRepository, slowClassifier(20));
+        FramePipeline pipeline = new FramePipeline(framesOf(frames), securityService, 2, 0);
+
+        pipeline.start();
+
+        assertTrue(pipeline.awaitCompletion(Duration.ofSeconds(10)));
+        assertEquals(20, pipeline.getReceivedCount());
+        assertTrue(pipeline.getDroppedCount() > 0);
+        assertEquals(20, pipeline.getProcessedCount() + pipeline.getDroppedCount());
+        assertSame(frames.get(19), classified.get(classified.size() - 1));
+        assertTrue(pipeline.getMaxLatency().compareTo(Duration.ofMillis(20)) >= 0);
+        assertTrue(pipeline.getAverageLatency().compareTo(pipeline.getMaxLatency()) <= 0);
+    }
+
+    @Test
+    void targetFps_pacesFrames() throws Exception {
+        SecurityService securityService = new SecurityService(securityRepository, slowClassifier(0));
+        FramePipeline pipeline = new FramePipeline(framesOf(blankFrames(10)), securityService, 20);
+
+        long start = System.nanoTime();
+        pipeline.start();
+
+        assertTrue(pipeline.awaitCompletion(Duration.ofSeconds(10)));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(400).toNanos());
+        assertEquals(10, pipeline.getProcessedCount());
+        assertEquals(0, pipeline.getDroppedCount());
+    }
+
+    @Test
+    void mjpegFile_yieldsEachImageThenEnds(@TempDir Path directory) throws IOException {
+        ByteArrayOutputStream mjpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg", mjpeg);
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "jpg", mjpeg);
+        Path file = Files.write(directory.resolve("feed.mjpeg"), mjpeg.toByteArray());
+
+        try (FileFrameSource source = FileFrameSource.mjpeg(file, false)) {
+            assertEquals(40, source.nextFrame().image().getWidth());
+            assertEquals(20, source.nextFrame().image().getWidth());
+            assertNull(source.nextFrame());
+        }
+    }
+
+    @Test
+    void watchedDirectory_emitsNewImageFiles(@TempDir Path directory) throws IOException {
+        Path camera = Files.createDirectory(directory.resolve("camera"));
+        try (DirectoryFrameSource source = new DirectoryFrameSource(camera)) {
+            Path upload = directory.resolve("upload.png");
+            ImageIO.write(new BufferedImage(12, 9, BufferedImage.TYPE_INT_RGB), "png", upload.toFile());
+            Files.move(upload, camera.resolve("snapshot.png"), StandardCopyOption.ATOMIC_MOVE);
+
+            Frame frame = assertTimeoutPreemptively(Duration.ofSeconds(30), source::nextFrame);
+
+            assertEquals(12, frame.image().getWidth());
+        }
+    }
+}
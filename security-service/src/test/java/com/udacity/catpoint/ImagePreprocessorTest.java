@@ -0,0 +1,57 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.ImagePreprocessor;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessorTest {
+
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor(640, 0.8f);
+
+    @Test
+    void largeFrame_isDownscaledKeepingAspectRatio() throws IOException {
+        BufferedImage frame = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(preprocessor.encodeToArray(frame)));
+
+        assertEquals(640, decoded.getWidth());
+        assertEquals(360, decoded.getHeight());
+    }
+
+    @Test
+    void smallTranslucentFrame_isEncodedAtOriginalSize() throws IOException {
+        BufferedImage frame = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+
+        byte[] first = preprocessor.encodeToArray(frame);
+        byte[] second = preprocessor.encodeToArray(frame);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(second));
+
+        assertArrayEquals(first, second);
+        assertEquals(200, decoded.getWidth());
+        assertEquals(100, decoded.getHeight());
+    }
+
+    @Test
+    void transparentFrameAfterOpaqueFrame_doesNotShowPreviousFrame() throws IOException {
+        BufferedImage red = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = red.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 200, 100);
+        graphics.dispose();
+        BufferedImage transparent = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+
+        preprocessor.encodeToArray(red);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(preprocessor.encodeToArray(transparent)));
+
+        Color center = new Color(decoded.getRGB(100, 50));
+        assertTrue(center.getRed() < 32, "previous red frame showed through: " + center);
+    }
+}
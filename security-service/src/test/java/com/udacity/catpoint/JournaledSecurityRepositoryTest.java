@@ -0,0 +1,173 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledSecurityRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mutations_surviveReopen() throws IOException {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            repository.addSensor(door);
+            repository.addSensor(window);
+            door.setActive(true);
+            repository.updateSensor(door);
+            repository.removeSensor(window);
+            repository.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            repository.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+        }
+
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(1, reopened.getSensors().size());
+            Sensor loaded = reopened.getSensors().iterator().next();
+            assertEquals(door.getSensorId(), loaded.getSensorId());
+            assertTrue(loaded.getActive());
+            assertEquals(ArmingStatus.ARMED_AWAY, reopened.getArmingStatus());
+            assertEquals(AlarmStatus.PENDING_ALARM, reopened.getAlarmStatus());
+        }
+    }
+
+    @Test
+    void updateSensor_afterRename_isNotLost() throws IOException {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            repository.addSensor(door);
+            door.setName("Front Door");
+            repository.updateSensor(door);
+        }
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals("Front Door", reopened.getSensors().iterator().next().getName());
+        }
+    }
+
+    @Test
+    void updateSensors_isJournaledAsOneRecord() throws IOException {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            repository.addSensor(door);
+            repository.addSensor(window);
+            door.setActive(true);
+            window.setActive(true);
+            repository.updateSensors(List.of(door, window));
+            assertEquals(3, Files.readAllLines(dir.resolve("catpoint-journal.log")).size());
+            assertEquals(2, repository.getActiveSensorCount());
+        }
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(2, reopened.getActiveSensorCount());
+        }
+    }
+
+    @Test
+    void journal_isCompactedIntoSnapshot() throws IOException {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir, 4)) {
+            repository.addSensor(door);
+            for (int i = 0; i < 9; i++) {
+                door.setActive(i % 2 == 0);
+                repository.updateSensor(door);
+            }
+            assertTrue(Files.exists(dir.resolve("catpoint-snapshot.bin")));
+            assertTrue(Files.readAllLines(dir.resolve("catpoint-journal.log")).size() < 4);
+        }
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertTrue(reopened.getSensors().iterator().next().getActive());
+        }
+    }
+
+    @Test
+    void tornJournalTail_isIgnored() throws IOException {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            repository.addSensor(door);
+            repository.setAlarmStatus(AlarmStatus.ALARM);
+        }
+        Path journal = dir.resolve("catpoint-journal.log");
+        Files.write(journal, List.of("U {\"sensorId\":\"broken"), java.nio.file.StandardOpenOption.APPEND);
+
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(1, reopened.getSensors().size());
+            assertEquals(AlarmStatus.ALARM, reopened.getAlarmStatus());
+        }
+    }
+
+    @Test
+    void tornFirstRecord_isCompactedAwaySoLaterRecordsSurvive() throws IOException {
+        Files.write(dir.resolve("catpoint-journal.log"), List.of("U {\"sensorId\":\"broken"));
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            repository.addSensor(door);
+        }
+
+        try (JournaledSecurityRepositoryImpl reopened = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(1, reopened.getSensors().size());
+        }
+    }
+
+    @Test
+    void unreadableSnapshot_failsConstruction() throws IOException {
+        Files.write(dir.resolve("catpoint-snapshot.bin"), new byte[] {1, 2, 3});
+
+        assertThrows(java.io.UncheckedIOException.class, () -> new JournaledSecurityRepositoryImpl(dir));
+    }
+
+    @Test
+    void corruptSensorRecord_failsReadsAndKeepsSnapshot() throws IOException {
+        Path snapshot = dir.resolve("catpoint-snapshot.bin");
+        BinarySensorSnapshot.write(snapshot, AlarmStatus.NO_ALARM, ArmingStatus.ARMED_HOME,
+                List.of(new Sensor("Door", SensorType.DOOR)));
+        byte[] corrupt = Files.readAllBytes(snapshot);
+        corrupt[24 + 16] = 100; // type ordinal of the first sensor record, after the header
+        Files.write(snapshot, corrupt);
+
+        try (JournaledSecurityRepositoryImpl repository = new JournaledSecurityRepositoryImpl(dir)) {
+            assertEquals(ArmingStatus.ARMED_HOME, repository.getArmingStatus());
+            assertThrows(java.io.UncheckedIOException.class, repository::getSensors);
+            assertThrows(java.io.UncheckedIOException.class, repository::getSensors);
+            assertThrows(java.io.UncheckedIOException.class, () -> repository.addSensor(new Sensor("Window", SensorType.WINDOW)));
+        }
+        assertArrayEquals(corrupt, Files.readAllBytes(snapshot));
+    }
+
+    @Test
+    void binarySnapshot_roundTripsSensors() throws IOException {
+        Sensor door = new Sensor("Door \u00e9", SensorType.DOOR);
+        door.setActive(true);
+        Sensor unnamed = new Sensor();
+        unnamed.setSensorId(java.util.UUID.randomUUID());
+        Path file = dir.resolve("state.bin");
+        BinarySensorSnapshot.write(file, AlarmStatus.ALARM, ArmingStatus.ARMED_HOME, List.of(door, unnamed));
+
+        BinarySensorSnapshot snapshot = BinarySensorSnapshot.open(file);
+        assertEquals(AlarmStatus.ALARM, snapshot.getAlarmStatus());
+        assertEquals(ArmingStatus.ARMED_HOME, snapshot.getArmingStatus());
+        assertEquals(2, snapshot.getSensorCount());
+        assertEquals(door.getSensorId(), snapshot.getSensorId(0));
+        assertTrue(snapshot.isActive(0));
+        Sensor loaded = snapshot.getSensor(0);
+        assertEquals("Door \u00e9", loaded.getName());
+        assertEquals(SensorType.DOOR, loaded.getSensorType());
+        assertNull(snapshot.getSensor(1).getName());
+        assertNull(snapshot.getSensor(1).getSensorType());
+    }
+
+    @Test
+    void binarySnapshot_rejectsForeignFile() throws IOException {
+        Path file = dir.resolve("garbage.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> BinarySensorSnapshot.open(file));
+    }
+}
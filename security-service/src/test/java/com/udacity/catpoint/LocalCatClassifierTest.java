@@ -0,0 +1,79 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.ConvNet;
+import com.udacity.catpoint.image.LocalCatClassifier;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCatClassifierTest {
+
+    @Test
+    void bundledModel_classifiesSampleImages() throws IOException {
+        LocalCatClassifier classifier = new LocalCatClassifier();
+        BufferedImage cat = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+        BufferedImage notCat = ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile());
+
+        assertTrue(classifier.imageContainsCat(cat, 50.0f));
+        assertFalse(classifier.imageContainsCat(notCat, 50.0f));
+        assertTrue(classifier.imageContainsCatAsync(cat, 50.0f).join());
+    }
+
+    @Test
+    void parallelConvolution_matchesSerialResult() {
+        ConvNet model = LocalCatClassifier.loadBundledModel();
+        float[] input = new float[3 * model.getInputSize() * model.getInputSize()];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (i * 31 % 255) / 255f;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(model.forward(input, null), model.forward(input, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void writtenModel_loadsWithSameOutputs() throws IOException {
+        ConvNet model = new ConvNet(4, List.of(
+                new ConvNet.Conv(3, 2, 3, true, new float[]{
+                        0.1f, -0.2f, 0.3f, 0.4f, 0.5f, -0.6f, 0.7f, 0.8f, -0.9f,
+                        0.2f, 0.1f, 0.0f, -0.1f, 0.3f, 0.2f, 0.1f, 0.0f, 0.4f,
+                        -0.3f, 0.2f, 0.1f, 0.5f, 0.0f, 0.2f, 0.3f, 0.1f, 0.2f,
+                        0.3f, 0.3f, -0.3f, 0.2f, 0.2f, 0.1f, 0.0f, 0.1f, 0.5f,
+                        0.1f, 0.1f, 0.1f, 0.1f, -0.1f, 0.1f, 0.1f, 0.1f, 0.1f,
+                        0.0f, 0.2f, 0.4f, 0.6f, 0.8f, 0.6f, 0.4f, 0.2f, 0.0f}, new float[]{0.05f, -0.05f}),
+                new ConvNet.MaxPool(2),
+                new ConvNet.GlobalAveragePool(),
+                new ConvNet.Dense(2, 1, new float[]{1.5f, -2.0f}, new float[]{0.25f})));
+        float[] input = new float[3 * 4 * 4];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = i / (float) input.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.write(out);
+
+        ConvNet loaded = ConvNet.load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(4, loaded.getInputSize());
+        assertArrayEquals(model.forward(input, null), loaded.forward(input, null));
+    }
+
+    @Test
+    void mismatchedLayers_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConvNet(8, List.of(
+                new ConvNet.GlobalAveragePool(),
+                new ConvNet.Dense(4, 1, new float[4], new float[1]))));
+        assertThrows(IOException.class, () -> ConvNet.load(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+}
@@ -0,0 +1,133 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.MotionGatedImageService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotionGatedImageServiceTest {
+
+    private static BufferedImage room;
+    private static BufferedImage cat;
+
+    private final AtomicInteger classifications = new AtomicInteger();
+    private final ImageService classifier = new ImageService() {
+        @Override
+        public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+            classifications.incrementAndGet();
+            return image.getWidth() == cat.getWidth();
+        }
+        @Override
+        public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
+            return CompletableFuture.completedFuture(imageContainsCat(image, confidenceThreshold));
+        }
+    };
+
+    @BeforeAll
+    static void loadSamples() throws IOException {
+        room = ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile());
+        cat = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+    }
+
+    private static BufferedImage copyWithBox(BufferedImage source, int boxSize) {
+        BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = copy.createGraphics();
+        graphics.drawImage(source, 0, 0, null);
+        graphics.setColor(Color.MAGENTA);
+        graphics.fillRect(0, 0, boxSize, boxSize);
+        graphics.dispose();
+        return copy;
+    }
+
+    @Test
+    void unchangedFrames_reusePreviousVerdict() {
+        MotionGatedImageService gate = new MotionGatedImageService(classifier);
+
+        assertFalse(gate.imageContainsCat(room, 50f));
+        assertFalse(gate.imageContainsCat(room, 50f));
+        assertFalse(gate.imageContainsCat(copyWithBox(room, 2), 50f));
+
+        assertEquals(1, classifications.get());
+        assertEquals(2, gate.getGatedCount());
+    }
+
+    @Test
+    void changedFrames_areClassified() {
+        MotionGatedImageService gate = new MotionGatedImageService(classifier);
+
+        gate.imageContainsCat(room, 50f);
+        gate.imageContainsCat(copyWithBox(room, room.getWidth() / 3), 50f);
+        assertTrue(gate.imageContainsCat(cat, 50f));
+
+        assertEquals(3, classifications.get());
+        assertEquals(0, gate.getGatedCount());
+    }
+
+    @Test
+    void failedClassification_isNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+        MotionGatedImageService gate = new MotionGatedImageService(new ImageService() {
+            @Override
+            public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+                throw new UnsupportedOperationException();
+            }
+            @Override
+            public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
+                return calls.incrementAndGet() == 1
+                        ? CompletableFuture.failedFuture(new IllegalStateException("service unavailable"))
+                        : CompletableFuture.completedFuture(false);
+            }
+        });
+
+        assertTrue(gate.imageContainsCatAsync(room, 50f).isCompletedExceptionally());
+        assertFalse(gate.imageContainsCatAsync(room, 50f).join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void synchronousCalls_useDelegatesSynchronousMethod() {
+        MotionGatedImageService gate = new MotionGatedImageService(new ImageService() {
+            @Override
+            public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+                classifications.incrementAndGet();
+                return true;
+            }
+            @Override
+            public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        assertTrue(gate.imageContainsCat(cat, 50f));
+        assertTrue(gate.imageContainsCat(cat, 50f));
+        assertEquals(1, classifications.get());
+        assertEquals(1, gate.getGatedCount());
+    }
+
+    @Test
+    void cameras_areGatedAgainstTheirOwnLastFrame() {
+        MotionGatedImageService gate = new MotionGatedImageService(classifier);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(gate.imageContainsCat("hall", room, 50f));
+            assertTrue(gate.imageContainsCat("kitchen", cat, 50f));
+        }
+
+        assertEquals(2, classifications.get());
+        assertEquals(4, gate.getGatedCount());
+        gate.removeCamera("kitchen");
+        assertTrue(gate.imageContainsCatAsync("kitchen", cat, 50f).join());
+        assertEquals(3, classifications.get());
+    }
+}
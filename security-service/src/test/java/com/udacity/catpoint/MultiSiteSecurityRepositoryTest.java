@@ -0,0 +1,65 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiSiteSecurityRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sites_keepSeparateStateAcrossReopen() throws IOException {
+        Path journal = dir.resolve("sites.log");
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        try (MultiSiteSecurityRepository repository = new MultiSiteSecurityRepository(journal, 3)) {
+            SecurityRepository home = repository.forSite("home");
+            SecurityRepository cabin = repository.forSite("cabin");
+            home.addSensor(door);
+            cabin.addSensor(window);
+            window.setActive(true);
+            cabin.updateSensors(List.of(window));
+            home.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            cabin.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+            assertSame(home, repository.forSite("home"));
+        }
+
+        try (MultiSiteSecurityRepository reopened = new MultiSiteSecurityRepository(journal)) {
+            SecurityRepository home = reopened.forSite("home");
+            SecurityRepository cabin = reopened.forSite("cabin");
+            assertEquals(ArmingStatus.ARMED_AWAY, home.getArmingStatus());
+            assertEquals(AlarmStatus.NO_ALARM, home.getAlarmStatus());
+            assertEquals(0, home.getActiveSensorCount());
+            assertEquals(door.getSensorId(), home.getSensors().iterator().next().getSensorId());
+            assertEquals(AlarmStatus.PENDING_ALARM, cabin.getAlarmStatus());
+            assertEquals(1, cabin.getActiveSensorCount());
+        }
+    }
+
+    @Test
+    void invalidSiteId_isRejected() throws IOException {
+        try (MultiSiteSecurityRepository repository = new MultiSiteSecurityRepository(dir.resolve("sites.log"))) {
+            assertThrows(IllegalArgumentException.class, () -> repository.forSite("a\tb"));
+        }
+    }
+
+    @Test
+    void unreadableJournal_failsConstructionAndIsLeftAlone() throws IOException {
+        Path journal = dir.resolve("sites.log");
+        byte[] contents = {'h', 'o', 'm', 'e', '\t', 'M', ' ', (byte) 0xC3, (byte) 0x28, '\n'};
+        Files.write(journal, contents);
+
+        assertThrows(UncheckedIOException.class, () -> new MultiSiteSecurityRepository(journal));
+        assertArrayEquals(contents, Files.readAllBytes(journal));
+    }
+}
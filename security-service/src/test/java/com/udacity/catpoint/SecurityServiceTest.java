@@ -13,9 +13,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.awt.image.BufferedImage;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -101,7 +104,7 @@ class SecurityServiceTest {
         sensor.setActive(true);
 
         when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.PENDING_ALARM);
-        when(securityRepository.getSensors()).thenReturn(new HashSet<>());
+        when(securityRepository.getActiveSensorCount()).thenReturn(0);
 
         securityService.changeSensorActivationStatus(sensor, false);
 
@@ -133,7 +136,7 @@ class SecurityServiceTest {
     @Test
     void noCatAndAllSensorsInactive_setsNolarm() {
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(false);
-        when(securityRepository.getSensors()).thenReturn(new HashSet<>());
+        when(securityRepository.getActiveSensorCount()).thenReturn(0);
 
         securityService.processImage(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
 
@@ -178,8 +181,7 @@ class SecurityServiceTest {
         assertFalse(sensor1.getActive());
         assertFalse(sensor2.getActive());
 
-        verify(securityRepository).updateSensor(sensor1);
-        verify(securityRepository).updateSensor(sensor2);
+        verify(securityRepository).updateSensors(argThat(updated -> updated.containsAll(Set.of(sensor1, sensor2))));
     }
 
     @Test
@@ -193,10 +195,10 @@ class SecurityServiceTest {
         when(securityRepository.getSensors()).thenReturn(Set.of(s1, s2, s3));
 
         doAnswer(invocation -> {
-            Sensor sensor = invocation.getArgument(0);
-            sensor.setActive(false);
+            Collection<Sensor> sensors = invocation.getArgument(0);
+            sensors.forEach(sensor -> sensor.setActive(false));
             return null;
-        }).when(securityRepository).updateSensor(any(Sensor.class));
+        }).when(securityRepository).updateSensors(anyCollection());
 
         securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
 
@@ -204,9 +206,8 @@ class SecurityServiceTest {
         assertFalse(s2.getActive());
         assertFalse(s3.getActive());
 
-        verify(securityRepository).updateSensor(s1);
-        verify(securityRepository).updateSensor(s2);
-        verify(securityRepository).updateSensor(s3);
+        verify(securityRepository).updateSensors(argThat(updated -> updated.size() == 3 && updated.containsAll(Set.of(s1, s2, s3))));
+        verify(securityRepository, never()).updateSensor(any());
     }
 
     // --- Status Listeners ---
@@ -221,8 +222,8 @@ class SecurityServiceTest {
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
         securityService.processImage(mock(BufferedImage.class));
 
+        verify(statusListener2, timeout(1000)).catDetected(true);
         verify(statusListener1, never()).catDetected(anyBoolean());
-        verify(statusListener2).catDetected(true);
     }
 
     @Test
@@ -233,7 +234,7 @@ class SecurityServiceTest {
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
         securityService.processImage(mock(BufferedImage.class));
 
-        verify(statusListener, never()).catDetected(anyBoolean());
+        verify(statusListener, after(200).never()).catDetected(anyBoolean());
     }
 
     @Test
@@ -243,7 +244,17 @@ class SecurityServiceTest {
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
         securityService.processImage(mock(BufferedImage.class));
 
-        verify(statusListener).catDetected(true);
+        verify(statusListener, timeout(1000)).catDetected(true);
+    }
+
+    @Test
+    void sensorActivation_firesSensorStatusChanged() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.DISARMED);
+        securityService.addStatusListener(statusListener);
+
+        securityService.changeSensorActivationStatus(new Sensor("S1", SensorType.DOOR), true);
+
+        verify(statusListener, timeout(1000)).sensorStatusChanged();
     }
 
     // --- Sensor Add/Remove ---
@@ -266,12 +277,7 @@ class SecurityServiceTest {
 
     @Test
     void noCatAndAllSensorsInactiveDuringPending_setsNAlarm() {
-        Sensor sensor1 = new Sensor("Door", SensorType.DOOR);
-        Sensor sensor2 = new Sensor("Window", SensorType.WINDOW);
-        sensor1.setActive(false);
-        sensor2.setActive(false);
-
-        when(securityRepository.getSensors()).thenReturn(Set.of(sensor1, sensor2));
+        when(securityRepository.getActiveSensorCount()).thenReturn(0);
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(false);
         when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.PENDING_ALARM);
 
@@ -284,7 +290,7 @@ class SecurityServiceTest {
     @Test
     void pendingAlarmAndAllSensorsInactive_setsNAlarm() {
         when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.PENDING_ALARM);
-        when(securityRepository.getSensors()).thenReturn(new HashSet<>());
+        when(securityRepository.getActiveSensorCount()).thenReturn(0);
 
         securityService.checkSensorsAndUpdateStatus();
 
@@ -305,19 +311,12 @@ class SecurityServiceTest {
         assertFalse(sensor1.getActive());
         assertFalse(sensor2.getActive());
 
-        verify(securityRepository).updateSensor(sensor1);
-        verify(securityRepository).updateSensor(sensor2);
+        verify(securityRepository).updateSensors(argThat(updated -> updated.containsAll(Set.of(sensor1, sensor2))));
     }
 
     @Test
     void noCatDetectedAndAllSensorsInactive_setsNAlarm() {
-        Sensor sensor1 = new Sensor("Window", SensorType.WINDOW);
-        Sensor sensor2 = new Sensor("Door", SensorType.DOOR);
-        sensor1.setActive(false);
-        sensor2.setActive(false);
-
-        Set<Sensor> sensors = Set.of(sensor1, sensor2);
-        when(securityRepository.getSensors()).thenReturn(sensors);
+        when(securityRepository.getActiveSensorCount()).thenReturn(0);
         when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(false);
 
         securityService.processImage(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
@@ -350,4 +349,88 @@ class SecurityServiceTest {
         verify(securityRepository, never()).setAlarmStatus(any());
     }
 
+    // --- Multiple Cameras ---
+
+    @Test
+    void catOnOneCamera_staysDetectedWhileAnotherCameraSeesNone() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        BufferedImage cat = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage empty = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        when(imageService.imageContainsCat(any(), anyFloat())).thenAnswer(invocation -> invocation.getArgument(0) == cat);
+
+        securityService.processImage("garden", cat);
+        securityService.processImage("hall", empty);
+
+        verify(securityRepository, never()).setAlarmStatus(AlarmStatus.NO_ALARM);
+        assertEquals(Set.of("garden"), securityService.getCamerasDetectingCat());
+
+        securityService.removeCamera("garden");
+
+        verify(securityRepository).setAlarmStatus(AlarmStatus.NO_ALARM);
+        assertEquals(Set.of(), securityService.getCamerasDetectingCat());
+    }
+
+    @Test
+    void staleResultOfOneCamera_doesNotHideNewerResultOfAnother() {
+        CompletableFuture<Boolean> older = new CompletableFuture<>();
+        CompletableFuture<Boolean> newer = new CompletableFuture<>();
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(older, newer);
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+        CompletableFuture<Void> first = securityService.processImageAsync("garden", image);
+        CompletableFuture<Void> second = securityService.processImageAsync("hall", image);
+        newer.complete(false);
+        second.join();
+        older.complete(true);
+        first.join();
+
+        assertEquals(Set.of("garden"), securityService.getCamerasDetectingCat());
+    }
+
+    // --- Async Commands ---
+
+    @Test
+    void processImageAsync_appliesResultOnEventLoop() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(CompletableFuture.completedFuture(true));
+        securityService.addStatusListener(statusListener);
+
+        securityService.processImageAsync(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)).join();
+
+        verify(securityRepository).setAlarmStatus(AlarmStatus.ALARM);
+        verify(statusListener, timeout(1000)).catDetected(true);
+    }
+
+    @Test
+    void processImageAsync_staleResultDoesNotOverwriteNewerOne() {
+        lenient().when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        CompletableFuture<Boolean> older = new CompletableFuture<>();
+        CompletableFuture<Boolean> newer = new CompletableFuture<>();
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(older, newer);
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+        CompletableFuture<Void> first = securityService.processImageAsync(image);
+        CompletableFuture<Void> second = securityService.processImageAsync(image);
+        newer.complete(false);
+        second.join();
+        older.complete(true);
+        first.join();
+
+        verify(securityRepository, never()).setAlarmStatus(AlarmStatus.ALARM);
+    }
+
+    @Test
+    void asyncCommands_runOnSingleWriterThread() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(securityRepository).setArmingStatus(any());
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(securityRepository).updateSensor(any());
+        Sensor sensor = new Sensor("S1", SensorType.DOOR);
+
+        CompletableFuture.allOf(
+                securityService.setArmingStatusAsync(ArmingStatus.DISARMED),
+                securityService.changeSensorActivationStatusAsync(sensor, true),
+                securityService.setArmingStatusAsync(ArmingStatus.DISARMED)).join();
+
+        assertEquals(Set.of("catpoint-security-loop"), threads);
+    }
 }
@@ -0,0 +1,86 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.*;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.service.SecurityService;
+import com.udacity.catpoint.service.SensorEventIngester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensorEventIngesterTest {
+
+    private SqlSecurityRepositoryImpl repository;
+    private SecurityService securityService;
+    private SensorEventIngester ingester;
+
+    @Mock private ImageService imageService;
+    @Mock private StatusListener statusListener;
+
+    @BeforeEach
+    void init() {
+        repository = spy(new SqlSecurityRepositoryImpl("jdbc:h2:mem:ingester"));
+        securityService = new SecurityService(repository, imageService);
+        ingester = new SensorEventIngester(securityService, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void close() {
+        ingester.close();
+        repository.close();
+    }
+
+    @Test
+    void flappingSensorsWhileDisarmed_areWrittenOnceAsBatch() {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        securityService.addSensor(door);
+        securityService.addSensor(window);
+
+        for (int i = 0; i < 100; i++) {
+            ingester.submit(door, i % 2 == 0);
+            ingester.submit(window, i % 2 == 0);
+        }
+        ingester.submit(door, true);
+        ingester.flush().join();
+
+        assertTrue(door.getActive());
+        assertFalse(window.getActive());
+        assertEquals(201, ingester.getReceivedCount());
+        assertEquals(2, ingester.getAppliedCount());
+        verify(repository, never()).updateSensor(any());
+        verify(repository, times(1)).updateSensors(anyCollection());
+        assertEquals(1, repository.getActiveSensorCount());
+    }
+
+    @Test
+    void activationEdgeWhileArmed_isKeptEvenIfSensorEndsInactive() {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        securityService.addStatusListener(statusListener);
+
+        for (int i = 0; i < 10; i++) {
+            ingester.submit(door, true);
+            ingester.submit(door, false);
+        }
+        ingester.flush().join();
+
+        verify(repository).setAlarmStatus(AlarmStatus.PENDING_ALARM);
+        verify(statusListener, timeout(1000)).notify(AlarmStatus.NO_ALARM);
+        assertFalse(door.getActive());
+        assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+    }
+}
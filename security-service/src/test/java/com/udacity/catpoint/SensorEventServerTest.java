@@ -0,0 +1,143 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.CopyOnWriteSecurityRepository;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.SensorEventCodec;
+import com.udacity.catpoint.net.SensorEventServer;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorEventServerTest {
+
+    private SecurityService securityService;
+    private SensorEventServer server;
+    private Sensor door;
+
+    @BeforeEach
+    void init() throws Exception {
+        securityService = new SecurityService(new SqlSecurityRepositoryImpl("jdbc:h2:mem:sensor-server"),
+                (image, confidenceThreshold) -> false);
+        door = new Sensor("Front door", SensorType.DOOR);
+        securityService.addSensor(door);
+        server = new SensorEventServer(securityService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        server.close();
+    }
+
+    private static ByteBuffer frames(UUID sensorId, boolean... active) {
+        ByteBuffer buffer = ByteBuffer.allocate(active.length * SensorEventCodec.FRAME_SIZE);
+        for (boolean state : active) {
+            SensorEventCodec.encode(buffer, sensorId, state, 0);
+        }
+        return buffer.flip();
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+
+    private boolean doorActive() {
+        return securityService.getSensors().stream()
+                .filter(door::equals)
+                .findFirst().orElseThrow().getActive();
+    }
+
+    @Test
+    void tcpFramesSplitAcrossWrites_areAppliedInOrder() throws Exception {
+        ByteBuffer stream = frames(door.getSensorId(), true, false, true);
+        try (SocketChannel channel = SocketChannel.open(server.getLocalAddress())) {
+            // Split mid-frame so the server has to carry a partial frame over to the next read.
+            ByteBuffer first = stream.duplicate().limit(SensorEventCodec.FRAME_SIZE + 5);
+            channel.write(first);
+            Thread.sleep(50);
+            channel.write(stream.position(SensorEventCodec.FRAME_SIZE + 5));
+
+            awaitCount(server::getAppliedCount, 3);
+        }
+
+        assertTrue(doorActive());
+        assertEquals(0, server.getMalformedCount());
+        assertTrue(server.getLatencyPercentile(0.99).compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void udpDatagram_deactivatesSensor() throws Exception {
+        securityService.changeSensorActivationStatus(door, true);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.send(frames(door.getSensorId(), false), server.getLocalAddress());
+
+            awaitCount(server::getAppliedCount, 1);
+        }
+
+        assertFalse(doorActive());
+    }
+
+    @Test
+    void unknownSensorAndMalformedFrame_areCountedAndConnectionClosed() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(server.getLocalAddress())) {
+            channel.write(frames(UUID.randomUUID(), true));
+            awaitCount(server::getUnknownSensorCount, 1);
+
+            channel.write(ByteBuffer.allocate(SensorEventCodec.FRAME_SIZE));
+            awaitCount(server::getMalformedCount, 1);
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+
+        assertEquals(0, server.getAppliedCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void armingBetweenNetworkEvents_isNotOverwrittenByCachedSensorState(boolean copyOnWrite) throws Exception {
+        SqlSecurityRepositoryImpl backend = new SqlSecurityRepositoryImpl("jdbc:h2:mem:sensor-server-" + UUID.randomUUID());
+        SecurityService service = new SecurityService(copyOnWrite ? new CopyOnWriteSecurityRepository(backend) : backend,
+                (image, confidenceThreshold) -> false);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        service.addSensor(window);
+        try (SensorEventServer armedServer = new SensorEventServer(service,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            armedServer.start();
+            try (SocketChannel channel = SocketChannel.open(armedServer.getLocalAddress())) {
+                channel.write(frames(window.getSensorId(), true, false));
+                awaitCount(armedServer::getAppliedCount, 2);
+
+                // Each event must see the window as the previous one left it, not as it was when
+                // the server first looked the sensor up: open, close and open again is one pending
+                // alarm, while a stale closed window would turn the close into a no-op and the
+                // second open into an alarm.
+                service.setArmingStatus(ArmingStatus.ARMED_HOME);
+                channel.write(frames(window.getSensorId(), true, false, true));
+                awaitCount(() -> armedServer.getAppliedCount() + armedServer.getFailedCount(), 5);
+            }
+        }
+
+        assertEquals(AlarmStatus.PENDING_ALARM, service.getAlarmStatus());
+    }
+}
@@ -0,0 +1,60 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorIndex;
+import com.udacity.catpoint.data.SensorType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorIndexTest {
+
+    private final SensorIndex index = new SensorIndex();
+
+    @Test
+    void activeCounters_trackMutatedSensors() {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor motion = new Sensor("Hall", SensorType.MOTION);
+        index.add(door);
+        index.add(motion);
+        assertTrue(index.allInactive());
+
+        door.setActive(true);
+        index.update(door);
+        motion.setActive(true);
+        index.update(motion);
+        assertEquals(2, index.getActiveCount());
+        assertEquals(1, index.getActiveCount(SensorType.MOTION));
+        assertEquals(0, index.getActiveCount(SensorType.WINDOW));
+
+        index.remove(motion.getSensorId());
+        assertEquals(1, index.getActiveCount());
+        assertEquals(0, index.getCount(SensorType.MOTION));
+
+        door.setActive(false);
+        index.update(door);
+        assertTrue(index.allInactive());
+    }
+
+    @Test
+    void renamedSensor_isUpdatedAndResorted() {
+        Sensor a = new Sensor("A", SensorType.DOOR);
+        Sensor b = new Sensor("B", SensorType.DOOR);
+        index.add(a);
+        index.add(b);
+
+        a.setName("C");
+        assertTrue(index.update(a));
+
+        assertEquals(List.of(b, a), index.sortedCopy());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void update_ofUnknownSensor_isRejected() {
+        assertFalse(index.update(new Sensor("Ghost", SensorType.WINDOW)));
+        assertEquals(0, index.size());
+    }
+}
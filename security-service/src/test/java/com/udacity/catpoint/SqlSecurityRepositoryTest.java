@@ -0,0 +1,60 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlSecurityRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private String url() {
+        return "jdbc:h2:file:" + dir.resolve("catpoint").toAbsolutePath();
+    }
+
+    @Test
+    void mutations_surviveReopen() {
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        Sensor motion = new Sensor("Hall", SensorType.MOTION);
+        try (SqlSecurityRepositoryImpl repository = new SqlSecurityRepositoryImpl(url())) {
+            repository.addSensor(door);
+            repository.addSensor(window);
+            repository.addSensor(motion);
+            repository.removeSensor(motion);
+            door.setActive(true);
+            window.setActive(true);
+            window.setName("Back Window");
+            repository.updateSensors(List.of(door, window));
+            repository.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+            repository.setArmingStatus(ArmingStatus.ARMED_HOME);
+        }
+
+        try (SqlSecurityRepositoryImpl reopened = new SqlSecurityRepositoryImpl(url())) {
+            assertEquals(2, reopened.getSensors().size());
+            assertEquals(2, reopened.getActiveSensorCount());
+            assertEquals("Back Window", reopened.getSortedSensors().get(0).getName());
+            assertEquals(AlarmStatus.PENDING_ALARM, reopened.getAlarmStatus());
+            assertEquals(ArmingStatus.ARMED_HOME, reopened.getArmingStatus());
+        }
+    }
+
+    @Test
+    void factory_createsSqlBackend() {
+        SecurityRepository repository = SecurityRepositoryFactory.create("sql", url());
+        assertInstanceOf(SqlSecurityRepositoryImpl.class, repository);
+        ((SqlSecurityRepositoryImpl) repository).close();
+        assertThrows(IllegalArgumentException.class, () -> SecurityRepositoryFactory.create("carrier-pigeon", null));
+    }
+
+    @Test
+    void unopenableDatabase_failsConstruction() {
+        assertThrows(IllegalStateException.class, () -> new SqlSecurityRepositoryImpl("jdbc:not-a-database:catpoint"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.data.ArmingStatus;
+import com.udacity.catpoint.data.ReplicatedSecurityRepository;
+import com.udacity.catpoint.data.ReplicationRecord;
+import com.udacity.catpoint.data.SecurityRepository;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.ReplicationServer;
+import com.udacity.catpoint.net.StandbyReplica;
+import com.udacity.catpoint.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandbyReplicaTest {
+
+    private ReplicatedSecurityRepository primary;
+    private ReplicationServer server;
+    private SecurityRepository replica;
+    private StandbyReplica standby;
+    private Sensor door;
+
+    private static SecurityRepository memoryRepository() {
+        return new SqlSecurityRepositoryImpl("jdbc:h2:mem:replication-" + UUID.randomUUID());
+    }
+
+    @BeforeEach
+    void init() throws Exception {
+        primary = new ReplicatedSecurityRepository(memoryRepository());
+        door = new Sensor("Front door", SensorType.DOOR);
+        primary.addSensor(door);
+        server = new ReplicationServer(primary, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        replica = memoryRepository();
+        standby = new StandbyReplica(replica, server.getLocalAddress());
+        standby.start();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        standby.close();
+        server.close();
+        primary.close();
+    }
+
+    private static void awaitValue(LongSupplier value, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (value.getAsLong() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, value.getAsLong());
+    }
+
+    @Test
+    void standby_receivesFullStateThenEveryChange() throws Exception {
+        awaitValue(standby::getAppliedSequence, primary.getSequence());
+
+        SecurityService securityService = new SecurityService(primary, (image, confidenceThreshold) -> false);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        securityService.changeSensorActivationStatus(door, true);
+        awaitValue(standby::getAppliedSequence, primary.getSequence());
+
+        assertEquals(ArmingStatus.ARMED_HOME, replica.getArmingStatus());
+        assertEquals(AlarmStatus.PENDING_ALARM, replica.getAlarmStatus());
+        assertEquals(List.of(door), replica.getSortedSensors());
+        assertTrue(replica.getSensors().iterator().next().getActive());
+        assertEquals(1, standby.getFullStateCount());
+        awaitValue(server::getAcknowledgedSequence, primary.getSequence());
+    }
+
+    @Test
+    void recordsOlderThanBacklog_areReplacedByFullState() throws Exception {
+        ReplicatedSecurityRepository small = new ReplicatedSecurityRepository(memoryRepository(), 4);
+        small.addSensor(door);
+        small.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        assertEquals(List.of(ReplicationRecord.ADD_SENSOR, ReplicationRecord.ARMING_STATUS),
+                small.awaitRecordsAfter(0, 10, 0).stream().map(ReplicationRecord::type).toList());
+
+        for (int i = 0; i < 3; i++) {
+            door.setActive(i % 2 == 0);
+            small.updateSensor(door);
+        }
+        small.setAlarmStatus(AlarmStatus.ALARM);
+        List<ReplicationRecord> records = small.awaitRecordsAfter(1, 10, 0);
+
+        assertEquals(1, records.size());
+        assertEquals(ReplicationRecord.FULL_STATE, records.get(0).type());
+        assertEquals(small.getSequence(), records.get(0).sequence());
+        SecurityRepository copy = memoryRepository();
+        records.get(0).applyTo(copy);
+        assertEquals(small.getState(), copy.getState());
+        assertTrue(copy.getSensors().iterator().next().getActive());
+        assertTrue(small.awaitRecordsAfter(small.getSequence(), 10, Duration.ofMillis(10).toNanos()).isEmpty());
+    }
+
+    @Test
+    void promote_afterPrimaryLoss_handsOverAppliedState() throws Exception {
+        primary.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        awaitValue(standby::getAppliedSequence, primary.getSequence());
+
+        server.close();
+        standby.awaitPrimaryLoss(Duration.ofMillis(200));
+        SecurityRepository promoted = standby.promote(Duration.ofSeconds(1));
+
+        assertFalse(standby.isConnected());
+        assertEquals(0, standby.getLag());
+        assertSame(replica, promoted);
+        assertEquals(ArmingStatus.ARMED_AWAY, promoted.getArmingStatus());
+        promoted.setAlarmStatus(AlarmStatus.ALARM);
+        assertEquals(AlarmStatus.ALARM, promoted.getAlarmStatus());
+    }
+}
@@ -0,0 +1,88 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.AlarmStatus;
+import com.udacity.catpoint.service.StatusListenerDispatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusListenerDispatcherTest {
+
+    @Mock private StatusListener slowListener;
+    @Mock private StatusListener fastListener;
+
+    @Test
+    void slowListener_doesNotDelayOthersAndOnlySeesLatestStatus() throws InterruptedException {
+        StatusListenerDispatcher dispatcher = new StatusListenerDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(slowListener).catDetected(true);
+        dispatcher.addListener(slowListener);
+        dispatcher.addListener(fastListener);
+
+        dispatcher.catDetected(true);
+        blocked.await();
+        dispatcher.alarmStatusChanged(AlarmStatus.PENDING_ALARM);
+        dispatcher.alarmStatusChanged(AlarmStatus.ALARM);
+        dispatcher.alarmStatusChanged(AlarmStatus.NO_ALARM);
+
+        verify(fastListener, timeout(1000)).notify(AlarmStatus.NO_ALARM);
+        verify(slowListener, never()).notify(any());
+
+        release.countDown();
+        verify(slowListener, timeout(1000)).notify(AlarmStatus.NO_ALARM);
+        verify(slowListener, never()).notify(AlarmStatus.PENDING_ALARM);
+        verify(slowListener, never()).notify(AlarmStatus.ALARM);
+    }
+
+    @Test
+    void busyMailbox_keepsLatestOfEveryKindWithoutDroppingAny() throws InterruptedException {
+        StatusListenerDispatcher dispatcher = new StatusListenerDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(slowListener).sensorStatusChanged();
+        dispatcher.addListener(slowListener);
+
+        dispatcher.sensorStatusChanged();
+        blocked.await();
+        dispatcher.alarmStatusChanged(AlarmStatus.ALARM);
+        for (int i = 0; i < 100; i++) {
+            dispatcher.catDetected(i % 2 == 0);
+        }
+        release.countDown();
+
+        verify(slowListener, timeout(1000)).catDetected(false);
+        verify(slowListener).notify(AlarmStatus.ALARM);
+        verify(slowListener, never()).catDetected(true);
+        assertEquals(99, dispatcher.getCoalescedCount());
+    }
+
+    @Test
+    void errorInListener_doesNotStopLaterDeliveries() {
+        StatusListenerDispatcher dispatcher = new StatusListenerDispatcher();
+        doThrow(new AssertionError("listener bug")).when(slowListener).notify(AlarmStatus.PENDING_ALARM);
+        dispatcher.addListener(slowListener);
+
+        dispatcher.alarmStatusChanged(AlarmStatus.PENDING_ALARM);
+        verify(slowListener, timeout(1000)).notify(AlarmStatus.PENDING_ALARM);
+        dispatcher.alarmStatusChanged(AlarmStatus.ALARM);
+
+        verify(slowListener, timeout(1000)).notify(AlarmStatus.ALARM);
+    }
+}
@@ -0,0 +1,103 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.TiledImageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TiledImageServiceTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+    private final List<String> tiles = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    private ImageService classifier(Predicate<BufferedImage> isCat) {
+        return (image, confidenceThreshold) -> {
+            int origin = image.getRGB(0, 0) & 0xffffff;
+            tiles.add((origin >> 12) + "," + (origin & 0xfff) + " " + image.getWidth() + "x" + image.getHeight());
+            return isCat.test(image);
+        };
+    }
+
+    /**
+     * Frame whose pixels encode their own coordinates, so a tile's origin can be read back.
+     */
+    private static BufferedImage frame(int width, int height) {
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                frame.setRGB(x, y, x << 12 | y);
+            }
+        }
+        return frame;
+    }
+
+    @Test
+    void smallFrame_isClassifiedWhole() {
+        TiledImageService tiled = new TiledImageService(classifier(image -> false), 512, 128, pool);
+
+        assertFalse(tiled.imageContainsCat(frame(400, 300), 50f));
+        assertEquals(List.of("0,0 400x300"), tiles);
+    }
+
+    @Test
+    void largeFrame_isCoveredByOverlappingTilesEndingAtTheEdges() {
+        TiledImageService tiled = new TiledImageService(classifier(image -> false), 512, 128, pool);
+
+        assertFalse(tiled.imageContainsCat(frame(1000, 600), 50f));
+        assertEquals(6, tiles.size());
+        assertTrue(tiles.stream().allMatch(tile -> tile.endsWith("512x512")));
+        assertTrue(tiles.containsAll(List.of("0,0 512x512", "384,0 512x512", "488,0 512x512", "0,88 512x512", "488,88 512x512")));
+        assertEquals(6, tiled.getClassifiedTileCount());
+    }
+
+    @Test
+    void catInAnyTile_skipsTilesNotYetStarted() {
+        TiledImageService tiled = new TiledImageService(classifier(image -> true), 512, 128, pool);
+
+        assertTrue(tiled.imageContainsCat(frame(1000, 600), 50f));
+        pool.awaitQuiescence(1, TimeUnit.SECONDS);
+        assertEquals(1, tiled.getClassifiedTileCount());
+        assertEquals(5, tiled.getSkippedTileCount());
+    }
+
+    @Test
+    void failedTile_failsFrameWithoutCat() {
+        TiledImageService tiled = new TiledImageService(classifier(image -> {
+            if ((image.getRGB(0, 0) & 0xffffff) == 0) {
+                throw new IllegalStateException("classifier unavailable");
+            }
+            return false;
+        }), 512, 128, pool);
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> tiled.imageContainsCat(frame(1000, 600), 50f));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void tileThrowingError_stillCompletesFrame() {
+        TiledImageService tiled = new TiledImageService(classifier(image -> {
+            throw new AssertionError("classifier crashed");
+        }), 512, 128, pool);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> tiled.imageContainsCatAsync(frame(1000, 600), 50f).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, e.getCause());
+    }
+}
@@ -0,0 +1,88 @@
+package com.udacity.catpoint;
+
+import com.udacity.catpoint.data.*;
+import com.udacity.catpoint.data.WriteBehindSecurityRepository.Durability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindSecurityRepositoryTest {
+
+    @Mock private SecurityRepository delegate;
+
+    @BeforeEach
+    void init() {
+        when(delegate.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        when(delegate.getArmingStatus()).thenReturn(ArmingStatus.DISARMED);
+        when(delegate.getSensors()).thenReturn(Set.of());
+    }
+
+    @Test
+    void asyncWrites_areCoalescedToLatestValuePerKey() throws IOException {
+        WriteBehindSecurityRepository repository = WriteBehindSecurityRepository.start(delegate, Durability.ASYNC, Duration.ofHours(1), 1000);
+        Sensor sensor = new Sensor("Door", SensorType.DOOR);
+        repository.addSensor(sensor);
+        for (int i = 0; i < 50; i++) {
+            repository.setAlarmStatus(i % 2 == 0 ? AlarmStatus.PENDING_ALARM : AlarmStatus.ALARM);
+            sensor.setActive(i % 2 == 0);
+            repository.updateSensor(sensor);
+        }
+
+        assertEquals(AlarmStatus.ALARM, repository.getAlarmStatus());
+        verify(delegate, never()).setAlarmStatus(any());
+
+        repository.close();
+
+        verify(delegate).setAlarmStatus(AlarmStatus.ALARM);
+        verify(delegate).addSensor(sensor);
+        verify(delegate, never()).updateSensor(any());
+        verify(delegate, never()).setAlarmStatus(AlarmStatus.PENDING_ALARM);
+    }
+
+    @Test
+    void groupCommit_returnsAfterWriteReachesDelegate() throws IOException {
+        WriteBehindSecurityRepository repository = WriteBehindSecurityRepository.start(delegate, Durability.GROUP_COMMIT, Duration.ofMillis(5), 1000);
+
+        repository.setArmingStatus(ArmingStatus.ARMED_HOME);
+
+        verify(delegate).setArmingStatus(ArmingStatus.ARMED_HOME);
+        repository.close();
+    }
+
+    @Test
+    void sync_writesThroughImmediately() throws IOException {
+        WriteBehindSecurityRepository repository = WriteBehindSecurityRepository.start(delegate, Durability.SYNC, Duration.ofHours(1), 1000);
+        Sensor sensor = new Sensor("Door", SensorType.DOOR);
+
+        repository.addSensor(sensor);
+        repository.removeSensor(sensor);
+
+        verify(delegate).addSensor(sensor);
+        verify(delegate).removeSensor(sensor);
+        repository.close();
+    }
+
+    @Test
+    void failedCommit_isReportedAndRetried() throws IOException {
+        WriteBehindSecurityRepository repository = WriteBehindSecurityRepository.start(delegate, Durability.SYNC, Duration.ofHours(1), 1000);
+        doThrow(new IllegalStateException("disk full")).doNothing().when(delegate).setArmingStatus(ArmingStatus.ARMED_HOME);
+
+        assertThrows(IllegalStateException.class, () -> repository.setArmingStatus(ArmingStatus.ARMED_HOME));
+        assertEquals(ArmingStatus.ARMED_HOME, repository.getArmingStatus());
+        repository.flush();
+
+        verify(delegate, times(2)).setArmingStatus(ArmingStatus.ARMED_HOME);
+        repository.close();
+    }
+}
@@ -0,0 +1,123 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.camera.AdaptiveSamplingScheduler;
+import com.udacity.catpoint.camera.SamplingPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a day of a 10 fps camera with randomly placed cat incidents and compares fixed
+ * sampling rates with {@link AdaptiveSamplingScheduler}. Half of the incidents start with a
+ * sensor going active a few seconds before the cat appears; in the others the cat shows up
+ * unannounced. The classifier is assumed to be perfect, so the detection delay is the time from
+ * the cat appearing to the first frame classified while it is in view.
+ */
+public class AdaptiveSamplingBenchmark {
+    private static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long DAY_NANOS = TimeUnit.HOURS.toNanos(24);
+    private static final int INCIDENTS = 40;
+
+    public static void main(String[] args) {
+        List<Incident> incidents = incidents(new Random(7));
+        System.out.printf("%d incidents in 24 h, camera at 10 fps%n", incidents.size());
+        System.out.printf("%-14s %12s %10s %14s %14s %8s%n", "strategy", "calls", "saved", "mean delay s", "max delay s", "missed");
+        long baseline = report("fixed 5 fps", incidents, new FixedRate(5), 0);
+        report("fixed 1 fps", incidents, new FixedRate(1), baseline);
+        report("fixed 0.2 fps", incidents, new FixedRate(0.2), baseline);
+        report("adaptive", incidents, null, baseline);
+    }
+
+    private static List<Incident> incidents(Random random) {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < INCIDENTS; i++) {
+            long start = (long) (random.nextDouble() * (DAY_NANOS - TimeUnit.MINUTES.toNanos(5)));
+            boolean announced = i % 2 == 0;
+            long catAt = announced ? start + seconds(2 + random.nextDouble() * 18) : start;
+            long catUntil = catAt + seconds(10 + random.nextDouble() * 50);
+            incidents.add(new Incident(announced ? start : -1, announced ? start + seconds(60) : -1, catAt, catUntil));
+        }
+        return incidents;
+    }
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * 1e9);
+    }
+
+    private static long report(String name, List<Incident> incidents, FixedRate fixed, long baseline) {
+        long[] clock = {0};
+        boolean[] sensorActive = {false};
+        AdaptiveSamplingScheduler scheduler = new AdaptiveSamplingScheduler(SamplingPolicy.DEFAULT, () -> sensorActive[0], () -> clock[0]);
+        long calls = 0;
+        long[] detectedAt = new long[incidents.size()];
+        Arrays.fill(detectedAt, -1);
+        boolean catReported = false;
+        for (long now = 0; now < DAY_NANOS; now += STEP_NANOS) {
+            clock[0] = now;
+            boolean sensor = false;
+            int catIncident = -1;
+            for (int i = 0; i < incidents.size(); i++) {
+                Incident incident = incidents.get(i);
+                sensor |= now >= incident.sensorFrom() && now < incident.sensorUntil();
+                if (now >= incident.catFrom() && now < incident.catUntil()) {
+                    catIncident = i;
+                }
+            }
+            if (sensor != sensorActive[0]) {
+                sensorActive[0] = sensor;
+                scheduler.sensorStatusChanged();
+            }
+            boolean sample = fixed == null ? scheduler.trySample("camera") : fixed.trySample(now);
+            if (!sample) {
+                continue;
+            }
+            calls++;
+            boolean cat = catIncident >= 0;
+            if (cat && detectedAt[catIncident] < 0) {
+                detectedAt[catIncident] = now;
+            }
+            if (cat != catReported) {
+                catReported = cat;
+                scheduler.catDetected(cat);
+            }
+        }
+        double totalDelay = 0;
+        double maxDelay = 0;
+        int detected = 0;
+        for (int i = 0; i < incidents.size(); i++) {
+            if (detectedAt[i] >= 0) {
+                double delay = (detectedAt[i] - incidents.get(i).catFrom()) / 1e9;
+                totalDelay += delay;
+                maxDelay = Math.max(maxDelay, delay);
+                detected++;
+            }
+        }
+        String saved = baseline == 0 ? "-" : String.format("%.1f%%", 100.0 * (baseline - calls) / baseline);
+        System.out.printf("%-14s %,12d %10s %14.2f %14.2f %8d%n", name, calls, saved,
+                totalDelay / Math.max(1, detected), maxDelay, incidents.size() - detected);
+        return calls;
+    }
+
+    private record Incident(long sensorFrom, long sensorUntil, long catFrom, long catUntil) {
+    }
+
+    private static final class FixedRate {
+        private final long intervalNanos;
+        private long next;
+
+        private FixedRate(double fps) {
+            this.intervalNanos = (long) (1e9 / fps);
+        }
+
+        private boolean trySample(long now) {
+            if (now < next) {
+                return false;
+            }
+            next = now + intervalNanos;
+            return true;
+        }
+    }
+}
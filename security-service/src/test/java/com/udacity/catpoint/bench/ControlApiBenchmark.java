@@ -0,0 +1,154 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.ControlApiServer;
+import com.udacity.catpoint.service.SecurityService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link ControlApiServer} over loopback from several keep-alive clients issuing a mix of
+ * status reads (80%), sensor listings (10%) and sensor toggles (10%), first alone and then with
+ * many event-stream subscribers connected. Reports requests per second and latency percentiles.
+ */
+public class ControlApiBenchmark {
+    private static final int SENSORS = 64;
+    private static final int CLIENTS = 8;
+    private static final int SUBSCRIBERS = 100;
+    private static final long WARMUP_SECONDS = 3;
+    private static final long RUN_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        System.out.printf("%d clients, %d sensors, %d worker threads, %d s per run%n",
+                CLIENTS, SENSORS, ControlApiServer.DEFAULT_THREADS, RUN_SECONDS);
+        System.out.printf("%-16s %12s %10s %10s %10s%n", "subscribers", "requests/s", "p50 ms", "p99 ms", "max ms");
+        run(0, false);
+        run(0, true);
+        run(SUBSCRIBERS, true);
+    }
+
+    private static void run(int subscribers, boolean report) throws Exception {
+        SecurityService securityService = new SecurityService(
+                new SqlSecurityRepositoryImpl("jdbc:h2:mem:api-" + subscribers + report), (image, confidenceThreshold) -> false);
+        List<Sensor> sensors = new ArrayList<>();
+        for (int i = 0; i < SENSORS; i++) {
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensor);
+            sensors.add(sensor);
+        }
+        try (ControlApiServer server = new ControlApiServer(securityService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+            int port = server.getLocalAddress().getPort();
+            List<Socket> streams = new ArrayList<>();
+            for (int i = 0; i < subscribers; i++) {
+                streams.add(subscribe(port));
+            }
+            long seconds = report ? RUN_SECONDS : WARMUP_SECONDS;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<long[]> latencies = new ArrayList<>();
+            List<Thread> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                long[][] result = new long[1][];
+                latencies.add(null);
+                int index = c;
+                Thread client = new Thread(() -> {
+                    result[0] = drive(port, sensors, deadline);
+                    synchronized (latencies) {
+                        latencies.set(index, result[0]);
+                    }
+                }, "api-client-" + c);
+                client.start();
+                clients.add(client);
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+            for (Socket stream : streams) {
+                stream.close();
+            }
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            if (report) {
+                System.out.printf("%-16d %,12.0f %10.2f %10.2f %10.2f%n", subscribers, all.length / (double) seconds,
+                        all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+            }
+        }
+    }
+
+    private static long[] drive(int port, List<Sensor> sensors, long deadline) {
+        long[] latencies = new long[1 << 16];
+        int count = 0;
+        byte[] on = "{\"active\": true}".getBytes(StandardCharsets.UTF_8);
+        byte[] off = "{\"active\": false}".getBytes(StandardCharsets.UTF_8);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            while (System.nanoTime() < deadline) {
+                int kind = random.nextInt(10);
+                long start = System.nanoTime();
+                HttpURLConnection connection;
+                if (kind < 8) {
+                    connection = (HttpURLConnection) new URL("http", "localhost", port, "/api/status").openConnection();
+                } else if (kind == 8) {
+                    connection = (HttpURLConnection) new URL("http", "localhost", port, "/api/sensors").openConnection();
+                } else {
+                    Sensor sensor = sensors.get(random.nextInt(sensors.size()));
+                    connection = (HttpURLConnection) new URL("http", "localhost", port, "/api/sensors/" + sensor.getSensorId()).openConnection();
+                    connection.setRequestMethod("PUT");
+                    connection.setDoOutput(true);
+                    try (OutputStream body = connection.getOutputStream()) {
+                        body.write(random.nextBoolean() ? on : off);
+                    }
+                }
+                if (connection.getResponseCode() != 200) {
+                    throw new IllegalStateException("Request failed with " + connection.getResponseCode());
+                }
+                try (InputStream body = connection.getInputStream()) {
+                    body.readAllBytes();
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * Opens an event stream and drains it on a daemon thread until the socket is closed.
+     */
+    private static Socket subscribe(int port) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.getOutputStream().write("GET /api/events HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[4096];
+            try (InputStream in = socket.getInputStream()) {
+                while (in.read(buffer) >= 0) {
+                    // Discard the events.
+                }
+            } catch (IOException e) {
+                // Closed at the end of the run.
+            }
+        }, "api-subscriber");
+        reader.setDaemon(true);
+        reader.start();
+        return socket;
+    }
+}
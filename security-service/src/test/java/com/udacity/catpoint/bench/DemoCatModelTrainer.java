@@ -0,0 +1,182 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.image.ConvNet;
+import com.udacity.catpoint.image.LocalCatClassifier;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Regenerates the demonstration model bundled with {@link LocalCatClassifier}. The convolution
+ * filters are fixed, seeded random features; only the final dense layer is fitted, by logistic
+ * regression on randomly cropped, flipped and brightened copies of the two sample images, plus
+ * copies of the field with the cat pasted in at a smaller scale so a cat that fills only part of
+ * a frame or tile still counts. The result is deterministic. It separates the samples but is not
+ * a general cat detector.
+ */
+public class DemoCatModelTrainer {
+    private static final int INPUT_SIZE = 128;
+    private static final int[] CHANNELS = {3, 16, 32, 64};
+    private static final int AUGMENTED_PER_IMAGE = 300;
+    private static final double MIN_CROP = 0.2;
+    private static final double MIN_PASTED_CAT = 0.4;
+    private static final int EPOCHS = 20000;
+    private static final float LEARNING_RATE = 0.5f;
+    private static final float L2 = 0.0001f;
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(args.length > 0 ? args[0] : "../image-service/src/main/resources" + LocalCatClassifier.BUNDLED_MODEL);
+        Random random = new Random(42);
+        List<ConvNet.Layer> layers = new ArrayList<>();
+        for (int i = 1; i < CHANNELS.length; i++) {
+            layers.add(randomConv(CHANNELS[i - 1], CHANNELS[i], random));
+            layers.add(i < CHANNELS.length - 1 ? new ConvNet.MaxPool(2) : new ConvNet.GlobalAveragePool());
+        }
+        ConvNet features = new ConvNet(INPUT_SIZE, layers);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        BufferedImage cat = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+        BufferedImage notCat = ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile());
+        List<float[]> samples = new ArrayList<>();
+        List<Float> labels = new ArrayList<>();
+        for (int i = 0; i < AUGMENTED_PER_IMAGE; i++) {
+            samples.add(features.forward(augment(i % 2 == 0 ? cat : paste(cat, notCat, random), random), pool));
+            labels.add(1f);
+            // The field is sampled twice as often: most tiles of a large frame contain no cat.
+            for (int n = 0; n < 2; n++) {
+                samples.add(features.forward(augment(notCat, random), pool));
+                labels.add(0f);
+            }
+        }
+
+        int width = CHANNELS[CHANNELS.length - 1];
+        float[] mean = new float[width];
+        float[] std = new float[width];
+        for (float[] sample : samples) {
+            for (int j = 0; j < width; j++) {
+                mean[j] += sample[j] / samples.size();
+            }
+        }
+        for (float[] sample : samples) {
+            for (int j = 0; j < width; j++) {
+                std[j] += (sample[j] - mean[j]) * (sample[j] - mean[j]) / samples.size();
+            }
+        }
+        for (int j = 0; j < width; j++) {
+            std[j] = (float) Math.sqrt(std[j]) + 1e-6f;
+        }
+
+        float[] weights = new float[width];
+        float bias = 0;
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            float[] gradient = new float[width];
+            float biasGradient = 0;
+            for (int s = 0; s < samples.size(); s++) {
+                float[] x = samples.get(s);
+                float error = sigmoid(dot(weights, x, mean, std) + bias) - labels.get(s);
+                for (int j = 0; j < width; j++) {
+                    gradient[j] += error * (x[j] - mean[j]) / std[j] / samples.size();
+                }
+                biasGradient += error / samples.size();
+            }
+            for (int j = 0; j < width; j++) {
+                weights[j] -= LEARNING_RATE * (gradient[j] + L2 * weights[j]);
+            }
+            bias -= LEARNING_RATE * biasGradient;
+        }
+
+        // Fold the standardization into the dense layer so inference needs no extra step.
+        float[] folded = new float[width];
+        float foldedBias = bias;
+        for (int j = 0; j < width; j++) {
+            folded[j] = weights[j] / std[j];
+            foldedBias -= weights[j] * mean[j] / std[j];
+        }
+        layers.add(new ConvNet.Dense(width, 1, folded, new float[]{foldedBias}));
+        ConvNet model = new ConvNet(INPUT_SIZE, layers);
+
+        int correct = 0;
+        for (int s = 0; s < samples.size(); s++) {
+            if ((sigmoid(dot(weights, samples.get(s), mean, std) + bias) >= 0.5f) == (labels.get(s) == 1f)) {
+                correct++;
+            }
+        }
+        Files.createDirectories(output.getParent());
+        try (OutputStream out = Files.newOutputStream(output)) {
+            model.write(out);
+        }
+        LocalCatClassifier classifier = new LocalCatClassifier(model, 1);
+        System.out.printf("training accuracy %d/%d%n", correct, samples.size());
+        System.out.printf("sample-cat.jpg p(cat)=%.4f%n", classifier.catProbability(cat));
+        System.out.printf("sample-not-a-cat-fail.jpg p(cat)=%.4f%n", classifier.catProbability(notCat));
+        System.out.printf("wrote %s (%,d bytes)%n", output.toAbsolutePath().normalize(), Files.size(output));
+    }
+
+    private static ConvNet.Conv randomConv(int in, int out, Random random) {
+        float[] weights = new float[out * in * 9];
+        double scale = Math.sqrt(2.0 / (in * 9));
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) (random.nextGaussian() * scale);
+        }
+        return new ConvNet.Conv(in, out, 3, true, weights, new float[out]);
+    }
+
+    private static BufferedImage paste(BufferedImage cat, BufferedImage background, Random random) {
+        int size = 512;
+        BufferedImage composite = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = composite.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        int x = random.nextInt(background.getWidth() / 2);
+        int y = random.nextInt(background.getHeight() / 2);
+        graphics.drawImage(background, 0, 0, size, size, x, y, x + background.getWidth() / 2, y + background.getHeight() / 2, null);
+        int width = (int) (size * (MIN_PASTED_CAT + (1 - MIN_PASTED_CAT) * random.nextDouble()));
+        int height = width * cat.getHeight() / cat.getWidth();
+        graphics.drawImage(cat, random.nextInt(size - width + 1), random.nextInt(size - height + 1), width, height, null);
+        graphics.dispose();
+        return composite;
+    }
+
+    private static float[] augment(BufferedImage image, Random random) {
+        int width = (int) (image.getWidth() * cropFraction(random));
+        int height = (int) (image.getHeight() * cropFraction(random));
+        int x = random.nextInt(image.getWidth() - width + 1);
+        int y = random.nextInt(image.getHeight() - height + 1);
+        float[] tensor = LocalCatClassifier.toTensor(image.getSubimage(x, y, width, height), INPUT_SIZE);
+        float brightness = 0.8f + 0.4f * random.nextFloat();
+        boolean flip = random.nextBoolean();
+        float[] result = new float[tensor.length];
+        for (int i = 0; i < tensor.length; i++) {
+            int column = i % INPUT_SIZE;
+            int source = flip ? i - column + INPUT_SIZE - 1 - column : i;
+            result[i] = Math.min(1f, tensor[source] * brightness);
+        }
+        return result;
+    }
+
+    // Skewed towards small crops, which look like the tiles of a large frame.
+    private static double cropFraction(Random random) {
+        double r = random.nextDouble();
+        return MIN_CROP + (1 - MIN_CROP) * r * r;
+    }
+
+    private static float dot(float[] weights, float[] x, float[] mean, float[] std) {
+        float sum = 0;
+        for (int j = 0; j < weights.length; j++) {
+            sum += weights[j] * (x[j] - mean[j]) / std[j];
+        }
+        return sum;
+    }
+
+    private static float sigmoid(float value) {
+        return (float) (1 / (1 + Math.exp(-value)));
+    }
+}
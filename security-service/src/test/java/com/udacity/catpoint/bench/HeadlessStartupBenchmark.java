@@ -0,0 +1,107 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.application.CatpointServer;
+import com.udacity.catpoint.application.ControlPanel;
+import com.udacity.catpoint.application.DisplayPanel;
+import com.udacity.catpoint.application.ImagePanel;
+import com.udacity.catpoint.application.SensorPanel;
+import com.udacity.catpoint.data.SecurityRepositoryFactory;
+import com.udacity.catpoint.image.ImageServiceFactory;
+import com.udacity.catpoint.service.SecurityService;
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.JPanel;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Launches fresh JVMs from the packaged jar and compares starting {@link CatpointServer} with
+ * building the Swing GUI, reporting the time until each is ready, resident memory and the number
+ * of loaded classes. Run through the benchmark profile, which packages the jar first.
+ *
+ * Without a display a JFrame cannot be opened, so the GUI launch builds and paints the same
+ * panels the window holds into an offscreen image; opening a real window loads more still.
+ */
+public class HeadlessStartupBenchmark {
+    private static final int RUNS = 5;
+    private static final Path JAR = Path.of("target", "security-service-1.0-SNAPSHOT.jar");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1) {
+            child(args[0]);
+            return;
+        }
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classPath = JAR + File.pathSeparator + Path.of("target", "test-classes");
+        System.out.printf("%d fresh JVMs per launch mode%n", RUNS);
+        System.out.printf("%-10s %14s %12s %16s%n", "launch", "ready ms", "rss MiB", "loaded classes");
+        for (String mode : List.of("headless", "gui")) {
+            double readyMillis = 0;
+            double rssMiB = 0;
+            double classes = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(java, "-cp", classPath,
+                        "-D" + SecurityRepositoryFactory.BACKEND_PROPERTY + "=sql",
+                        "-D" + SecurityRepositoryFactory.LOCATION_PROPERTY + "=jdbc:h2:mem:startup",
+                        HeadlessStartupBenchmark.class.getName(), mode).redirectErrorStream(true).start();
+                String result = null;
+                try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    for (String line = output.readLine(); line != null; line = output.readLine()) {
+                        if (line.startsWith("READY ")) {
+                            result = line;
+                            readyMillis += (System.nanoTime() - start) / 1e6;
+                            break;
+                        }
+                    }
+                }
+                process.destroy();
+                process.waitFor();
+                if (result == null) {
+                    throw new IllegalStateException(mode + " launch never became ready");
+                }
+                String[] fields = result.split(" ");
+                rssMiB += Long.parseLong(fields[1]) / 1024.0;
+                classes += Long.parseLong(fields[2]);
+            }
+            System.out.printf("%-10s %14.1f %12.1f %16.0f%n", mode, readyMillis / RUNS, rssMiB / RUNS, classes / RUNS);
+        }
+    }
+
+    private static void child(String mode) throws Exception {
+        if (mode.equals("headless")) {
+            CatpointServer.fromSystemProperties().start();
+        } else {
+            System.setProperty("java.awt.headless", "true");
+            SecurityService securityService = new SecurityService(SecurityRepositoryFactory.fromSystemProperties(),
+                    ImageServiceFactory.fromSystemProperties());
+            JPanel mainPanel = new JPanel(new MigLayout("fillx, wrap 1"));
+            mainPanel.add(new DisplayPanel(securityService), "growx");
+            mainPanel.add(new ImagePanel(securityService, null), "growx");
+            mainPanel.add(new ControlPanel(securityService), "growx");
+            mainPanel.add(new SensorPanel(securityService), "growx");
+            mainPanel.setSize(mainPanel.getPreferredSize());
+            mainPanel.doLayout();
+            BufferedImage frame = new BufferedImage(mainPanel.getWidth(), mainPanel.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = frame.createGraphics();
+            mainPanel.printAll(graphics);
+            graphics.dispose();
+        }
+        long rssKiB = Files.readAllLines(Path.of("/proc/self/status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst().orElse(-1);
+        // Looked up reflectively because this module does not read the management modules.
+        Object classLoading = Class.forName("java.lang.management.ManagementFactory").getMethod("getClassLoadingMXBean").invoke(null);
+        int loaded = (int) Class.forName("java.lang.management.ClassLoadingMXBean").getMethod("getLoadedClassCount").invoke(classLoading);
+        System.out.println("READY " + rssKiB + " " + loaded);
+        System.out.flush();
+        Thread.sleep(Long.MAX_VALUE);
+    }
+}
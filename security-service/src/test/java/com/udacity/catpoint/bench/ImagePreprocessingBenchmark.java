@@ -0,0 +1,75 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.image.ImagePreprocessor;
+import software.amazon.awssdk.core.SdkBytes;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+/**
+ * Compares the original upload path (full-resolution JPEG into a fresh stream, copied into
+ * {@link SdkBytes}) with {@link ImagePreprocessor} at 720p, 1080p and 4K, reporting bytes sent,
+ * bytes allocated and latency per frame.
+ */
+public class ImagePreprocessingBenchmark {
+    private static final int WARMUP_FRAMES = 10;
+    private static final int FRAMES = 30;
+    private static final int[][] RESOLUTIONS = {{1280, 720}, {1920, 1080}, {3840, 2160}};
+
+    public static void main(String[] args) throws Exception {
+        BufferedImage sample = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+        ImagePreprocessor preprocessor = new ImagePreprocessor();
+        System.out.printf("%-10s %-12s %14s %16s %12s%n", "input", "path", "bytes sent", "alloc/frame", "ms/frame");
+        for (int[] resolution : RESOLUTIONS) {
+            BufferedImage frame = scale(sample, resolution[0], resolution[1]);
+            String input = resolution[0] + "x" + resolution[1];
+            run(input, "original", () -> original(frame));
+            run(input, "preprocessed", () -> SdkBytes.fromByteArrayUnsafe(preprocessor.encodeToArray(frame)));
+        }
+    }
+
+    private static SdkBytes original(BufferedImage frame) throws IOException {
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            ImageIO.write(frame, "jpg", os);
+            return SdkBytes.fromByteArray(os.toByteArray());
+        }
+    }
+
+    private static void run(String input, String path, Upload upload) throws Exception {
+        // Looked up reflectively because this module does not read the management modules.
+        Method allocatedBytes = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+        Object threads = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            upload.encode();
+        }
+        long bytesSent = 0;
+        long allocatedBefore = (long) allocatedBytes.invoke(threads, threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            bytesSent += upload.encode().asByteBuffer().remaining();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = (long) allocatedBytes.invoke(threads, threadId) - allocatedBefore;
+        System.out.printf("%-10s %-12s %,14d %,16d %12.2f%n", input, path, bytesSent / FRAMES, allocated / FRAMES, elapsed / 1e6 / FRAMES);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private interface Upload {
+        SdkBytes encode() throws IOException;
+    }
+}
@@ -0,0 +1,64 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.image.ConvNet;
+import com.udacity.catpoint.image.LocalCatClassifier;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Measures {@link LocalCatClassifier} throughput on the sample images for increasing pool sizes,
+ * both one frame at a time (latency bound, parallel convolution only) and with a batch of frames
+ * submitted asynchronously (frames also run side by side).
+ */
+public class LocalClassifierBenchmark {
+    private static final int WARMUP_FRAMES = 20;
+    private static final int FRAMES = 100;
+
+    public static void main(String[] args) throws Exception {
+        BufferedImage[] frames = {
+                ImageIO.read(Path.of("..", "sample-cat.jpg").toFile()),
+                ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile())
+        };
+        ConvNet model = LocalCatClassifier.loadBundledModel();
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-12s %14s %14s %16s%n", "parallelism", "ms/frame", "frames/s", "async frames/s");
+        for (int parallelism = 1; parallelism <= processors; parallelism *= 2) {
+            run(new LocalCatClassifier(model, parallelism), parallelism, frames);
+        }
+        if (Integer.bitCount(processors) != 1) {
+            run(new LocalCatClassifier(model, processors), processors, frames);
+        }
+    }
+
+    private static void run(LocalCatClassifier classifier, int parallelism, BufferedImage[] frames) {
+        int cats = 0;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            cats += classifier.imageContainsCat(frames[i % frames.length], 50.0f) ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            cats += classifier.imageContainsCat(frames[i % frames.length], 50.0f) ? 1 : 0;
+        }
+        long sequential = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(FRAMES);
+        for (int i = 0; i < FRAMES; i++) {
+            verdicts.add(classifier.imageContainsCatAsync(frames[i % frames.length], 50.0f));
+        }
+        for (CompletableFuture<Boolean> verdict : verdicts) {
+            cats += verdict.join() ? 1 : 0;
+        }
+        long async = System.nanoTime() - start;
+        if (cats != (WARMUP_FRAMES + 2 * FRAMES) / 2) {
+            throw new IllegalStateException("Unexpected verdicts: " + cats + " cats");
+        }
+        System.out.printf("%-12d %14.2f %14.1f %16.1f%n", parallelism,
+                sequential / 1e6 / FRAMES, FRAMES / (sequential / 1e9), FRAMES / (async / 1e9));
+    }
+}
@@ -0,0 +1,147 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.camera.CameraClassifierPool;
+import com.udacity.catpoint.camera.CameraStats;
+import com.udacity.catpoint.camera.Frame;
+import com.udacity.catpoint.camera.FrameSource;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.service.SecurityService;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds many quiet cameras and one camera flooding frames into a shared set of workers whose
+ * classifier takes a fixed time per frame, as a remote call would. Compares the fair round-robin
+ * {@link CameraClassifierPool} with handing every frame to one shared FIFO executor, reporting
+ * throughput and the latency seen by the quiet cameras.
+ */
+public class MultiCameraBenchmark {
+    private static final int QUIET_CAMERAS = 48;
+    private static final double QUIET_FPS = 5;
+    private static final double FLOODING_FPS = 1000;
+    private static final int WORKERS = 8;
+    private static final long CLASSIFY_MILLIS = 10;
+    private static final long RUN_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d quiet cameras at %.0f fps, one at %.0f fps, %d workers, %d ms per frame%n",
+                QUIET_CAMERAS, QUIET_FPS, FLOODING_FPS, WORKERS, CLASSIFY_MILLIS);
+        System.out.printf("%-10s %14s %18s %18s %16s%n", "scheduler", "frames/s", "quiet avg ms", "quiet max ms", "flood dropped");
+        fairPool();
+        sharedFifo();
+    }
+
+    private static SecurityService securityService(String name) {
+        ImageService classifier = (image, confidenceThreshold) -> {
+            try {
+                Thread.sleep(CLASSIFY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        };
+        return new SecurityService(new SqlSecurityRepositoryImpl("jdbc:h2:mem:" + name), classifier);
+    }
+
+    private static void fairPool() throws Exception {
+        try (CameraClassifierPool pool = new CameraClassifierPool(securityService("fair"), WORKERS)) {
+            for (int i = 0; i < QUIET_CAMERAS; i++) {
+                pool.addCamera("quiet-" + i, new SyntheticSource("quiet-" + i), QUIET_FPS);
+            }
+            pool.addCamera("flood", new SyntheticSource("flood"), FLOODING_FPS);
+            pool.start();
+            TimeUnit.SECONDS.sleep(RUN_SECONDS);
+
+            long processed = 0;
+            long quietProcessed = 0;
+            long quietLatencyNanos = 0;
+            long quietMaxNanos = 0;
+            for (String camera : pool.getCameraIds()) {
+                CameraStats stats = pool.getStats(camera);
+                processed += stats.processed();
+                if (camera.startsWith("quiet")) {
+                    quietProcessed += stats.processed();
+                    quietLatencyNanos += stats.averageLatency().toNanos() * stats.processed();
+                    quietMaxNanos = Math.max(quietMaxNanos, stats.maxLatency().toNanos());
+                }
+            }
+            System.out.printf("%-10s %14.1f %18.2f %18.2f %16d%n", "fair", (double) processed / RUN_SECONDS,
+                    quietLatencyNanos / 1e6 / Math.max(1, quietProcessed), quietMaxNanos / 1e6, pool.getStats("flood").dropped());
+        }
+    }
+
+    private static void sharedFifo() throws Exception {
+        SecurityService securityService = securityService("fifo");
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        LongAdder processed = new LongAdder();
+        LongAdder quietProcessed = new LongAdder();
+        LongAdder quietLatencyNanos = new LongAdder();
+        LongAccumulator quietMaxNanos = new LongAccumulator(Math::max, 0);
+        ExecutorService readers = Executors.newCachedThreadPool();
+        for (int i = 0; i <= QUIET_CAMERAS; i++) {
+            boolean quiet = i < QUIET_CAMERAS;
+            String camera = quiet ? "quiet-" + i : "flood";
+            long intervalNanos = (long) (1e9 / (quiet ? QUIET_FPS : FLOODING_FPS));
+            readers.execute(() -> {
+                SyntheticSource source = new SyntheticSource(camera);
+                long next = System.nanoTime();
+                while (!Thread.currentThread().isInterrupted()) {
+                    Frame frame = source.nextFrame();
+                    workers.execute(() -> {
+                        securityService.processImage(camera, frame.image());
+                        long latency = System.nanoTime() - frame.capturedNanos();
+                        processed.increment();
+                        if (quiet) {
+                            quietProcessed.increment();
+                            quietLatencyNanos.add(latency);
+                            quietMaxNanos.accumulate(latency);
+                        }
+                    });
+                    next += intervalNanos;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        TimeUnit.SECONDS.sleep(RUN_SECONDS);
+        readers.shutdownNow();
+        workers.shutdownNow();
+        System.out.printf("%-10s %14.1f %18.2f %18.2f %16s%n", "fifo", processed.sum() / (double) RUN_SECONDS,
+                quietLatencyNanos.sum() / 1e6 / Math.max(1, quietProcessed.sum()), quietMaxNanos.get() / 1e6, "-");
+    }
+
+    private static final class SyntheticSource implements FrameSource {
+        private final String name;
+        private final BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+
+        private SyntheticSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Frame nextFrame() {
+            return Frame.now(image);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
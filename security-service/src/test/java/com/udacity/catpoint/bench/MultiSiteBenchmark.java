@@ -0,0 +1,71 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.data.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives sensor toggles across thousands of sites from 1..N threads, each thread owning its own
+ * slice of sites, and reports mutations per second.
+ */
+public class MultiSiteBenchmark {
+    private static final int SITE_COUNT = 5000;
+    private static final int SENSORS_PER_SITE = 4;
+    private static final long RUN_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%8s %8s %16s%n", "sites", "threads", "mutations/sec");
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Path dir = Files.createTempDirectory("catpoint-sites");
+            try (MultiSiteSecurityRepository repository = new MultiSiteSecurityRepository(dir.resolve("sites.log"))) {
+                List<SecurityRepository> sites = new ArrayList<>();
+                List<Sensor> sensors = new ArrayList<>();
+                for (int i = 0; i < SITE_COUNT; i++) {
+                    SecurityRepository site = repository.forSite("site-" + i);
+                    for (int j = 0; j < SENSORS_PER_SITE; j++) {
+                        Sensor sensor = new Sensor("Sensor " + j, SensorType.DOOR);
+                        site.addSensor(sensor);
+                        sensors.add(sensor);
+                    }
+                    sites.add(site);
+                }
+                System.out.printf("%8d %8d %,16d%n", SITE_COUNT, threads, run(sites, sensors, threads));
+            }
+        }
+    }
+
+    private static long run(List<SecurityRepository> sites, List<Sensor> sensors, int threads) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder mutations = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers.add(new Thread(() -> {
+                long local = 0;
+                for (int i = offset; running.get(); i += threads) {
+                    int siteIndex = i % sites.size();
+                    Sensor sensor = sensors.get(siteIndex * SENSORS_PER_SITE + (i / sites.size()) % SENSORS_PER_SITE);
+                    synchronized (sensor) {
+                        sensor.setActive(!sensor.getActive());
+                        sites.get(siteIndex).updateSensor(sensor);
+                    }
+                    local++;
+                }
+                mutations.add(local);
+            }));
+        }
+        workers.forEach(Thread::start);
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return mutations.sum() * 1000 / RUN_MILLIS;
+    }
+}
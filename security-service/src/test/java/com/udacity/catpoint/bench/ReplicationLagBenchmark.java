@@ -0,0 +1,167 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.data.ReplicatedSecurityRepository;
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.ReplicationServer;
+import com.udacity.catpoint.net.StandbyReplica;
+import com.udacity.catpoint.service.SecurityService;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures replication from a primary in this JVM to a {@link StandbyReplica} in a second JVM
+ * over loopback while sensor events are applied to the primary at a series of paced rates. For
+ * each rate it reports the records replicated per second, the lag from a change on the primary
+ * until the standby applied it, and the most records the standby was seen to be behind. It then
+ * stops the primary's replication mid-load, as a crash would, promotes the standby and reports
+ * how long the bounded catch-up took and how many of the primary's records never arrived. Run
+ * through the benchmark profile, which packages the jar the standby is launched from.
+ */
+public class ReplicationLagBenchmark {
+    private static final int SENSORS = 256;
+    private static final int EVENTS_PER_BATCH = 16;
+    private static final long RUN_SECONDS = 5;
+    private static final int[] RATES = {1_000, 5_000, 20_000};
+    private static final Duration CATCH_UP = Duration.ofSeconds(1);
+    private static final Path JAR = Path.of("target", "security-service-1.0-SNAPSHOT.jar");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("standby")) {
+            standby();
+            return;
+        }
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-cp", JAR + File.pathSeparator + Path.of("target", "test-classes"),
+                ReplicationLagBenchmark.class.getName(), "standby").redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+             PrintWriter input = new PrintWriter(process.getOutputStream(), true)) {
+            System.out.printf("%d sensors, standby in a separate JVM, %d s per rate%n", SENSORS, RUN_SECONDS);
+            System.out.printf("%-10s %12s %10s %10s %11s %12s %10s %12s%n", "events/s", "records/s", "p50 ms", "p99 ms",
+                    "p99.9 ms", "max behind", "lost", "catch-up ms");
+            for (int rate : RATES) {
+                run(output, input, rate, false);
+            }
+            for (int rate : RATES) {
+                run(output, input, rate, true);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void run(BufferedReader output, PrintWriter input, int rate, boolean report) throws Exception {
+        ReplicatedSecurityRepository repository = new ReplicatedSecurityRepository(
+                new SqlSecurityRepositoryImpl("jdbc:h2:mem:primary-" + rate + report));
+        SecurityService securityService = new SecurityService(repository, (image, confidenceThreshold) -> false);
+        List<Sensor> sensors = new ArrayList<>();
+        for (int i = 0; i < SENSORS; i++) {
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensor);
+            sensors.add(sensor);
+        }
+        ReplicationServer server = new ReplicationServer(repository, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        try {
+            input.println("FOLLOW " + server.getLocalAddress().getPort());
+            expect(output, "READY");
+            Thread load = new Thread(() -> drive(securityService, sensors, rate), "replication-load");
+            load.setDaemon(true);
+            load.start();
+            long sequenceBefore = repository.getSequence();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(RUN_SECONDS);
+            long maxBehind = 0;
+            while (System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+                long acknowledged = server.getAcknowledgedSequence();
+                if (acknowledged >= 0) {
+                    maxBehind = Math.max(maxBehind, repository.getSequence() - acknowledged);
+                }
+            }
+            long records = repository.getSequence() - sequenceBefore;
+            input.println("LAG");
+            String[] lag = expect(output, "LAG").split(" ");
+
+            long sequenceAtCrash = repository.getSequence();
+            server.close();
+            input.println("PROMOTE");
+            String[] promoted = expect(output, "PROMOTED").split(" ");
+            load.interrupt();
+            load.join();
+            if (report) {
+                System.out.printf("%-10d %,12.0f %10.2f %10.2f %11.2f %,12d %,10d %12.1f%n", rate, records / (double) RUN_SECONDS,
+                        Long.parseLong(lag[1]) / 1e3, Long.parseLong(lag[2]) / 1e3, Long.parseLong(lag[3]) / 1e3, maxBehind,
+                        Math.max(0, sequenceAtCrash - Long.parseLong(promoted[1])), Long.parseLong(promoted[2]) / 1e3);
+            }
+        } finally {
+            server.close();
+            repository.close();
+        }
+    }
+
+    private static String expect(BufferedReader output, String prefix) throws Exception {
+        for (String line = output.readLine(); line != null; line = output.readLine()) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        throw new IllegalStateException("Standby exited before " + prefix);
+    }
+
+    private static void drive(SecurityService securityService, List<Sensor> sensors, int rate) {
+        long intervalNanos = (long) (EVENTS_PER_BATCH * 1e9 / rate);
+        long next = System.nanoTime();
+        long sequence = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            for (int i = 0; i < EVENTS_PER_BATCH; i++, sequence++) {
+                Sensor sensor = sensors.get((int) (sequence % sensors.size()));
+                securityService.changeSensorActivationStatusAsync(sensor, (sequence / sensors.size()) % 2 == 0);
+            }
+            next += intervalNanos;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    /**
+     * Follows one primary after another as told on standard input, so that every run after the
+     * first finds this JVM warmed up.
+     */
+    private static void standby() throws Exception {
+        try (BufferedReader commands = new BufferedReader(new InputStreamReader(System.in))) {
+            for (int run = 0; ; run++) {
+                int port = Integer.parseInt(expect(commands, "FOLLOW").split(" ")[1]);
+                StandbyReplica standby = new StandbyReplica(new SqlSecurityRepositoryImpl("jdbc:h2:mem:standby-" + run),
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                standby.start();
+                while (standby.getAppliedSequence() < 0 || standby.getLag() > 0) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+                System.out.println("READY");
+                expect(commands, "LAG");
+                System.out.printf("LAG %d %d %d%n", micros(standby.getLagPercentile(0.5)), micros(standby.getLagPercentile(0.99)),
+                        micros(standby.getLagPercentile(0.999)));
+                expect(commands, "PROMOTE");
+                long start = System.nanoTime();
+                standby.promote(CATCH_UP);
+                System.out.printf("PROMOTED %d %d%n", standby.getAppliedSequence(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        }
+    }
+
+    private static long micros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+}
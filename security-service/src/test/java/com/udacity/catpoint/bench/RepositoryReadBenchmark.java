@@ -0,0 +1,80 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.data.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures read throughput of a lock-based repository against the copy-on-write repository
+ * with 1..N reader threads while one writer toggles a sensor every millisecond.
+ */
+public class RepositoryReadBenchmark {
+    private static final int SENSOR_COUNT = 200;
+    private static final long RUN_MILLIS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-14s %8s %16s%n", "repository", "threads", "reads/sec");
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            run("locking", newJournaled(), threads);
+            run("copy-on-write", new CopyOnWriteSecurityRepository(newJournaled()), threads);
+        }
+    }
+
+    private static SecurityRepository newJournaled() throws Exception {
+        Path dir = Files.createTempDirectory("catpoint-bench");
+        dir.toFile().deleteOnExit();
+        SecurityRepository repository = new JournaledSecurityRepositoryImpl(dir, 100_000);
+        for (int i = 0; i < SENSOR_COUNT; i++) {
+            repository.addSensor(new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]));
+        }
+        return repository;
+    }
+
+    private static void run(String name, SecurityRepository repository, int threads) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        Sensor toggled = repository.getSensors().iterator().next();
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                toggled.setActive(!toggled.getActive());
+                repository.updateSensor(toggled);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            readers.add(new Thread(() -> {
+                long local = 0;
+                int sink = 0;
+                while (running.get()) {
+                    sink += repository.getSensors().size();
+                    sink += repository.getActiveSensorCount();
+                    sink += repository.getAlarmStatus().ordinal();
+                    local++;
+                }
+                reads.add(local);
+                if (sink == 42) System.out.print("");
+                done.countDown();
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        done.await();
+        writer.join();
+        System.out.printf("%-14s %8d %,16d%n", name, threads, reads.sum() * 1000 / RUN_MILLIS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.data.Sensor;
+import com.udacity.catpoint.data.SensorType;
+import com.udacity.catpoint.data.SqlSecurityRepositoryImpl;
+import com.udacity.catpoint.net.SensorEventCodec;
+import com.udacity.catpoint.net.SensorEventServer;
+import com.udacity.catpoint.service.SecurityService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link SensorEventServer} over loopback with sensor events at a series of offered
+ * rates, first from several TCP connections and then from one UDP sender. Senders are paced open
+ * loop, so a server that falls behind shows up as growing latency rather than as senders slowing
+ * down. Reports, per rate, the events applied by the service per second, the p99 latency from
+ * send to applied, and the bytes the selector thread allocates per event. The highest rate at
+ * which the applied rate keeps up with the offered one is the sustained rate.
+ */
+public class SensorEventLoadGenerator {
+    private static final int SENSORS = 256;
+    private static final int TCP_CONNECTIONS = 4;
+    private static final int FRAMES_PER_WRITE = 16;
+    private static final long WARMUP_SECONDS = 3;
+    private static final long RUN_SECONDS = 5;
+    private static final int[] RATES = {10_000, 20_000, 40_000, 80_000, 160_000};
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d sensors, %d tcp connections, %d frames per write, %d s per rate%n",
+                SENSORS, TCP_CONNECTIONS, FRAMES_PER_WRITE, RUN_SECONDS);
+        run(false, RATES[1], WARMUP_SECONDS, false);
+        System.out.printf("%-6s %14s %14s %10s %18s%n", "proto", "offered/s", "applied/s", "p99 ms", "alloc B/event");
+        for (boolean udp : new boolean[] {false, true}) {
+            for (int rate : RATES) {
+                run(udp, rate, RUN_SECONDS, true);
+            }
+        }
+    }
+
+    private static void run(boolean udp, int rate, long seconds, boolean report) throws Exception {
+        SecurityService securityService = new SecurityService(new SqlSecurityRepositoryImpl("jdbc:h2:mem:load-" + udp + rate + report),
+                (image, confidenceThreshold) -> false);
+        List<Sensor> sensors = new ArrayList<>();
+        for (int i = 0; i < SENSORS; i++) {
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensor);
+            sensors.add(sensor);
+        }
+        try (SensorEventServer server = new SensorEventServer(securityService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+            Thread selector = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("catpoint-sensor-server"))
+                    .findFirst().orElseThrow();
+            long allocatedBefore = allocatedBytes(selector);
+            int connections = udp ? 1 : TCP_CONNECTIONS;
+            List<Thread> senders = new ArrayList<>();
+            for (int c = 0; c < connections; c++) {
+                int connection = c;
+                Thread sender = new Thread(() -> send(server.getLocalAddress(), udp, sensors, connection, connections,
+                        (double) rate / connections), "load-" + c);
+                sender.setDaemon(true);
+                sender.start();
+                senders.add(sender);
+            }
+            TimeUnit.SECONDS.sleep(seconds);
+            long applied = server.getAppliedCount();
+            long received = server.getReceivedCount();
+            long allocated = allocatedBytes(selector) - allocatedBefore;
+            for (Thread sender : senders) {
+                sender.interrupt();
+                sender.join();
+            }
+            if (report) {
+                System.out.printf("%-6s %,14d %,14.0f %10.2f %18.1f%n", udp ? "udp" : "tcp", rate, applied / (double) seconds,
+                        server.getLatencyPercentile(0.99).toNanos() / 1e6, allocated / (double) Math.max(1, received));
+            }
+        }
+    }
+
+    private static void send(InetSocketAddress address, boolean udp, List<Sensor> sensors, int connection, int connections,
+                             double rate) {
+        ByteBuffer batch = ByteBuffer.allocateDirect(FRAMES_PER_WRITE * SensorEventCodec.FRAME_SIZE);
+        long intervalNanos = (long) (FRAMES_PER_WRITE * 1e9 / rate);
+        try (SocketChannel tcp = udp ? null : SocketChannel.open(address);
+             DatagramChannel datagrams = udp ? DatagramChannel.open().connect(address) : null) {
+            long sequence = connection;
+            long next = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.clear();
+                long now = epochMicros();
+                for (int i = 0; i < FRAMES_PER_WRITE; i++, sequence += connections) {
+                    Sensor sensor = sensors.get((int) (sequence % sensors.size()));
+                    SensorEventCodec.encode(batch, sensor.getSensorId(), (sequence / sensors.size()) % 2 == 0, now);
+                }
+                batch.flip();
+                if (udp) {
+                    datagrams.write(batch);
+                } else {
+                    while (batch.hasRemaining()) {
+                        tcp.write(batch);
+                    }
+                }
+                next += intervalNanos;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        } catch (ClosedByInterruptException e) {
+            // Stopped mid-write.
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long epochMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+
+    private static long allocatedBytes(Thread thread) throws Exception {
+        // Looked up reflectively because this module does not read the management modules.
+        Object threads = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+        Method allocated = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+        return (long) allocated.invoke(threads, thread.getId());
+    }
+}
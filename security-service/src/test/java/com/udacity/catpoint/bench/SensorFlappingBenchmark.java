@@ -0,0 +1,110 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.application.StatusListener;
+import com.udacity.catpoint.data.*;
+import com.udacity.catpoint.service.SecurityService;
+import com.udacity.catpoint.service.SensorEventIngester;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays the same synthetic flapping workload straight into {@link SecurityService} and through a
+ * {@link SensorEventIngester}, and reports repository writes and listener calls for each.
+ */
+public class SensorFlappingBenchmark {
+    private static final int SENSOR_COUNT = 20;
+    private static final int TOGGLES_PER_SENSOR = 500;
+    private static final int BURSTS = 10;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %-10s %10s %10s %10s %10s%n", "arming", "mode", "events", "writes", "listener", "millis");
+        for (ArmingStatus armingStatus : new ArmingStatus[]{ArmingStatus.DISARMED, ArmingStatus.ARMED_AWAY}) {
+            run(armingStatus, false);
+            run(armingStatus, true);
+        }
+    }
+
+    private static void run(ArmingStatus armingStatus, boolean coalesce) {
+        try (CountingRepository repository = new CountingRepository()) {
+            SecurityService securityService = new SecurityService(repository, (image, threshold) -> false);
+            List<Sensor> sensors = new ArrayList<>();
+            for (int i = 0; i < SENSOR_COUNT; i++) {
+                Sensor sensor = new Sensor("Sensor " + i, i % 2 == 0 ? SensorType.DOOR : SensorType.MOTION);
+                securityService.addSensor(sensor);
+                sensors.add(sensor);
+            }
+            securityService.setArmingStatus(armingStatus);
+            LongAdder listenerCalls = new LongAdder();
+            securityService.addStatusListener(new StatusListener() {
+                @Override
+                public void notify(AlarmStatus status) {
+                    listenerCalls.increment();
+                }
+                @Override
+                public void catDetected(boolean catDetected) {
+                    listenerCalls.increment();
+                }
+                @Override
+                public void sensorStatusChanged() {
+                    listenerCalls.increment();
+                }
+            });
+            repository.writes.reset();
+
+            long start = System.nanoTime();
+            long events = 0;
+            try (SensorEventIngester ingester = new SensorEventIngester(securityService, Duration.ofMillis(50))) {
+                for (int burst = 0; burst < BURSTS; burst++) {
+                    // Alarm trips quickly while armed; reset it so every burst exercises the rules.
+                    securityService.setAlarmStatus(AlarmStatus.NO_ALARM);
+                    for (int t = 0; t < TOGGLES_PER_SENSOR; t++) {
+                        for (Sensor sensor : sensors) {
+                            boolean active = t % 2 == 0;
+                            if (coalesce) {
+                                ingester.submit(sensor, active);
+                            } else {
+                                securityService.changeSensorActivationStatus(sensor, active);
+                            }
+                            events++;
+                        }
+                    }
+                    ingester.flush().join();
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%-12s %-10s %,10d %,10d %,10d %,10d%n", armingStatus, coalesce ? "coalesced" : "direct",
+                    events, repository.writes.sum(), listenerCalls.sum(), millis);
+        }
+    }
+
+    private static final class CountingRepository extends SqlSecurityRepositoryImpl {
+        private final LongAdder writes = new LongAdder();
+
+        private CountingRepository() {
+            super("jdbc:h2:mem:");
+        }
+
+        @Override
+        public synchronized void updateSensor(Sensor sensor) {
+            writes.increment();
+            super.updateSensor(sensor);
+        }
+
+        @Override
+        public synchronized void updateSensors(Collection<Sensor> sensors) {
+            writes.increment();
+            super.updateSensors(sensors);
+        }
+
+        @Override
+        public synchronized void setAlarmStatus(AlarmStatus alarmStatus) {
+            writes.increment();
+            super.setAlarmStatus(alarmStatus);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.udacity.catpoint.bench;
+
+import com.udacity.catpoint.image.ConvNet;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.LocalCatClassifier;
+import com.udacity.catpoint.image.TiledImageService;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares single-shot classification of a 4K frame with {@link TiledImageService} using the
+ * local classifier, on a frame with a small cat in one corner and on a frame without a cat.
+ * Reports the verdict, wall-clock latency, process CPU time and core utilization per frame.
+ */
+public class TiledDetectionBenchmark {
+    private static final int WARMUP_FRAMES = 5;
+    private static final int FRAMES = 20;
+
+    public static void main(String[] args) throws Exception {
+        BufferedImage cat = ImageIO.read(Path.of("..", "sample-cat.jpg").toFile());
+        BufferedImage field = ImageIO.read(Path.of("..", "sample-not-a-cat-fail.jpg").toFile());
+        BufferedImage empty = scale(field, 3840, 2160);
+        BufferedImage smallCat = scale(field, 3840, 2160);
+        Graphics2D graphics = smallCat.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(cat, 2900, 1400, 800, 600, null);
+        graphics.dispose();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ConvNet model = LocalCatClassifier.loadBundledModel();
+        ImageService single = new LocalCatClassifier(model, cores);
+        ImageService tiled = new TiledImageService(new LocalCatClassifier(model, 1), 1024, 256, new ForkJoinPool(cores));
+        System.out.printf("%d cores%n", cores);
+        System.out.printf("%-10s %-8s %8s %12s %12s %12s%n", "frame", "path", "cat", "ms/frame", "cpu ms", "cores used");
+        run("small cat", "single", single, smallCat, cores);
+        run("small cat", "tiled", tiled, smallCat, cores);
+        run("no cat", "single", single, empty, cores);
+        run("no cat", "tiled", tiled, empty, cores);
+    }
+
+    private static void run(String frameName, String path, ImageService service, BufferedImage frame, int cores) throws Exception {
+        // Looked up reflectively because this module does not read the management modules.
+        Object os = Class.forName("java.lang.management.ManagementFactory").getMethod("getOperatingSystemMXBean").invoke(null);
+        Method processCpuTime = Class.forName("com.sun.management.OperatingSystemMXBean").getMethod("getProcessCpuTime");
+        boolean cat = false;
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            cat = service.imageContainsCat(frame, 50.0f);
+        }
+        long cpuBefore = (long) processCpuTime.invoke(os);
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            cat = service.imageContainsCat(frame, 50.0f);
+        }
+        long elapsed = System.nanoTime() - start;
+        long cpu = (long) processCpuTime.invoke(os) - cpuBefore;
+        System.out.printf("%-10s %-8s %8s %12.2f %12.2f %12.2f%n", frameName, path, cat,
+                elapsed / 1e6 / FRAMES, cpu / 1e6 / FRAMES, Math.min(cores, (double) cpu / elapsed));
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+}